@@ -0,0 +1,192 @@
+package depgraph.Analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Node;
+
+/**
+ * Function-level call graph in compressed sparse row form: the callees of
+ * function i are targets[offsets[i]] to targets[offsets[i + 1] - 1]. Functions
+ * are numbered in the order of the node list they were built from. Two int
+ * arrays hold the whole graph, so traversals touch no objects per call. The
+ * Edge each call was built from is kept at the same position (see getCall).
+ *
+ * Build it from Parser.getNodes and Parser.getCalls (see
+ * Parser.setRecordCalls), which include the calls within a module that the
+ * module graph leaves out.
+ */
+public class CallGraph {
+
+	private Node[] functions;
+
+	private int[] offsets;
+
+	private int[] targets;
+
+	/**
+	 * Edge of each call, in the order of targets.
+	 */
+	private Edge[] calls;
+
+	/**
+	 * Reversed graph, built on first use.
+	 */
+	private CallGraph reversed;
+
+	/**
+	 * Number of each function by label.
+	 */
+	private HashMap<String, Integer> indexByLabel;
+
+	/**
+	 * @param nodes Functions of the graph.
+	 * @param calls Calls between the functions. Calls to or from functions that
+	 *              are not in nodes are ignored.
+	 */
+	public CallGraph(List<Node> nodes, List<Edge> calls) {
+		int size = nodes.size();
+		functions = nodes.toArray(new Node[size]);
+		indexByLabel = new HashMap<String, Integer>(2 * size);
+
+		for (int i = 0; i < size; i++)
+			indexByLabel.put(functions[i].getNodeLabel(), i);
+
+		int[] sources = new int[calls.size()];
+		int[] destinations = new int[calls.size()];
+		Edge[] edges = new Edge[calls.size()];
+		int count = 0;
+		offsets = new int[size + 1];
+
+		for (Edge call : calls) {
+			Integer src = indexByLabel.get(call.getSourceNodeObject().getNodeLabel());
+			Integer dst = indexByLabel.get(call.getDestinationNodeObject().getNodeLabel());
+			if (src == null || dst == null)
+				continue;
+			sources[count] = src;
+			destinations[count] = dst;
+			edges[count] = call;
+			offsets[src + 1]++;
+			count++;
+		}
+
+		for (int i = 0; i < size; i++)
+			offsets[i + 1] += offsets[i];
+
+		// Counting sort of the calls by caller
+		targets = new int[count];
+		this.calls = new Edge[count];
+		int[] next = Arrays.copyOf(offsets, size);
+		for (int i = 0; i < count; i++) {
+			this.calls[next[sources[i]]] = edges[i];
+			targets[next[sources[i]]++] = destinations[i];
+		}
+	}
+
+	private CallGraph() {
+	}
+
+	/**
+	 * @return The same functions with every call reversed, so the callees of a
+	 *         function in the reversed graph are its callers. Built once, later
+	 *         calls return the same graph.
+	 */
+	public CallGraph reverse() {
+		if (reversed != null)
+			return reversed;
+
+		int size = size();
+		reversed = new CallGraph();
+		reversed.functions = functions;
+		reversed.indexByLabel = indexByLabel;
+		reversed.offsets = new int[size + 1];
+		reversed.targets = new int[targets.length];
+		reversed.calls = new Edge[targets.length];
+		reversed.reversed = this;
+
+		for (int target : targets)
+			reversed.offsets[target + 1]++;
+		for (int i = 0; i < size; i++)
+			reversed.offsets[i + 1] += reversed.offsets[i];
+
+		int[] next = Arrays.copyOf(reversed.offsets, size);
+		for (int function = 0; function < size; function++)
+			for (int call = offsets[function]; call < offsets[function + 1]; call++) {
+				reversed.calls[next[targets[call]]] = calls[call];
+				reversed.targets[next[targets[call]]++] = function;
+			}
+
+		return reversed;
+	}
+
+	/**
+	 * @return Number of functions.
+	 */
+	public int size() {
+		return functions.length;
+	}
+
+	/**
+	 * @return Number of calls.
+	 */
+	public int callCount() {
+		return targets.length;
+	}
+
+	/**
+	 * @param function Number of a function.
+	 * @return Position of its first callee in getTargets.
+	 */
+	public int firstCall(int function) {
+		return offsets[function];
+	}
+
+	/**
+	 * @param function Number of a function.
+	 * @return Position after its last callee in getTargets.
+	 */
+	public int endCall(int function) {
+		return offsets[function + 1];
+	}
+
+	/**
+	 * @param position Position of a call (see firstCall and endCall).
+	 * @return Number of the called function.
+	 */
+	public int target(int position) {
+		return targets[position];
+	}
+
+	/**
+	 * @param position Position of a call (see firstCall and endCall).
+	 * @return Edge the call was built from. In a reversed graph this is the
+	 *         original edge, from caller to callee.
+	 */
+	public Edge getCall(int position) {
+		return calls[position];
+	}
+
+	public String getLabel(int function) {
+		return functions[function].getNodeLabel();
+	}
+
+	/**
+	 * @param function Number of a function.
+	 * @return Node of the function, for its module, visibility and whether it is
+	 *         defined in the input (Node.isRoot).
+	 */
+	public Node getNode(int function) {
+		return functions[function];
+	}
+
+	/**
+	 * @param label Name of a function.
+	 * @return Number of the function, -1 if it is not in the graph.
+	 */
+	public int indexOf(String label) {
+		Integer index = indexByLabel.get(label);
+		return (index == null) ? -1 : index;
+	}
+}
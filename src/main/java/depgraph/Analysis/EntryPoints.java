@@ -0,0 +1,57 @@
+package depgraph.Analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the entry functions of a CallGraph (task entries, interrupt handlers,
+ * main), where the stack depth and reachability analyses start.
+ *
+ * Entries are given as comma separated names in which * matches any text, e.g.
+ * ENG_TSK_*,APPL_TSK_*,*_IRQHandler. Without names, every function that is
+ * defined in the input (Node.isRoot: the root of its Doxygen call graph, or a
+ * function definition for the other front ends) and not called by any other
+ * function is an entry.
+ */
+public class EntryPoints {
+
+	private EntryPoints() {
+	}
+
+	/**
+	 * @param graph    Call graph to search.
+	 * @param patterns Comma separated names of the entry functions, null or empty
+	 *                 for the uncalled defined functions.
+	 * @return Numbers of the entry functions, in graph order.
+	 */
+	public static List<Integer> find(CallGraph graph, String patterns) {
+		List<Integer> entries = new ArrayList<Integer>();
+
+		if (patterns == null || patterns.trim().isEmpty()) {
+			boolean[] called = new boolean[graph.size()];
+			for (int function = 0; function < graph.size(); function++)
+				for (int call = graph.firstCall(function); call < graph.endCall(function); call++)
+					if (graph.target(call) != function)
+						called[graph.target(call)] = true;
+			for (int function = 0; function < graph.size(); function++)
+				if (!called[function] && graph.getNode(function).isRoot())
+					entries.add(function);
+			return entries;
+		}
+
+		List<Pattern> globs = new ArrayList<Pattern>();
+		for (String pattern : patterns.split(","))
+			if (!pattern.trim().isEmpty())
+				globs.add(Pattern.compile(Pattern.quote(pattern.trim()).replace("*", "\\E.*\\Q")));
+
+		for (int function = 0; function < graph.size(); function++)
+			for (Pattern glob : globs)
+				if (glob.matcher(graph.getLabel(function)).matches()) {
+					entries.add(function);
+					break;
+				}
+
+		return entries;
+	}
+}
@@ -0,0 +1,128 @@
+package depgraph.Analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * The neighbourhood of one function or module: every function within a number
+ * of calls of it, following calls forwards (callees), backwards (callers) or
+ * both, with the calls between those functions.
+ *
+ * The functions are found with a breadth-first search over the CallGraph and
+ * its reverse, stopping after the given number of hops, and the calls between
+ * them are collected from the callees of the selected functions, so only the
+ * neighbourhood is visited. Building the CallGraph and its reverse (once per
+ * CallGraph) is linear in the size of the whole graph. The result is a small
+ * module graph that can be passed to the GraphWriter instead of the whole
+ * graph.
+ */
+public class FocusView {
+
+	/**
+	 * Which calls to follow from the focus.
+	 */
+	public enum Direction {
+		/** Callers only. */
+		IN,
+		/** Callees only. */
+		OUT,
+		/** Callers and callees. */
+		BOTH;
+
+		/**
+		 * @param spec in, out or both, in any case.
+		 * @return The direction.
+		 * @throws Exception If the direction is unknown.
+		 */
+		public static Direction fromSpec(String spec) throws Exception {
+			try {
+				return valueOf(spec.trim().toUpperCase());
+			} catch (IllegalArgumentException ex) {
+				throw new Exception("Unknown focus direction: " + spec);
+			}
+		}
+	}
+
+	private List<Module> modules;
+
+	private List<Edge> edges;
+
+	/**
+	 * @param graph     Call graph of all functions.
+	 * @param name      Label of a function or prefix of a module (ignoring case)
+	 *                  to focus on.
+	 * @param depth     Number of calls to follow from the focus, 0 for the focus
+	 *                  alone.
+	 * @param direction Calls to follow.
+	 * @throws Exception If there is no function or module with the name.
+	 */
+	public FocusView(CallGraph graph, String name, int depth, Direction direction) throws Exception {
+		int[] queue = new int[graph.size()];
+		int tail = 0;
+		BitSet selected = new BitSet(graph.size());
+
+		int function = graph.indexOf(name);
+		if (function != -1) {
+			selected.set(function);
+			queue[tail++] = function;
+		} else {
+			for (int f = 0; f < graph.size(); f++)
+				if (graph.getNode(f).getModulePrefix().equalsIgnoreCase(name)) {
+					selected.set(f);
+					queue[tail++] = f;
+				}
+		}
+		if (tail == 0)
+			throw new Exception("No function or module named " + name);
+
+		List<CallGraph> directions = new ArrayList<CallGraph>();
+		if (direction != Direction.IN)
+			directions.add(graph);
+		if (direction != Direction.OUT)
+			directions.add(graph.reverse());
+
+		// One level of the search per hop
+		int head = 0;
+		for (int hop = 0; hop < depth && head < tail; hop++) {
+			int levelEnd = tail;
+			for (; head < levelEnd; head++)
+				for (CallGraph index : directions)
+					for (int call = index.firstCall(queue[head]); call < index.endCall(queue[head]); call++) {
+						int next = index.target(call);
+						if (!selected.get(next)) {
+							selected.set(next);
+							queue[tail++] = next;
+						}
+					}
+		}
+
+		LinkedHashMap<String, Module> modulesByPrefix = new LinkedHashMap<String, Module>();
+		for (int f = selected.nextSetBit(0); f != -1; f = selected.nextSetBit(f + 1)) {
+			Node node = graph.getNode(f);
+			modulesByPrefix.computeIfAbsent(node.getModulePrefix(), Module::new).add(node);
+		}
+		modules = new ArrayList<Module>(modulesByPrefix.values());
+
+		edges = new ArrayList<Edge>();
+		for (int f = selected.nextSetBit(0); f != -1; f = selected.nextSetBit(f + 1))
+			for (int call = graph.firstCall(f); call < graph.endCall(f); call++)
+				if (selected.get(graph.target(call)))
+					edges.add(graph.getCall(call));
+	}
+
+	/* Setters and Getters */
+
+	public List<Module> getModules() {
+		return modules;
+	}
+
+	public List<Edge> getEdges() {
+		return edges;
+	}
+}
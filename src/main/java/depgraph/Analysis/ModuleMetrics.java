@@ -0,0 +1,294 @@
+package depgraph.Analysis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Coupling metrics of the modules and functions of a module graph, computed in
+ * one pass over the modules and one over the edges with primitive counters.
+ *
+ * Per module:
+ * <ul>
+ * <li>afferent coupling (Ca) - number of other modules calling into it</li>
+ * <li>efferent coupling (Ce) - number of other modules it calls</li>
+ * <li>instability - Ce / (Ca + Ce), 0 for a module without dependencies</li>
+ * <li>public and private functions (Node.isPublic), the public ones being the
+ * API surface, and their ratio</li>
+ * <li>calls in and out</li>
+ * </ul>
+ * Per function: fan-in and fan-out, i.e. the number of functions calling it
+ * and called by it. The module graph only holds calls between modules, so
+ * calls within a module are not counted.
+ *
+ * Modules and functions are reported in the order they are passed in.
+ */
+public class ModuleMetrics {
+
+	private List<Module> modules;
+
+	/**
+	 * Functions in module order.
+	 */
+	private Node[] functions;
+
+	/**
+	 * Module of each function.
+	 */
+	private int[] moduleOf;
+
+	private int[] fanIn;
+
+	private int[] fanOut;
+
+	private int[] publicFunctions;
+
+	private int[] privateFunctions;
+
+	private int[] callsIn;
+
+	private int[] callsOut;
+
+	private int[] afferent;
+
+	private int[] efferent;
+
+	/**
+	 * @param modules Modules of the graph.
+	 * @param edges   Edges of the graph. Edges to functions outside of the
+	 *                modules are ignored.
+	 */
+	public ModuleMetrics(List<Module> modules, List<Edge> edges) {
+		this.modules = modules;
+		int moduleCount = modules.size();
+		publicFunctions = new int[moduleCount];
+		privateFunctions = new int[moduleCount];
+		callsIn = new int[moduleCount];
+		callsOut = new int[moduleCount];
+		afferent = new int[moduleCount];
+		efferent = new int[moduleCount];
+
+		int functionCount = 0;
+		for (Module module : modules)
+			functionCount += module.getNodes().size();
+		functions = new Node[functionCount];
+		moduleOf = new int[functionCount];
+		fanIn = new int[functionCount];
+		fanOut = new int[functionCount];
+
+		IdentityHashMap<Node, Integer> indexOf = new IdentityHashMap<Node, Integer>(2 * functionCount);
+		int function = 0;
+		for (int m = 0; m < moduleCount; m++) {
+			for (Node node : modules.get(m).getNodes()) {
+				functions[function] = node;
+				moduleOf[function] = m;
+				indexOf.put(node, function++);
+				if (node.isPublic())
+					publicFunctions[m]++;
+				else
+					privateFunctions[m]++;
+			}
+		}
+
+		// One bit per pair of modules, set once the first call between them is seen.
+		// Pairs beyond the range of a BitSet go to a hash set
+		BitSet dependsOn = new BitSet();
+		HashSet<Long> dependsOnLarge = new HashSet<Long>();
+		for (Edge edge : edges) {
+			Integer src = indexOf.get(edge.getSourceNodeObject());
+			Integer dst = indexOf.get(edge.getDestinationNodeObject());
+			if (src == null || dst == null)
+				continue;
+
+			fanOut[src]++;
+			fanIn[dst]++;
+			int from = moduleOf[src];
+			int to = moduleOf[dst];
+			if (from == to)
+				continue;
+
+			callsOut[from]++;
+			callsIn[to]++;
+			long pair = (long) from * moduleCount + to;
+			boolean first;
+			if (pair < Integer.MAX_VALUE) {
+				first = !dependsOn.get((int) pair);
+				dependsOn.set((int) pair);
+			} else {
+				first = dependsOnLarge.add(pair);
+			}
+			if (first) {
+				efferent[from]++;
+				afferent[to]++;
+			}
+		}
+	}
+
+	/**
+	 * @param module Position of a module.
+	 * @return Instability of the module, between 0 (only depended upon) and 1
+	 *         (only depending on others).
+	 */
+	public double getInstability(int module) {
+		int coupling = afferent[module] + efferent[module];
+		return (coupling == 0) ? 0 : (double) efferent[module] / coupling;
+	}
+
+	/**
+	 * @return Fill colors of the module clusters keyed by module prefix, from
+	 *         pale blue for stable to pale red for unstable modules.
+	 */
+	public HashMap<String, String> getHeatColors() {
+		HashMap<String, String> colors = new HashMap<String, String>();
+		for (int m = 0; m < modules.size(); m++)
+			colors.put(modules.get(m).getModulePrefix(),
+					String.format(Locale.ROOT, "%.3f 0.350 1.000", 0.6 * (1 - getInstability(m))));
+		return colors;
+	}
+
+	/**
+	 * Writes the module metrics as CSV, one row per module.
+	 *
+	 * @param out Destination, not closed by this function.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	public void writeModuleCsv(Writer out) throws IOException {
+		out.write("module,functions,public,private,private_per_public,afferent,efferent,instability,calls_in,"
+				+ "calls_out\n");
+		for (int m = 0; m < modules.size(); m++) {
+			out.write(csvField(modules.get(m).getModulePrefix()));
+			out.write(String.format(Locale.ROOT, ",%d,%d,%d,%s,%d,%d,%.3f,%d,%d\n",
+					publicFunctions[m] + privateFunctions[m], publicFunctions[m], privateFunctions[m],
+					getPrivatePerPublic(m), afferent[m], efferent[m], getInstability(m), callsIn[m], callsOut[m]));
+		}
+	}
+
+	/**
+	 * Writes the function metrics as CSV, one row per function.
+	 *
+	 * @param out Destination, not closed by this function.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	public void writeFunctionCsv(Writer out) throws IOException {
+		out.write("function,module,public,fan_in,fan_out\n");
+		for (int f = 0; f < functions.length; f++) {
+			out.write(csvField(functions[f].getNodeLabel()));
+			out.write(',');
+			out.write(csvField(modules.get(moduleOf[f]).getModulePrefix()));
+			out.write(String.format(",%b,%d,%d\n", functions[f].isPublic(), fanIn[f], fanOut[f]));
+		}
+	}
+
+	/**
+	 * Writes module and function metrics as one JSON document.
+	 *
+	 * @param out Destination, not closed by this function.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	public void writeJson(Writer out) throws IOException {
+		out.write("{\n  \"modules\": [");
+		for (int m = 0; m < modules.size(); m++) {
+			out.write(m == 0 ? "\n" : ",\n");
+			String ratio = getPrivatePerPublic(m);
+			out.write(String.format(Locale.ROOT,
+					"    { \"module\": %s, \"functions\": %d, \"public\": %d, \"private\": %d, \"privatePerPublic\": %s, "
+							+ "\"afferent\": %d, \"efferent\": %d, \"instability\": %.3f, \"callsIn\": %d, "
+							+ "\"callsOut\": %d }",
+					jsonString(modules.get(m).getModulePrefix()), publicFunctions[m] + privateFunctions[m],
+					publicFunctions[m], privateFunctions[m], ratio.isEmpty() ? "null" : ratio, afferent[m],
+					efferent[m], getInstability(m), callsIn[m], callsOut[m]));
+		}
+		out.write(modules.isEmpty() ? "],\n  \"functions\": [" : "\n  ],\n  \"functions\": [");
+		for (int f = 0; f < functions.length; f++) {
+			out.write(f == 0 ? "\n" : ",\n");
+			out.write(String.format(
+					"    { \"function\": %s, \"module\": %s, \"public\": %b, \"fanIn\": %d, \"fanOut\": %d }",
+					jsonString(functions[f].getNodeLabel()), jsonString(modules.get(moduleOf[f]).getModulePrefix()),
+					functions[f].isPublic(), fanIn[f], fanOut[f]));
+		}
+		out.write(functions.length == 0 ? "]\n}\n" : "\n  ]\n}\n");
+	}
+
+	/**
+	 * @return Private functions per public function, empty if the module has no
+	 *         public functions.
+	 */
+	private String getPrivatePerPublic(int module) {
+		if (publicFunctions[module] == 0)
+			return "";
+		return String.format(Locale.ROOT, "%.3f", (double) privateFunctions[module] / publicFunctions[module]);
+	}
+
+	private static String csvField(String value) {
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1)
+			return value;
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private static String jsonString(String value) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < 0x20)
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
+	/* Setters and Getters */
+
+	public List<Module> getModules() {
+		return modules;
+	}
+
+	public int getAfferentCoupling(int module) {
+		return afferent[module];
+	}
+
+	public int getEfferentCoupling(int module) {
+		return efferent[module];
+	}
+
+	public int getPublicFunctions(int module) {
+		return publicFunctions[module];
+	}
+
+	public int getPrivateFunctions(int module) {
+		return privateFunctions[module];
+	}
+
+	/**
+	 * @param function Label of a function.
+	 * @return Number of calls to the function, -1 if it is not in a module.
+	 */
+	public int getFanIn(String function) {
+		for (int f = 0; f < functions.length; f++)
+			if (functions[f].getNodeLabel().equals(function))
+				return fanIn[f];
+		return -1;
+	}
+
+	/**
+	 * @param function Label of a function.
+	 * @return Number of calls from the function, -1 if it is not in a module.
+	 */
+	public int getFanOut(String function) {
+		for (int f = 0; f < functions.length; f++)
+			if (functions[f].getNodeLabel().equals(function))
+				return fanOut[f];
+		return -1;
+	}
+}
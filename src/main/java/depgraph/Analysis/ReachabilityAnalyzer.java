@@ -0,0 +1,130 @@
+package depgraph.Analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds dead code in a CallGraph: functions that can not be reached from any
+ * entry function (see EntryPoints), modules none of whose functions can be
+ * reached, and public functions that no other module calls.
+ *
+ * Reachability is a breadth-first search from all entries at once, with the
+ * visited functions in a BitSet and the queue in an int array, so every
+ * function and call is looked at once.
+ */
+public class ReachabilityAnalyzer {
+
+	private CallGraph graph;
+
+	private List<Integer> entries;
+
+	private BitSet reachable;
+
+	/**
+	 * @param graph   Call graph including calls within modules.
+	 * @param entries Numbers of the entry functions.
+	 */
+	public ReachabilityAnalyzer(CallGraph graph, List<Integer> entries) {
+		this.graph = graph;
+		this.entries = entries;
+		this.reachable = new BitSet(graph.size());
+
+		int[] queue = new int[graph.size()];
+		int head = 0;
+		int tail = 0;
+		for (int entry : entries)
+			if (!reachable.get(entry)) {
+				reachable.set(entry);
+				queue[tail++] = entry;
+			}
+
+		while (head < tail) {
+			int function = queue[head++];
+			for (int call = graph.firstCall(function); call < graph.endCall(function); call++) {
+				int callee = graph.target(call);
+				if (!reachable.get(callee)) {
+					reachable.set(callee);
+					queue[tail++] = callee;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param function Number of a function.
+	 * @return True if the function can be reached from an entry function.
+	 */
+	public boolean isReachable(int function) {
+		return reachable.get(function);
+	}
+
+	/**
+	 * @return Number of functions reachable from the entry functions.
+	 */
+	public int getReachableCount() {
+		return reachable.cardinality();
+	}
+
+	/**
+	 * @return Names of the unreachable functions, in graph order.
+	 */
+	public List<String> getUnreachableFunctions() {
+		List<String> functions = new ArrayList<String>();
+		for (int function = reachable.nextClearBit(0); function < graph.size(); function = reachable
+				.nextClearBit(function + 1))
+			functions.add(graph.getLabel(function));
+		return functions;
+	}
+
+	/**
+	 * @return Prefixes of the modules without a reachable function, in order of
+	 *         their first function.
+	 */
+	public List<String> getUnreachableModules() {
+		Map<String, Boolean> modules = new LinkedHashMap<String, Boolean>();
+		for (int function = 0; function < graph.size(); function++)
+			modules.merge(graph.getNode(function).getModulePrefix(), reachable.get(function), Boolean::logicalOr);
+
+		List<String> unreachable = new ArrayList<String>();
+		for (Map.Entry<String, Boolean> module : modules.entrySet())
+			if (!module.getValue())
+				unreachable.add(module.getKey());
+		return unreachable;
+	}
+
+	/**
+	 * Public functions are the API of their module; one that no other module
+	 * calls could be private. Entry functions are left out, they are called by
+	 * the scheduler or the hardware.
+	 *
+	 * @return Names of the public functions not called from another module, in
+	 *         graph order.
+	 */
+	public List<String> getUnusedPublicFunctions() {
+		BitSet calledFromOutside = new BitSet(graph.size());
+		for (int function = 0; function < graph.size(); function++)
+			for (int call = graph.firstCall(function); call < graph.endCall(function); call++) {
+				int callee = graph.target(call);
+				if (!graph.getNode(function).getModulePrefix().equalsIgnoreCase(graph.getNode(callee).getModulePrefix()))
+					calledFromOutside.set(callee);
+			}
+		for (int entry : entries)
+			calledFromOutside.set(entry);
+
+		List<String> functions = new ArrayList<String>();
+		for (int function = 0; function < graph.size(); function++)
+			if (graph.getNode(function).isPublic() && !calledFromOutside.get(function))
+				functions.add(graph.getLabel(function));
+		return functions;
+	}
+
+	/**
+	 * @return Numbers of the entry functions the search started from.
+	 */
+	public List<Integer> getEntries() {
+		return entries;
+	}
+}
@@ -0,0 +1,171 @@
+package depgraph.Analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Worst-case stack depth along the call paths of a CallGraph, from the frame
+ * sizes in StackUsage.
+ *
+ * Recursion makes the depth unbounded, so the graph is condensed into its
+ * strongly connected components first. The depth of a component is its frame
+ * (the frames of all its functions, i.e. one trip around the cycle) plus the
+ * deepest component it calls. Components are numbered callees first (see
+ * StronglyConnectedComponents), so one pass over them computes every depth,
+ * each exactly once: a memoized depth-first search in linear time.
+ *
+ * Besides the depth, every component records whether recursion, dynamic
+ * frames or functions without stack usage data can be reached from it. In
+ * those cases the depth is a lower bound.
+ */
+public class StackAnalyzer {
+
+	private CallGraph graph;
+
+	private StackUsage usage;
+
+	private StronglyConnectedComponents components;
+
+	/**
+	 * Worst-case depth of each component in bytes.
+	 */
+	private long[] depth;
+
+	/**
+	 * Component called on the deepest path from each component, -1 if none.
+	 */
+	private int[] deepestCallee;
+
+	private boolean[] reachesRecursion;
+
+	private boolean[] reachesDynamic;
+
+	private boolean[] reachesUnknown;
+
+	/**
+	 * Members of each component, in function order.
+	 */
+	private int[][] members;
+
+	/**
+	 * @param graph Call graph including calls within modules.
+	 * @param usage Frame sizes of the functions.
+	 */
+	public StackAnalyzer(CallGraph graph, StackUsage usage) {
+		this.graph = graph;
+		this.usage = usage;
+		this.components = new StronglyConnectedComponents(graph);
+		analyze();
+	}
+
+	private void analyze() {
+		int count = components.count();
+		depth = new long[count];
+		deepestCallee = new int[count];
+		reachesRecursion = new boolean[count];
+		reachesDynamic = new boolean[count];
+		reachesUnknown = new boolean[count];
+		members = new int[count][];
+		Arrays.fill(deepestCallee, -1);
+
+		int[] filled = new int[count];
+		for (int c = 0; c < count; c++)
+			members[c] = new int[components.sizeOf(c)];
+		for (int function = 0; function < graph.size(); function++) {
+			int c = components.componentOf(function);
+			members[c][filled[c]++] = function;
+		}
+
+		// Callees have smaller numbers, so their depth is known already
+		for (int c = 0; c < count; c++) {
+			long frame = 0;
+			long deepest = 0;
+			reachesRecursion[c] = components.isRecursive(c);
+
+			for (int function : members[c]) {
+				String label = graph.getLabel(function);
+				int size = usage.getFrameSize(label);
+				if (size < 0)
+					reachesUnknown[c] = true;
+				else
+					frame += size;
+				if (usage.isDynamic(label))
+					reachesDynamic[c] = true;
+
+				for (int call = graph.firstCall(function); call < graph.endCall(function); call++) {
+					int callee = components.componentOf(graph.target(call));
+					if (callee == c)
+						continue;
+					reachesRecursion[c] |= reachesRecursion[callee];
+					reachesDynamic[c] |= reachesDynamic[callee];
+					reachesUnknown[c] |= reachesUnknown[callee];
+					if (depth[callee] > deepest || deepestCallee[c] == -1) {
+						deepest = depth[callee];
+						deepestCallee[c] = callee;
+					}
+				}
+			}
+
+			depth[c] = frame + deepest;
+		}
+	}
+
+	/**
+	 * @param function Name of a function in the graph.
+	 * @return Worst-case stack depth of the function, null if it is not in the
+	 *         graph.
+	 */
+	public StackDepth getDepth(String function) {
+		int index = graph.indexOf(function);
+		if (index == -1)
+			return null;
+
+		int c = components.componentOf(index);
+		List<String> path = new ArrayList<String>();
+		path.add(describe(c, index));
+		for (int next = deepestCallee[c]; next != -1; next = deepestCallee[next])
+			path.add(describe(next, members[next][0]));
+
+		return new StackDepth(function, depth[c], path, reachesRecursion[c], reachesDynamic[c], reachesUnknown[c]);
+	}
+
+	/**
+	 * @return One step of a path: the function and its frame size, or all
+	 *         functions of a recursive component.
+	 */
+	private String describe(int component, int function) {
+		if (!components.isRecursive(component))
+			return describe(function);
+
+		List<String> cycle = new ArrayList<String>();
+		for (int member : members[component])
+			cycle.add(describe(member));
+		return "recursion {" + String.join(", ", cycle) + "}";
+	}
+
+	private String describe(int function) {
+		int size = usage.getFrameSize(graph.getLabel(function));
+		return String.format("%s (%s)", graph.getLabel(function), size < 0 ? "?" : size);
+	}
+
+	/**
+	 * Finds the entry functions to analyze (see EntryPoints).
+	 *
+	 * @param patterns Comma separated names of functions, * matches any text
+	 *                 (e.g. ENG_TSK_*,APPL_TSK_*). If empty, every defined
+	 *                 function that is not called by another function is an
+	 *                 entry.
+	 * @return Names of the matching functions, in graph order.
+	 */
+	public List<String> findRoots(String patterns) {
+		List<String> roots = new ArrayList<String>();
+		for (int function : EntryPoints.find(graph, patterns))
+			roots.add(graph.getLabel(function));
+		return roots;
+	}
+
+	public StronglyConnectedComponents getComponents() {
+		return components;
+	}
+}
@@ -0,0 +1,97 @@
+package depgraph.Analysis;
+
+import java.util.List;
+
+/**
+ * Worst-case stack depth of one entry function, as found by StackAnalyzer.
+ */
+public class StackDepth {
+
+	private String function;
+
+	/**
+	 * Stack depth in bytes.
+	 */
+	private long bytes;
+
+	/**
+	 * Deepest call path from the function, one step per function (or per
+	 * recursive cycle) with its frame size.
+	 */
+	private List<String> path;
+
+	/**
+	 * True if recursion is reachable from the function: every cycle is counted
+	 * once, so the depth is a lower bound.
+	 */
+	private boolean recursive;
+
+	/**
+	 * True if a function with a dynamic frame is reachable.
+	 */
+	private boolean dynamic;
+
+	/**
+	 * True if a function without stack usage data is reachable; it is counted
+	 * with 0 bytes.
+	 */
+	private boolean incomplete;
+
+	public StackDepth(String function, long bytes, List<String> path, boolean recursive, boolean dynamic,
+			boolean incomplete) {
+		this.function = function;
+		this.bytes = bytes;
+		this.path = path;
+		this.recursive = recursive;
+		this.dynamic = dynamic;
+		this.incomplete = incomplete;
+	}
+
+	/**
+	 * @return True if the depth is exact, i.e. no recursion, dynamic frames or
+	 *         missing data are involved.
+	 */
+	public boolean isBounded() {
+		return !recursive && !dynamic && !incomplete;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%s: %s%d bytes", function, isBounded() ? "" : ">= ", bytes));
+		if (recursive)
+			sb.append(" [recursion]");
+		if (dynamic)
+			sb.append(" [dynamic]");
+		if (incomplete)
+			sb.append(" [missing .su data]");
+		sb.append(System.lineSeparator()).append("    ").append(String.join(" -> ", path));
+		return sb.toString();
+	}
+
+	/* Setters and Getters */
+
+	public String getFunction() {
+		return function;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public List<String> getPath() {
+		return path;
+	}
+
+	public boolean isRecursive() {
+		return recursive;
+	}
+
+	public boolean isDynamic() {
+		return dynamic;
+	}
+
+	public boolean isIncomplete() {
+		return incomplete;
+	}
+}
@@ -0,0 +1,144 @@
+package depgraph.Analysis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stack frame sizes from the .su files GCC writes with -fstack-usage, indexed
+ * by function name.
+ *
+ * Every line of a .su file describes one function:
+ *
+ * <pre>
+ * adc.c:116:6:ADC_Init	16	static
+ * </pre>
+ *
+ * that is, location and name, frame size in bytes and qualifiers (static,
+ * dynamic or dynamic,bounded). A static function may have the same name as a
+ * function in another file; call graphs name functions without their file, so
+ * the larger frame is kept.
+ */
+public class StackUsage {
+
+	private static Logger logger;
+
+	/**
+	 * file:line:column:function, the file may contain colons itself.
+	 */
+	private static final Pattern LOCATION = Pattern.compile("^(.*):(\\d+):(\\d+):(.+)$");
+
+	private HashMap<String, Integer> frameSizes;
+
+	/**
+	 * Functions whose frame size depends on run-time values (qualifier dynamic,
+	 * with or without bounded).
+	 */
+	private HashMap<String, Boolean> dynamicFrames;
+
+	public StackUsage() {
+		logger = Logger.getLogger("depgraph");
+		frameSizes = new HashMap<String, Integer>();
+		dynamicFrames = new HashMap<String, Boolean>();
+	}
+
+	/**
+	 * Reads every .su file in a directory tree, or a single .su file.
+	 *
+	 * @param path Directory or .su file.
+	 * @throws IOException If a file can not be read.
+	 */
+	public void load(String path) throws IOException {
+		List<Path> files;
+		try (Stream<Path> paths = Files.walk(Paths.get(path))) {
+			files = paths.filter(Files::isRegularFile).filter(file -> file.toString().endsWith(".su")).sorted()
+					.collect(Collectors.toList());
+		}
+
+		for (Path file : files) {
+			int lineNumber = 0;
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				lineNumber++;
+				if (!line.trim().isEmpty() && !addLine(line))
+					logger.warning(String.format("%s:%d: not a stack usage line", file, lineNumber));
+			}
+		}
+
+		logger.info(String.format("Read stack usage of %d function(s) from %d file(s)", frameSizes.size(),
+				files.size()));
+	}
+
+	/**
+	 * Adds one line of a .su file.
+	 *
+	 * @param line A line of a .su file.
+	 * @return False if the line could not be read.
+	 */
+	public boolean addLine(String line) {
+		String[] fields = line.split("\t");
+		if (fields.length < 2)
+			return false;
+
+		Matcher matcher = LOCATION.matcher(fields[0]);
+		String name = getFunctionName(matcher.matches() ? matcher.group(4) : fields[0]);
+		int bytes;
+		try {
+			bytes = Integer.parseInt(fields[1].trim());
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+
+		frameSizes.merge(name, bytes, Math::max);
+		if (fields.length > 2 && fields[2].contains("dynamic"))
+			dynamicFrames.put(name, true);
+
+		return true;
+	}
+
+	/**
+	 * @param declaration Function as GCC names it, e.g. ADC_Init or, for C++,
+	 *                    int ns::foo(int).
+	 * @return Name of the function (ns::foo).
+	 */
+	private static String getFunctionName(String declaration) {
+		String name = declaration.trim();
+		int parenthesis = name.indexOf('(');
+		if (parenthesis != -1)
+			name = name.substring(0, parenthesis).trim();
+		int space = name.lastIndexOf(' ');
+		return (space == -1) ? name : name.substring(space + 1);
+	}
+
+	/**
+	 * @param function Name of a function.
+	 * @return Frame size in bytes, -1 if the function is unknown.
+	 */
+	public int getFrameSize(String function) {
+		Integer bytes = frameSizes.get(function);
+		return (bytes == null) ? -1 : bytes;
+	}
+
+	/**
+	 * @param function Name of a function.
+	 * @return True if the frame size of the function is not static.
+	 */
+	public boolean isDynamic(String function) {
+		return dynamicFrames.containsKey(function);
+	}
+
+	/**
+	 * @return Number of functions with a known frame size.
+	 */
+	public int size() {
+		return frameSizes.size();
+	}
+}
@@ -0,0 +1,147 @@
+package depgraph.Analysis;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of a CallGraph, found with Tarjan's algorithm.
+ * The depth-first search keeps its own stack, so deep call chains can not
+ * overflow the Java stack.
+ *
+ * Components are numbered in reverse topological order: every call leaving a
+ * component goes to a component with a smaller number. Walking the components
+ * from 0 upwards therefore visits callees before callers.
+ */
+public class StronglyConnectedComponents {
+
+	private CallGraph graph;
+
+	/**
+	 * Component of each function.
+	 */
+	private int[] component;
+
+	private int count;
+
+	/**
+	 * Number of functions in each component.
+	 */
+	private int[] sizes;
+
+	/**
+	 * Whether a component calls itself (a cycle of several functions or a
+	 * function calling itself).
+	 */
+	private boolean[] recursive;
+
+	/**
+	 * @param graph Graph to split into components.
+	 */
+	public StronglyConnectedComponents(CallGraph graph) {
+		this.graph = graph;
+		int size = graph.size();
+		component = new int[size];
+		count = 0;
+
+		int[] index = new int[size];
+		int[] low = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size];
+		int stackSize = 0;
+		int[] callStack = new int[size];
+		int[] nextCall = new int[size];
+		int depth = 0;
+		int counter = 0;
+		Arrays.fill(index, -1);
+
+		for (int start = 0; start < size; start++) {
+			if (index[start] != -1)
+				continue;
+
+			index[start] = low[start] = counter++;
+			stack[stackSize++] = start;
+			onStack[start] = true;
+			callStack[depth] = start;
+			nextCall[depth++] = graph.firstCall(start);
+
+			while (depth > 0) {
+				int function = callStack[depth - 1];
+
+				if (nextCall[depth - 1] < graph.endCall(function)) {
+					int callee = graph.target(nextCall[depth - 1]++);
+					if (index[callee] == -1) {
+						index[callee] = low[callee] = counter++;
+						stack[stackSize++] = callee;
+						onStack[callee] = true;
+						callStack[depth] = callee;
+						nextCall[depth++] = graph.firstCall(callee);
+					} else if (onStack[callee]) {
+						low[function] = Math.min(low[function], index[callee]);
+					}
+					continue;
+				}
+
+				depth--;
+				if (low[function] == index[function]) {
+					int member;
+					do {
+						member = stack[--stackSize];
+						onStack[member] = false;
+						component[member] = count;
+					} while (member != function);
+					count++;
+				}
+				if (depth > 0) {
+					int caller = callStack[depth - 1];
+					low[caller] = Math.min(low[caller], low[function]);
+				}
+			}
+		}
+
+		sizes = new int[count];
+		recursive = new boolean[count];
+		for (int function = 0; function < size; function++) {
+			sizes[component[function]]++;
+			for (int call = graph.firstCall(function); call < graph.endCall(function); call++)
+				if (graph.target(call) == function)
+					recursive[component[function]] = true;
+		}
+		for (int c = 0; c < count; c++)
+			if (sizes[c] > 1)
+				recursive[c] = true;
+	}
+
+	/**
+	 * @return Number of components.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @param function Number of a function in the graph.
+	 * @return Number of its component.
+	 */
+	public int componentOf(int function) {
+		return component[function];
+	}
+
+	/**
+	 * @param component Number of a component.
+	 * @return Number of functions in the component.
+	 */
+	public int sizeOf(int component) {
+		return sizes[component];
+	}
+
+	/**
+	 * @param component Number of a component.
+	 * @return True if the functions of the component can call themselves.
+	 */
+	public boolean isRecursive(int component) {
+		return recursive[component];
+	}
+
+	public CallGraph getGraph() {
+		return graph;
+	}
+}
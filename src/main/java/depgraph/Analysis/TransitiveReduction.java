@@ -0,0 +1,166 @@
+package depgraph.Analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Transitive reduction of the module graph: a dependency between two modules
+ * is left out if it is implied by a longer path, e.g. BMS -&gt; DIAG when there
+ * is BMS -&gt; CONT -&gt; DIAG. The calls making up a left out dependency are
+ * dropped, all other calls are kept, so the graph shows the same module
+ * reachability with fewer edges.
+ *
+ * Modules that depend on each other in a cycle have no unique reduction. The
+ * module graph is condensed into its strongly connected components first (see
+ * StronglyConnectedComponents) and only dependencies between components are
+ * reduced. Components are numbered callees first, so the modules reachable
+ * from each component can be collected in one pass, as one BitSet per
+ * component. A dependency on a component is redundant if the component is
+ * reachable through another dependency.
+ */
+public class TransitiveReduction {
+
+	private List<Edge> edges;
+
+	/**
+	 * Left out module dependencies ("BMS -> DIAG (via CONT)"), in call order.
+	 */
+	private List<String> elidedDependencies;
+
+	private int elidedCalls;
+
+	/**
+	 * @param modules Modules of the graph.
+	 * @param edges   Calls between the functions of the modules.
+	 */
+	public TransitiveReduction(List<Module> modules, List<Edge> edges) {
+		// The module graph as a CallGraph, one node per module
+		List<Node> moduleNodes = new ArrayList<Node>();
+		HashMap<String, Node> nodeOfModule = new HashMap<String, Node>();
+		for (Module module : modules) {
+			Node node = new Node();
+			node.setNodeLabel(module.getModulePrefix());
+			node.setModulePrefix(module.getModulePrefix());
+			moduleNodes.add(node);
+			nodeOfModule.put(module.getModulePrefix(), node);
+		}
+
+		LinkedHashMap<String, Edge> dependencies = new LinkedHashMap<String, Edge>();
+		for (Edge edge : edges) {
+			Node src = nodeOfModule.get(edge.getSourceNodeObject().getModulePrefix());
+			Node dst = nodeOfModule.get(edge.getDestinationNodeObject().getModulePrefix());
+			if (src == null || dst == null || src == dst)
+				continue;
+			String key = src.getNodeLabel() + "\t" + dst.getNodeLabel();
+			if (!dependencies.containsKey(key)) {
+				Edge dependency = new Edge();
+				dependency.setSourceNodeObject(src);
+				dependency.setDestinationNodeObject(dst);
+				dependencies.put(key, dependency);
+			}
+		}
+
+		CallGraph graph = new CallGraph(moduleNodes, new ArrayList<Edge>(dependencies.values()));
+		StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+		int count = components.count();
+		HashMap<String, Integer> componentOf = new HashMap<String, Integer>();
+		for (int m = 0; m < graph.size(); m++)
+			componentOf.put(graph.getLabel(m), components.componentOf(m));
+
+		// Modules of each component, the first one names the component
+		int[][] members = new int[count][];
+		int[] filled = new int[count];
+		for (int c = 0; c < count; c++)
+			members[c] = new int[components.sizeOf(c)];
+		for (int m = 0; m < graph.size(); m++)
+			members[components.componentOf(m)][filled[components.componentOf(m)]++] = m;
+
+		// Components reachable from each component, and the successor each redundant
+		// dependency is implied through
+		BitSet[] reachable = new BitSet[count];
+		HashMap<Long, Integer> impliedVia = new HashMap<Long, Integer>();
+		int[] seenFrom = new int[count];
+		Arrays.fill(seenFrom, -1);
+
+		for (int c = 0; c < count; c++) {
+			List<Integer> successors = new ArrayList<Integer>();
+			for (int m : members[c])
+				for (int call = graph.firstCall(m); call < graph.endCall(m); call++) {
+					int successor = components.componentOf(graph.target(call));
+					if (successor != c && seenFrom[successor] != c) {
+						seenFrom[successor] = c;
+						successors.add(successor);
+					}
+				}
+
+			BitSet indirect = new BitSet(count);
+			for (int successor : successors)
+				indirect.or(reachable[successor]);
+
+			reachable[c] = (BitSet) indirect.clone();
+			for (int successor : successors) {
+				reachable[c].set(successor);
+				if (indirect.get(successor))
+					for (int via : successors)
+						if (reachable[via].get(successor)) {
+							impliedVia.put(getKey(c, successor, count), via);
+							break;
+						}
+			}
+		}
+
+		this.elidedDependencies = new ArrayList<String>();
+		for (Edge dependency : dependencies.values()) {
+			String src = dependency.getSourceNodeObject().getNodeLabel();
+			String dst = dependency.getDestinationNodeObject().getNodeLabel();
+			Integer via = impliedVia.get(getKey(componentOf.get(src), componentOf.get(dst), count));
+			if (via != null)
+				elidedDependencies.add(String.format("%s -> %s (via %s)", src, dst, graph.getLabel(members[via][0])));
+		}
+
+		this.edges = new ArrayList<Edge>();
+		for (Edge edge : edges) {
+			Integer src = componentOf.get(edge.getSourceNodeObject().getModulePrefix());
+			Integer dst = componentOf.get(edge.getDestinationNodeObject().getModulePrefix());
+			if (src != null && dst != null && impliedVia.containsKey(getKey(src, dst, count)))
+				elidedCalls++;
+			else
+				this.edges.add(edge);
+		}
+	}
+
+	private static long getKey(int from, int to, int count) {
+		return (long) from * count + to;
+	}
+
+	/**
+	 * @return The calls that are not part of a left out dependency, in their
+	 *         original order.
+	 */
+	public List<Edge> getEdges() {
+		return edges;
+	}
+
+	/**
+	 * @return The left out module dependencies, each with the module it is
+	 *         implied through (e.g. BMS -&gt; DIAG (via CONT)).
+	 */
+	public List<String> getElidedDependencies() {
+		return elidedDependencies;
+	}
+
+	/**
+	 * @return Number of calls left out.
+	 */
+	public int getElidedCalls() {
+		return elidedCalls;
+	}
+}
@@ -8,6 +8,9 @@ public enum ConfigType {
 	// @formatter:off
 	FILE,
 	DIRECTORY,
+	XML_DIRECTORY,
+	SOURCE_DIRECTORY,
+	INCLUDE_DIRECTORY,
 	NONE
 	// @formatter:on
 }
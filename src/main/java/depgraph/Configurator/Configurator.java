@@ -14,12 +14,38 @@ import java.util.*;
  * program.
  *
  * List of possible flags:
- * - s DOT file to process
+ * - s DOT file (or .dot.gz, .zip, .tar.gz archive) to process
  * - d directory of DOT files to process.
+ * - x directory of Doxygen XML output to process.
+ * - c directory of C sources to scan (no Doxygen needed).
+ * - I directory of C sources to build an include graph from.
+ * - i cache file for the include graph scan.
  * - h print help menu
  * - v verbosity of logger
  * - L specify output file used by the logger
  * - o specify output file for final graph
+ * - B batch manifest of filter expressions and output files
+ * - P split the graph into pages of at most n function nodes
+ * - M strategy used to assign functions to modules
+ * - k keep going: skip input files with errors and report them at the end
+ * - m memory budget in MB; intermediate results beyond it are spilled to disk
+ * - H keep the edge table off the Java heap
+ * - p number of parse threads; reading, parsing and merging run as a pipeline
+ * - C directory of cached renders
+ * - Z size limit of the render cache in MB
+ * - S directory of GCC .su files for the stack depth analysis
+ * - R entry functions of the stack depth and reachability analyses
+ * - U report functions and modules unreachable from the entry functions
+ * - T trace or profile export with run-time call counts
+ * - w smallest call count of the edges to draw
+ * - A output file (.csv or .json) for module coupling metrics
+ * - e heat-color module clusters by instability
+ * - f function or module to focus on; only its neighbourhood is drawn
+ * - n number of calls to follow from the focus
+ * - D direction of the calls to follow from the focus (in, out or both)
+ * - t leave out module dependencies implied by others (transitive reduction)
+ * - l directory of layouts kept from earlier renders
+ * - y largest change in percent for which a kept layout is reused
  *
  * Run in gradle using (replace ... with desired arguments): gradle run --args="..."
  *
@@ -34,7 +60,7 @@ public class Configurator {
 
 	private static FileHandler fileHandler;
 
-	private static String pathForOutputGraph;
+	private String pathForOutputGraph;
 
 	static {
 		System.setProperty("java.util.logging.SimpleFormatter.format", "[%1$tc]\nSource: %2$s\n%4$s:\t%5$s\n%6$s\n\n");
@@ -56,6 +82,129 @@ public class Configurator {
 
 	private ArrayList<String> destinationFilterList;
 
+	/**
+	 * Path to a batch manifest, if batch mode was selected.
+	 */
+	private String batchManifestPath;
+
+	/**
+	 * Maximum number of function nodes per page if the graph is partitioned, 0
+	 * otherwise.
+	 */
+	private int maxNodesPerPage;
+
+	/**
+	 * Specification of the module strategy (default, url, regex:&lt;pattern&gt;
+	 * or table:&lt;file&gt;).
+	 */
+	private String moduleStrategySpec;
+
+	/**
+	 * Path to the include scan cache file, empty to only cache in memory.
+	 */
+	private String includeCachePath;
+
+	/**
+	 * Whether input files with errors are skipped instead of read as far as
+	 * possible.
+	 */
+	private boolean keepGoing;
+
+	/**
+	 * Memory budget for intermediate parse results in MB, 0 if unbounded.
+	 */
+	private int memoryBudget;
+
+	/**
+	 * Whether the Parser keeps its edge table off the Java heap.
+	 */
+	private boolean offHeapEdges;
+
+	/**
+	 * Number of parse threads of the pipelined parser, 0 to parse sequentially.
+	 */
+	private int parseThreads;
+
+	/**
+	 * Directory of the render cache, empty if renders are not cached.
+	 */
+	private String renderCachePath;
+
+	/**
+	 * Size limit of the render cache in MB.
+	 */
+	private int renderCacheSize;
+
+	/**
+	 * Directory (or file) of GCC stack usage files, empty if the stack depth is
+	 * not analyzed.
+	 */
+	private String stackUsagePath;
+
+	/**
+	 * Comma separated entry functions of the stack depth and reachability
+	 * analyses, * matches any text. Empty for all defined functions without
+	 * callers.
+	 */
+	private String entryFunctions;
+
+	/**
+	 * Whether unreachable functions and modules are reported.
+	 */
+	private boolean reachabilityReported;
+
+	/**
+	 * Trace or profile export with call counts, empty if there is none.
+	 */
+	private String tracePath;
+
+	/**
+	 * Edges called less often are left out of the graph, 0 to keep all edges.
+	 */
+	private long minCallCount;
+
+	/**
+	 * Output file of the module metrics report, empty if none is written.
+	 */
+	private String metricsPath;
+
+	/**
+	 * Whether module clusters are colored by their instability.
+	 */
+	private boolean heatColored;
+
+	/**
+	 * Function or module the graph is focused on, empty to draw the whole graph.
+	 */
+	private String focus;
+
+	/**
+	 * Number of calls to follow from the focus.
+	 */
+	private int focusDepth;
+
+	/**
+	 * Direction of the calls to follow from the focus: in, out or both.
+	 */
+	private String focusDirection;
+
+	/**
+	 * Whether module dependencies implied by longer paths are left out.
+	 */
+	private boolean reduced;
+
+	/**
+	 * Directory of layouts kept from earlier renders, empty to lay out every
+	 * render from scratch.
+	 */
+	private String layoutCachePath;
+
+	/**
+	 * Largest change of the graph, in percent of its nodes and edges, for which
+	 * the kept layout is reused.
+	 */
+	private double layoutThreshold;
+
 	/**
 	 * No-arg constructor. Initializes class attributes to null-strings.
 	 */
@@ -63,6 +212,29 @@ public class Configurator {
 		nameOfDirectory = "";
 		nameOfFile = "";
 		pathForOutputGraph = "";
+		batchManifestPath = "";
+		maxNodesPerPage = 0;
+		moduleStrategySpec = "default";
+		includeCachePath = "";
+		keepGoing = false;
+		memoryBudget = 0;
+		offHeapEdges = false;
+		parseThreads = 0;
+		renderCachePath = "";
+		renderCacheSize = 512;
+		stackUsagePath = "";
+		entryFunctions = "";
+		reachabilityReported = false;
+		tracePath = "";
+		minCallCount = 0;
+		metricsPath = "";
+		heatColored = false;
+		focus = "";
+		focusDepth = 1;
+		focusDirection = "both";
+		reduced = false;
+		layoutCachePath = "";
+		layoutThreshold = 10;
 		filtered = false;
 		sourceFilterList = new ArrayList<String>();
 		destinationFilterList = new ArrayList<String>();
@@ -105,6 +277,47 @@ public class Configurator {
 						printHelp = false;
 					}
 					break;
+				case 'x':
+					try {
+						logger.fine("Doxygen XML directory selected...");
+						if (this.processDirectory(args[++i])) {
+							typeToReturn = ConfigType.XML_DIRECTORY;
+						}
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -x");
+						printHelp = false;
+					}
+					break;
+				case 'c':
+					try {
+						logger.fine("C source directory selected...");
+						if (this.processDirectory(args[++i])) {
+							typeToReturn = ConfigType.SOURCE_DIRECTORY;
+						}
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -c");
+						printHelp = false;
+					}
+					break;
+				case 'I':
+					try {
+						logger.fine("Include graph directory selected...");
+						if (this.processDirectory(args[++i])) {
+							typeToReturn = ConfigType.INCLUDE_DIRECTORY;
+						}
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -I");
+						printHelp = false;
+					}
+					break;
+				case 'i':
+					try {
+						includeCachePath = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -i");
+						printHelp = false;
+					}
+					break;
 				case 'v':
 					processVerbosity(Integer.parseInt(args[++i]));
 					break;
@@ -152,6 +365,175 @@ public class Configurator {
 						printHelp = false;
 					}
 					break;
+				case 'B':
+					try {
+						batchManifestPath = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -B");
+						printHelp = false;
+					}
+					break;
+				case 'P':
+					try {
+						maxNodesPerPage = Integer.parseInt(args[++i]);
+						if (maxNodesPerPage < 1)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -P. Graph will not be partitioned.");
+						maxNodesPerPage = 0;
+					}
+					break;
+				case 'M':
+					try {
+						moduleStrategySpec = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -M");
+						printHelp = false;
+					}
+					break;
+				case 'k':
+					keepGoing = true;
+					break;
+				case 'H':
+					offHeapEdges = true;
+					break;
+				case 'm':
+					try {
+						memoryBudget = Integer.parseInt(args[++i]);
+						if (memoryBudget < 1)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -m. Memory will not be bounded.");
+						memoryBudget = 0;
+					}
+					break;
+				case 'p':
+					try {
+						parseThreads = Integer.parseInt(args[++i]);
+						if (parseThreads < 1)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -p. Files will be parsed sequentially.");
+						parseThreads = 0;
+					}
+					break;
+				case 'C':
+					try {
+						renderCachePath = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -C");
+						printHelp = false;
+					}
+					break;
+				case 'Z':
+					try {
+						renderCacheSize = Integer.parseInt(args[++i]);
+						if (renderCacheSize < 1)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -Z. Using the default of 512 MB.");
+						renderCacheSize = 512;
+					}
+					break;
+				case 'S':
+					try {
+						stackUsagePath = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -S");
+						printHelp = false;
+					}
+					break;
+				case 'R':
+					try {
+						entryFunctions = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -R");
+						printHelp = false;
+					}
+					break;
+				case 'U':
+					reachabilityReported = true;
+					break;
+				case 'T':
+					try {
+						tracePath = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -T");
+						printHelp = false;
+					}
+					break;
+				case 'w':
+					try {
+						minCallCount = Long.parseLong(args[++i]);
+						if (minCallCount < 0)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -w. All edges will be drawn.");
+						minCallCount = 0;
+					}
+					break;
+				case 'A':
+					try {
+						metricsPath = args[++i];
+						if (!metricsPath.endsWith(".csv") && !metricsPath.endsWith(".json"))
+							throw new IllegalArgumentException();
+					} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException ex) {
+						System.out.println("Incorect format for option -A. Use a .csv or .json file.");
+						metricsPath = "";
+					}
+					break;
+				case 'e':
+					heatColored = true;
+					break;
+				case 'f':
+					try {
+						focus = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -f");
+						printHelp = false;
+					}
+					break;
+				case 'n':
+					try {
+						focusDepth = Integer.parseInt(args[++i]);
+						if (focusDepth < 0)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -n. Following 1 call from the focus.");
+						focusDepth = 1;
+					}
+					break;
+				case 't':
+					reduced = true;
+					break;
+				case 'D':
+					try {
+						focusDirection = args[++i].toLowerCase();
+						if (!Arrays.asList("in", "out", "both").contains(focusDirection))
+							throw new IllegalArgumentException();
+					} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException ex) {
+						System.out.println("Incorect format for option -D. Following callers and callees.");
+						focusDirection = "both";
+					}
+					break;
+				case 'l':
+					try {
+						layoutCachePath = args[++i];
+					} catch (ArrayIndexOutOfBoundsException ex) {
+						System.out.println("Incorect format for option -l");
+						printHelp = false;
+					}
+					break;
+				case 'y':
+					try {
+						layoutThreshold = Double.parseDouble(args[++i]);
+						if (layoutThreshold < 0 || layoutThreshold > 100)
+							throw new NumberFormatException();
+					} catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+						System.out.println("Incorect format for option -y. Using the default of 10%.");
+						layoutThreshold = 10;
+					}
+					break;
 				default:
 					System.out.println(String.format("Unkown option: %s", args[i]));
 					break;
@@ -160,6 +542,11 @@ public class Configurator {
 				printHelp = true;
 			}
 		}
+		// The focus is taken from the whole call graph, it would ignore the filter
+		if (isFocused() && filtered) {
+			System.out.println("Options -f and -F can not be combined. The graph will not be focused.");
+			focus = "";
+		}
 		if (printHelp)
 			printHelp();
 		return typeToReturn;
@@ -207,12 +594,38 @@ public class Configurator {
 		System.out.println("\nWelcome to the C Dependency Graph Tool!\n");
 		System.out.println("FLAG\tDESCRIPTION\t\tUSAGE");
 		System.out.println("-h\tPrint the help menu\t-h");
-		System.out.println("-s\tProcess a single file\t-s <file path with extension .dot>");
+		System.out.println("-s\tProcess a single file\t-s <file path with extension .dot, .dot.gz, .zip, .tar.gz or .tgz>");
 		System.out.println("-d\tProcess a directory\t-d <directory path>");
+		System.out.println("-x\tProcess Doxygen XML\t-x <xml directory path>");
+		System.out.println("-c\tScan C sources\t\t-c <source directory path>");
+		System.out.println("-I\tInclude graph\t\t-I <source directory path>");
+		System.out.println("-i\tInclude scan cache\t-i <cache file>");
 		System.out.println("-v\tSet logging verbosity\t-v <0-3>");
 		System.out.println("-L\tSet logger output file\t-L <file path>");
 		System.out.println("-o\tName program output\t-o <name>");
 		System.out.println("-F\tFilter expression\t-F {<module name>,...} => {<module name>,...}");
+		System.out.println("-B\tBatch of filtered graphs\t-B <manifest file>");
+		System.out.println("-P\tPartition into pages\t-P <max nodes per page>");
+		System.out.println("-M\tModule strategy\t\t-M <default|url|regex:<pattern>|table:<file>>");
+		System.out.println("-k\tSkip bad input files\t-k");
+		System.out.println("-m\tMemory budget\t\t-m <MB>");
+		System.out.println("-H\tOff-heap edge table\t-H");
+		System.out.println("-p\tPipelined parsing\t-p <threads>");
+		System.out.println("-C\tRender cache\t\t-C <directory>");
+		System.out.println("-Z\tRender cache size\t-Z <MB>");
+		System.out.println("-S\tStack depth analysis\t-S <.su directory>");
+		System.out.println("-R\tEntry functions\t\t-R <name,prefix*,...>");
+		System.out.println("-U\tUnreachable code\t-U");
+		System.out.println("-T\tCall count overlay\t-T <trace.csv|stacks.folded>");
+		System.out.println("-w\tMinimum call count\t-w <calls>");
+		System.out.println("-A\tModule metrics\t\t-A <metrics.csv|metrics.json>");
+		System.out.println("-e\tHeat-color modules\t-e");
+		System.out.println("-f\tFocus\t\t\t-f <function or module>");
+		System.out.println("-n\tFocus depth\t\t-n <calls>");
+		System.out.println("-D\tFocus direction\t\t-D <in|out|both>");
+		System.out.println("-t\tTransitive reduction\t-t");
+		System.out.println("-l\tLayout cache\t\t-l <directory>");
+		System.out.println("-y\tLayout change limit\t-y <percent>");
 		System.out.println();
 	}
 
@@ -268,24 +681,9 @@ public class Configurator {
 	 * @throws Exception When the entered expression is invalid.
 	 */
 	private void getModuleFilters(String filter) throws Exception {
-		String[] filters = filter.split("=>");
-		List<String> modules;
-
-		if (filters.length != 2)
-			throw new Exception("Invalid filter expression");
-
-		for (int i = 0; i < filters.length; i++) {
-			if (filters[i].contains("{"))
-				modules = Arrays
-						.asList(filters[i].substring(filters[i].indexOf('{') + 1, filters[i].indexOf('}')).split(","));
-			else
-				modules = Arrays.asList(filters[i]);
-
-			if (i == 0)
-				this.sourceFilterList.addAll(modules);
-			else
-				this.destinationFilterList.addAll(modules);
-		}
+		FilterExpression expression = FilterExpression.parse(filter);
+		this.sourceFilterList.addAll(expression.getSourceModules());
+		this.destinationFilterList.addAll(expression.getDestinationModules());
 	}
 
 	/* Setters and Getters */
@@ -313,4 +711,136 @@ public class Configurator {
 	public ArrayList<String> getDestinationFilterList() {
 		return destinationFilterList;
 	}
+
+	public String getBatchManifestPath() {
+		return batchManifestPath;
+	}
+
+	public boolean isBatch() {
+		return !batchManifestPath.equals("");
+	}
+
+	public int getMaxNodesPerPage() {
+		return maxNodesPerPage;
+	}
+
+	public boolean isPartitioned() {
+		return maxNodesPerPage > 0;
+	}
+
+	public String getModuleStrategySpec() {
+		return moduleStrategySpec;
+	}
+
+	public boolean isKeepGoing() {
+		return keepGoing;
+	}
+
+	public int getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	public boolean isMemoryBounded() {
+		return memoryBudget > 0;
+	}
+
+	public boolean isOffHeapEdges() {
+		return offHeapEdges;
+	}
+
+	public int getParseThreads() {
+		return parseThreads;
+	}
+
+	public boolean isPipelined() {
+		return parseThreads > 0;
+	}
+
+	public String getRenderCachePath() {
+		return renderCachePath;
+	}
+
+	public boolean isRenderCached() {
+		return !renderCachePath.equals("");
+	}
+
+	public int getRenderCacheSize() {
+		return renderCacheSize;
+	}
+
+	public String getStackUsagePath() {
+		return stackUsagePath;
+	}
+
+	public boolean isStackAnalyzed() {
+		return !stackUsagePath.isEmpty();
+	}
+
+	public String getEntryFunctions() {
+		return entryFunctions;
+	}
+
+	public boolean isReachabilityReported() {
+		return reachabilityReported;
+	}
+
+	public String getTracePath() {
+		return tracePath;
+	}
+
+	public boolean isTraced() {
+		return !tracePath.isEmpty();
+	}
+
+	public long getMinCallCount() {
+		return minCallCount;
+	}
+
+	public String getMetricsPath() {
+		return metricsPath;
+	}
+
+	public boolean isMetricsReported() {
+		return !metricsPath.isEmpty();
+	}
+
+	public boolean isHeatColored() {
+		return heatColored;
+	}
+
+	public String getFocus() {
+		return focus;
+	}
+
+	public boolean isFocused() {
+		return !focus.isEmpty();
+	}
+
+	public int getFocusDepth() {
+		return focusDepth;
+	}
+
+	public String getFocusDirection() {
+		return focusDirection;
+	}
+
+	public boolean isReduced() {
+		return reduced;
+	}
+
+	public String getLayoutCachePath() {
+		return layoutCachePath;
+	}
+
+	public boolean isLayoutCached() {
+		return !layoutCachePath.isEmpty();
+	}
+
+	public double getLayoutThreshold() {
+		return layoutThreshold;
+	}
+
+	public String getIncludeCachePath() {
+		return includeCachePath;
+	}
 }
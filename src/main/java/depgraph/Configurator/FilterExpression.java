@@ -0,0 +1,76 @@
+package depgraph.Configurator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A parsed filter expression of the form:
+ *
+ * {module [, module]} =&gt; {module [, module]}
+ *
+ * The modules on the left-hand side are the source modules and the modules on
+ * the right-hand side the destination modules. Braces may be omitted when only
+ * one module is given on a side. Whitespace is ignored.
+ */
+public class FilterExpression {
+
+	private ArrayList<String> sourceModules;
+
+	private ArrayList<String> destinationModules;
+
+	/**
+	 * Only created by parse.
+	 */
+	private FilterExpression() {
+		sourceModules = new ArrayList<String>();
+		destinationModules = new ArrayList<String>();
+	}
+
+	/**
+	 * Parses the modules out of a filter expression.
+	 *
+	 * @param filter Filter expression (e.g. from the -F option or a batch
+	 *               manifest).
+	 * @return The parsed expression.
+	 * @throws Exception When the expression is invalid.
+	 */
+	public static FilterExpression parse(String filter) throws Exception {
+		FilterExpression expression = new FilterExpression();
+		String[] filters = filter.replaceAll("\\s", "").split("=>");
+		List<String> modules;
+
+		if (filters.length != 2)
+			throw new Exception("Invalid filter expression");
+
+		for (int i = 0; i < filters.length; i++) {
+			if (filters[i].contains("{"))
+				modules = Arrays
+						.asList(filters[i].substring(filters[i].indexOf('{') + 1, filters[i].indexOf('}')).split(","));
+			else
+				modules = Arrays.asList(filters[i]);
+
+			if (i == 0)
+				expression.sourceModules.addAll(modules);
+			else
+				expression.destinationModules.addAll(modules);
+		}
+
+		return expression;
+	}
+
+	/* Getters */
+
+	public ArrayList<String> getSourceModules() {
+		return sourceModules;
+	}
+
+	public ArrayList<String> getDestinationModules() {
+		return destinationModules;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("{%s} => {%s}", String.join(",", sourceModules), String.join(",", destinationModules));
+	}
+}
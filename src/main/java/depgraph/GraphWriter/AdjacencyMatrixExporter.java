@@ -0,0 +1,59 @@
+package depgraph.GraphWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+
+/**
+ * Exports the module-level adjacency matrix as CSV. Rows are source modules,
+ * columns are destination modules and each cell holds the number of function
+ * level edges between the two modules. The first row and column hold the
+ * module prefixes.
+ *
+ * A module-level matrix is used (rather than a function-level one) because it
+ * stays small, m x m for m modules, no matter how many functions were parsed.
+ */
+public class AdjacencyMatrixExporter implements GraphExporter {
+
+	@Override
+	public String getFormat() {
+		return "matrix";
+	}
+
+	@Override
+	public void export(List<Module> modules, List<Edge> edges, Writer out) throws IOException {
+		int size = modules.size();
+		HashMap<String, Integer> moduleIndex = new HashMap<String, Integer>();
+		int[][] matrix = new int[size][size];
+
+		for (int i = 0; i < size; i++)
+			moduleIndex.put(modules.get(i).getModulePrefix(), i);
+
+		for (Edge edge : edges) {
+			Integer src = moduleIndex.get(edge.getSourceNodeObject().getModulePrefix());
+			Integer dst = moduleIndex.get(edge.getDestinationNodeObject().getModulePrefix());
+			if (src != null && dst != null)
+				matrix[src][dst]++;
+		}
+
+		out.write("module");
+		for (Module module : modules) {
+			out.write(',');
+			CsvExporter.writeField(out, module.getModulePrefix());
+		}
+		out.write('\n');
+
+		for (int i = 0; i < size; i++) {
+			CsvExporter.writeField(out, modules.get(i).getModulePrefix());
+			for (int j = 0; j < size; j++) {
+				out.write(',');
+				out.write(Integer.toString(matrix[i][j]));
+			}
+			out.write('\n');
+		}
+	}
+}
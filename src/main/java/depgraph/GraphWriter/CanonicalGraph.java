@@ -0,0 +1,168 @@
+package depgraph.GraphWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Canonical form of a module graph, so the same graph is always written the
+ * same way no matter in which order its files were read.
+ *
+ * Modules are sorted by prefix, the nodes of a module by label and edges by
+ * the labels of their source and destination. Nodes are renumbered Node0,
+ * Node1, ... in that order, so node IDs do not depend on the order of the
+ * input either. The graph passed in is not changed; the canonical modules,
+ * nodes and edges are copies.
+ *
+ * getContentHash identifies the graph model (modules, nodes, visibility, edges
+ * and their call counts), two graphs with the same hash are written identically.
+ */
+public class CanonicalGraph {
+
+	private static final Comparator<Node> NODE_ORDER = Comparator.comparing(Node::getNodeLabel)
+			.thenComparing(Node::isPublic).thenComparing(Node::getNodeId);
+
+	private List<Module> modules;
+
+	private List<Edge> edges;
+
+	/**
+	 * Canonical copy of every node, keyed by the original node.
+	 */
+	private HashMap<Node, Node> copies;
+
+	private String contentHash;
+
+	/**
+	 * @param modules Modules of the graph, in any order.
+	 * @param edges   Edges of the graph, in any order.
+	 */
+	public CanonicalGraph(List<Module> modules, List<Edge> edges) {
+		this.modules = new ArrayList<Module>();
+		this.edges = new ArrayList<Edge>();
+		this.copies = new HashMap<Node, Node>();
+
+		List<Module> sortedModules = new ArrayList<Module>(modules);
+		sortedModules.sort(Comparator.comparing(Module::getModulePrefix));
+
+		for (Module module : sortedModules) {
+			Module copy = new Module(module.getModulePrefix());
+			List<Node> nodes = new ArrayList<Node>(module.getNodes());
+			nodes.sort(NODE_ORDER);
+			for (Node node : nodes)
+				copy.add(copy(node));
+			this.modules.add(copy);
+		}
+
+		List<Edge> sortedEdges = new ArrayList<Edge>(edges);
+		sortedEdges.sort(Comparator.comparing((Edge edge) -> edge.getSourceNodeObject(), NODE_ORDER)
+				.thenComparing(edge -> edge.getDestinationNodeObject(), NODE_ORDER));
+
+		// Nodes outside of the modules (e.g. left over by a filter) are numbered
+		// after the others, in edge order
+		for (Edge edge : sortedEdges) {
+			Edge copy = new Edge();
+			copy.setSourceNodeObject(copy(edge.getSourceNodeObject()));
+			copy.setSourceNodeId(copy.getSourceNodeObject().getNodeId());
+			copy.setDestinationNodeObject(copy(edge.getDestinationNodeObject()));
+			copy.setDestinationNodeId(copy.getDestinationNodeObject().getNodeId());
+			copy.setCallCount(edge.getCallCount());
+			this.edges.add(copy);
+		}
+
+		this.contentHash = sha256(describe());
+	}
+
+	/**
+	 * @return Canonical copy of a node, created with the next free node ID the
+	 *         first time the node is seen.
+	 */
+	private Node copy(Node node) {
+		Node copy = copies.get(node);
+
+		if (copy == null) {
+			copy = new Node();
+			copy.setNodeId("Node" + copies.size());
+			copy.setNodeLabel(node.getNodeLabel());
+			copy.setModulePrefix(node.getModulePrefix());
+			copy.setIsRoot(node.isRoot());
+			copy.setIsPublic(node.isPublic());
+			copy.setIndex(node.getIndex());
+			copies.put(node, copy);
+		}
+
+		return copy;
+	}
+
+	/**
+	 * @return Text listing the canonical modules, nodes and edges, one per line.
+	 */
+	private String describe() {
+		StringBuilder text = new StringBuilder();
+
+		for (Module module : modules) {
+			text.append("module\t").append(module.getModulePrefix()).append('\n');
+			for (Node node : module.getNodes())
+				text.append("node\t").append(node.getNodeLabel()).append('\t')
+						.append(node.isPublic() ? "public" : "private").append('\n');
+		}
+
+		for (Edge edge : edges) {
+			text.append("edge\t").append(edge.getSourceNodeObject().getNodeLabel()).append('\t')
+					.append(edge.getDestinationNodeObject().getNodeLabel());
+			if (edge.getCallCount() > 0)
+				text.append('\t').append(edge.getCallCount());
+			text.append('\n');
+		}
+
+		return text.toString();
+	}
+
+	/**
+	 * @param text Any text.
+	 * @return SHA-256 digest of the UTF-8 encoded text, in lower case hex.
+	 */
+	public static String sha256(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(2 * digest.length);
+			for (byte b : digest)
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/* Setters and Getters */
+
+	/**
+	 * @return Modules sorted by prefix, each with its nodes sorted by label.
+	 */
+	public List<Module> getModules() {
+		return modules;
+	}
+
+	/**
+	 * @return Edges sorted by source and destination label.
+	 */
+	public List<Edge> getEdges() {
+		return edges;
+	}
+
+	/**
+	 * @return SHA-256 of the graph model, in lower case hex.
+	 */
+	public String getContentHash() {
+		return contentHash;
+	}
+}
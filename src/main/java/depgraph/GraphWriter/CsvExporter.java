@@ -0,0 +1,60 @@
+package depgraph.GraphWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Exports the graph as a CSV edge list with one row per edge:
+ *
+ * <pre>
+ * source,target,source_module,target_module
+ * BMS_Init,DIAG_Handler,BMS,DIAG
+ * </pre>
+ */
+public class CsvExporter implements GraphExporter {
+
+	@Override
+	public String getFormat() {
+		return "csv";
+	}
+
+	@Override
+	public void export(List<Module> modules, List<Edge> edges, Writer out) throws IOException {
+		out.write("source,target,source_module,target_module\n");
+
+		for (Edge edge : edges) {
+			Node src = edge.getSourceNodeObject();
+			Node dst = edge.getDestinationNodeObject();
+			writeField(out, src.getNodeLabel());
+			out.write(',');
+			writeField(out, dst.getNodeLabel());
+			out.write(',');
+			writeField(out, src.getModulePrefix());
+			out.write(',');
+			writeField(out, dst.getModulePrefix());
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * Writes a single CSV field, quoting it only when necessary (RFC 4180).
+	 *
+	 * @param out   Destination Writer.
+	 * @param value Value of the field.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	static void writeField(Writer out, String value) throws IOException {
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1) {
+			out.write(value);
+		} else {
+			out.write('"');
+			out.write(value.replace("\"", "\"\""));
+			out.write('"');
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package depgraph.GraphWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+
+/**
+ * Pluggable writer for machine-readable representations of the module graph.
+ * Unlike the DOT output from GraphWriter.writeGraph, exporters do not use the
+ * templates and the result is never passed through Graphviz, so the graph can
+ * be consumed by other tools at I/O speed.
+ *
+ * Exporters are registered with a GraphWriter (see
+ * GraphWriter.registerExporter) and selected by the format name, which is also
+ * the file extension of the output file (e.g. out.json, out.graphml).
+ *
+ * Implementations should write directly to the passed Writer rather than
+ * building the whole document in memory.
+ */
+public interface GraphExporter {
+
+	/**
+	 * Name of the format handled by this exporter. Used as the file extension of
+	 * the output file.
+	 *
+	 * @return Format name (e.g. json, graphml, csv).
+	 */
+	String getFormat();
+
+	/**
+	 * Writes the graph to the given Writer.
+	 *
+	 * @param modules List of modules (created and passed from the Parser class)
+	 * @param edges   List of edges (created and passed from the Parser class)
+	 * @param out     Destination of the exported graph. Not closed by this
+	 *                function.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	void export(List<Module> modules, List<Edge> edges, Writer out) throws IOException;
+}
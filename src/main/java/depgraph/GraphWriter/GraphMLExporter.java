@@ -0,0 +1,86 @@
+package depgraph.GraphWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Exports the graph in the GraphML format. Every function node carries its
+ * label, module prefix and visibility as data attributes so that tools like
+ * yEd, Gephi or NetworkX can group the nodes back into modules.
+ */
+public class GraphMLExporter implements GraphExporter {
+
+	@Override
+	public String getFormat() {
+		return "graphml";
+	}
+
+	@Override
+	public void export(List<Module> modules, List<Edge> edges, Writer out) throws IOException {
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+		out.write("  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>\n");
+		out.write("  <key id=\"module\" for=\"node\" attr.name=\"module\" attr.type=\"string\"/>\n");
+		out.write("  <key id=\"public\" for=\"node\" attr.name=\"public\" attr.type=\"boolean\"/>\n");
+		out.write("  <key id=\"root\" for=\"node\" attr.name=\"root\" attr.type=\"boolean\"/>\n");
+		out.write("  <graph id=\"G\" edgedefault=\"directed\">\n");
+
+		for (Module module : modules) {
+			for (Node node : module.getNodes()) {
+				out.write("    <node id=\"");
+				writeEscaped(out, node.getNodeId());
+				out.write("\"><data key=\"label\">");
+				writeEscaped(out, node.getNodeLabel());
+				out.write("</data><data key=\"module\">");
+				writeEscaped(out, module.getModulePrefix());
+				out.write("</data><data key=\"public\">" + node.isPublic() + "</data>");
+				out.write("<data key=\"root\">" + node.isRoot() + "</data></node>\n");
+			}
+		}
+
+		for (Edge edge : edges) {
+			out.write("    <edge source=\"");
+			writeEscaped(out, edge.getSourceNodeId());
+			out.write("\" target=\"");
+			writeEscaped(out, edge.getDestinationNodeId());
+			out.write("\"/>\n");
+		}
+
+		out.write("  </graph>\n</graphml>\n");
+	}
+
+	/**
+	 * Writes a string with XML special characters escaped.
+	 *
+	 * @param out   Destination Writer.
+	 * @param value String to write.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	private void writeEscaped(Writer out, String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '<':
+				out.write("&lt;");
+				break;
+			case '>':
+				out.write("&gt;");
+				break;
+			case '&':
+				out.write("&amp;");
+				break;
+			case '"':
+				out.write("&quot;");
+				break;
+			default:
+				out.write(c);
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package depgraph.GraphWriter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+
+/**
+ * Splits the module graph into pages that each hold at most a given number of
+ * function nodes, so that every page can be laid out by dot in reasonable time
+ * and memory. Modules are never split; a module that is larger than the limit
+ * gets a page of its own.
+ *
+ * The partitioning is a greedy min-cut heuristic over the number of edges
+ * between each pair of modules:
+ * <ol>
+ * <li>Every module starts in its own group.</li>
+ * <li>Module pairs are visited from the most to the least connected and their
+ * groups are merged if the merged group still fits on a page, so heavily
+ * coupled modules end up together and few edges cross pages.</li>
+ * <li>The remaining groups are packed onto pages (first-fit decreasing) so the
+ * number of pages stays small.</li>
+ * </ol>
+ * Unconnected modules never get merged in the second step, so connected
+ * components are kept apart unless the last step packs them together to save
+ * pages.
+ */
+public class GraphPartitioner {
+
+	/**
+	 * Maximum number of function nodes on one page.
+	 */
+	private int maxNodesPerPage;
+
+	/**
+	 * @param maxNodesPerPage Maximum number of function nodes on one page.
+	 */
+	public GraphPartitioner(int maxNodesPerPage) {
+		this.maxNodesPerPage = maxNodesPerPage;
+	}
+
+	/**
+	 * Partitions the modules into pages.
+	 *
+	 * @param modules List of modules (created and passed from the Parser class)
+	 * @param edges   List of edges (created and passed from the Parser class)
+	 * @return Modules on each page. Every module is on exactly one page.
+	 */
+	public List<List<Module>> partition(List<Module> modules, List<Edge> edges) {
+		int size = modules.size();
+		HashMap<String, Integer> moduleIndex = new HashMap<String, Integer>();
+		HashMap<Long, Integer> pairWeights = new HashMap<Long, Integer>();
+		int[] parent = new int[size];
+		int[] groupSize = new int[size];
+
+		for (int i = 0; i < size; i++) {
+			moduleIndex.put(modules.get(i).getModulePrefix(), i);
+			parent[i] = i;
+			groupSize[i] = modules.get(i).getNodes().size();
+		}
+
+		for (Edge edge : edges) {
+			Integer src = moduleIndex.get(edge.getSourceNodeObject().getModulePrefix());
+			Integer dst = moduleIndex.get(edge.getDestinationNodeObject().getModulePrefix());
+			if (src == null || dst == null || src.equals(dst))
+				continue;
+			long key = ((long) Math.min(src, dst) << 32) | Math.max(src, dst);
+			pairWeights.merge(key, 1, Integer::sum);
+		}
+
+		List<Map.Entry<Long, Integer>> pairs = new ArrayList<Map.Entry<Long, Integer>>(pairWeights.entrySet());
+		pairs.sort((a, b) -> !a.getValue().equals(b.getValue()) ? b.getValue() - a.getValue()
+				: Long.compare(a.getKey(), b.getKey()));
+
+		for (Map.Entry<Long, Integer> pair : pairs) {
+			int a = find(parent, (int) (pair.getKey() >>> 32));
+			int b = find(parent, (int) (pair.getKey() & 0xffffffffL));
+			if (a != b && groupSize[a] + groupSize[b] <= maxNodesPerPage) {
+				parent[b] = a;
+				groupSize[a] += groupSize[b];
+			}
+		}
+
+		HashMap<Integer, List<Module>> groups = new HashMap<Integer, List<Module>>();
+		List<Integer> groupOrder = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			int root = find(parent, i);
+			if (!groups.containsKey(root)) {
+				groups.put(root, new ArrayList<Module>());
+				groupOrder.add(root);
+			}
+			groups.get(root).add(modules.get(i));
+		}
+
+		groupOrder.sort((a, b) -> groupSize[b] - groupSize[a]);
+
+		List<List<Module>> pages = new ArrayList<List<Module>>();
+		List<Integer> pageSizes = new ArrayList<Integer>();
+		for (Integer root : groupOrder) {
+			int page = 0;
+			while (page < pages.size() && pageSizes.get(page) + groupSize[root] > maxNodesPerPage)
+				page++;
+
+			if (page == pages.size()) {
+				pages.add(new ArrayList<Module>());
+				pageSizes.add(0);
+			}
+			pages.get(page).addAll(groups.get(root));
+			pageSizes.set(page, pageSizes.get(page) + groupSize[root]);
+		}
+
+		for (List<Module> page : pages)
+			page.sort((a, b) -> Integer.compare(moduleIndex.get(a.getModulePrefix()),
+					moduleIndex.get(b.getModulePrefix())));
+
+		return Collections.unmodifiableList(pages);
+	}
+
+	/**
+	 * Union-find lookup with path halving.
+	 *
+	 * @param parent Parent of each module group.
+	 * @param i      Module index.
+	 * @return Index of the group representative.
+	 */
+	private int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/* Setters and Getters */
+
+	public int getMaxNodesPerPage() {
+		return this.maxNodesPerPage;
+	}
+
+	public void setMaxNodesPerPage(int maxNodesPerPage) {
+		this.maxNodesPerPage = maxNodesPerPage;
+	}
+}
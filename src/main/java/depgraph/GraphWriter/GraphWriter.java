@@ -34,6 +34,16 @@ import depgraph.Parser.Node;
  * actual function nodes (assembled from subgraph-inner.temp)</li>
  * </ul>
  *
+ * Besides DOT, the graph can be exported in machine-readable formats (JSON,
+ * GraphML, CSV edge list and module adjacency matrix) through the
+ * GraphExporter interface. Exporters write the module/node/edge model directly
+ * and do not use the templates or Graphviz (see exportGraph).
+ *
+ * Every output is written from the CanonicalGraph of the modules and edges, so
+ * the same graph always produces byte-identical files. The SHA-256 of every
+ * DOT file written is kept (see getGraphHash), so renders of an unchanged
+ * graph can be skipped (see ImageRenderer).
+ *
  * TODO the writeGraph functions are supposed to throw Exceptions when there is
  * an error creating the graph(s). This is currently not implemented.
  */
@@ -87,6 +97,28 @@ public class GraphWriter {
 	 */
 	private List<Module> modules;
 
+	/**
+	 * Exporters for machine-readable output formats, keyed by format name (which
+	 * is also the file extension of the output file).
+	 */
+	private HashMap<String, GraphExporter> exporters;
+
+	/**
+	 * SHA-256 of every DOT file written, keyed by file name (with extension).
+	 */
+	private HashMap<String, String> graphHashes;
+
+	/**
+	 * Name of the last graph written by writeGraph, without extension.
+	 */
+	private String lastGraph;
+
+	/**
+	 * Fill colors of module clusters keyed by module prefix (e.g. from
+	 * ModuleMetrics.getHeatColors), null to leave clusters unfilled.
+	 */
+	private Map<String, String> moduleColors;
+
 	/**
 	 * No-arg constructor
 	 */
@@ -100,6 +132,9 @@ public class GraphWriter {
 
 		this.edges = null;
 		this.modules = null;
+		this.exporters = new HashMap<String, GraphExporter>();
+		this.graphHashes = new HashMap<String, String>();
+		registerDefaultExporters();
 	}
 
 	/**
@@ -118,6 +153,40 @@ public class GraphWriter {
 
 		this.edges = edges;
 		this.modules = modules;
+		this.exporters = new HashMap<String, GraphExporter>();
+		this.graphHashes = new HashMap<String, String>();
+		registerDefaultExporters();
+	}
+
+	/**
+	 * Registers the exporters that are available out of the box.
+	 */
+	private void registerDefaultExporters() {
+		registerExporter(new JsonExporter());
+		registerExporter(new GraphMLExporter());
+		registerExporter(new CsvExporter());
+		registerExporter(new AdjacencyMatrixExporter());
+	}
+
+	/**
+	 * Adds an exporter for a machine-readable output format. Replaces any
+	 * exporter previously registered for the same format.
+	 *
+	 * @param exporter Exporter to register.
+	 */
+	public void registerExporter(GraphExporter exporter) {
+		exporters.put(exporter.getFormat(), exporter);
+	}
+
+	/**
+	 * Checks if there is an exporter registered for the given format.
+	 *
+	 * @param format Format name (e.g. json, graphml, csv, matrix).
+	 * @return true if the format can be written with exportGraph, false
+	 *         otherwise.
+	 */
+	public boolean isExportFormat(String format) {
+		return exporters.containsKey(format);
 	}
 
 	/**
@@ -151,25 +220,193 @@ public class GraphWriter {
 	 *                   file.
 	 */
 	public void writeGraph(String fileName) throws Exception {
+		writeGraph(fileName, modules, edges);
+	}
+
+	/**
+	 * Writes the graph split into pages of at most maxNodesPerPage function nodes
+	 * (see GraphPartitioner). Every page is written to its own DOT file named
+	 * &lt;fileName&gt;_part&lt;n&gt;.dot and contains the edges between its modules.
+	 * An overview graph, &lt;fileName&gt;_index.dot, has one node per page listing
+	 * its modules and one edge per pair of connected pages, labelled with the
+	 * number of edges between them.
+	 *
+	 * @param fileName        Base name of the files to write to.
+	 * @param maxNodesPerPage Maximum number of function nodes on one page.
+	 * @return Names of the written files without the .dot extension, the index
+	 *         graph last.
+	 * @throws Exception If there is an error creating the graph or writing it to a
+	 *                   file.
+	 */
+	public List<String> writePartitionedGraph(String fileName, int maxNodesPerPage) throws Exception {
+		CanonicalGraph canonical = new CanonicalGraph(modules, edges);
+		List<List<Module>> pages = new GraphPartitioner(maxNodesPerPage).partition(canonical.getModules(),
+				canonical.getEdges());
+		TreeMap<String, Integer> crossPageEdges = new TreeMap<String, Integer>();
+		List<List<Edge>> pageEdges = getPageEdges(pages, canonical.getEdges(), crossPageEdges);
+		List<String> fileNames = new ArrayList<String>();
+
+		for (int i = 0; i < pages.size(); i++) {
+			String pageName = String.format("%s_part%d", fileName, i);
+			writeGraph(pageName, pages.get(i), pageEdges.get(i));
+			fileNames.add(pageName);
+		}
+
+		StringBuilder index = new StringBuilder();
+		index.append("digraph {\n    rankdir=\"LR\";\n    fontname=\"Monospace\";\n");
+		index.append("    node [shape=box,fontname=\"Monospace\",fontsize=12];\n");
+		for (int i = 0; i < pages.size(); i++) {
+			index.append(String.format("    Page%d [label=\"%s_part%d\\n", i, new File(fileName).getName(), i));
+			index.append(pages.get(i).stream().map(Module::getModulePrefix).collect(Collectors.joining(", ")));
+			index.append("\"];\n");
+		}
+		for (Map.Entry<String, Integer> edge : crossPageEdges.entrySet())
+			index.append(String.format("    %s [label=\"%d\"];\n", edge.getKey(), edge.getValue()));
+		index.append("}\n");
+
+		writeToFile(fileName + "_index.dot", index.toString());
+		fileNames.add(fileName + "_index");
+
+		return fileNames;
+	}
+
+	/**
+	 * Exports the graph split into pages like writePartitionedGraph, one file per
+	 * page named &lt;fileName&gt;_part&lt;n&gt;.&lt;format&gt;. There is no index
+	 * graph; edges between pages are left out.
+	 *
+	 * @param fileName        Base name of the files to write to.
+	 * @param maxNodesPerPage Maximum number of function nodes on one page.
+	 * @param format          Format name (see isExportFormat).
+	 * @return Names of the written files.
+	 * @throws Exception If the format is unknown or there is an error writing a
+	 *                   file.
+	 */
+	public List<String> exportPartitionedGraph(String fileName, int maxNodesPerPage, String format)
+			throws Exception {
+		CanonicalGraph canonical = new CanonicalGraph(modules, edges);
+		List<List<Module>> pages = new GraphPartitioner(maxNodesPerPage).partition(canonical.getModules(),
+				canonical.getEdges());
+		List<List<Edge>> pageEdges = getPageEdges(pages, canonical.getEdges(), new TreeMap<String, Integer>());
+		List<String> fileNames = new ArrayList<String>();
+
+		for (int i = 0; i < pages.size(); i++) {
+			String pageName = String.format("%s_part%d.%s", fileName, i, format);
+			exportGraph(pageName, format, pages.get(i), pageEdges.get(i));
+			fileNames.add(pageName);
+		}
+
+		return fileNames;
+	}
+
+	/**
+	 * @param pages          Modules of each page.
+	 * @param edges          Edges of the whole graph.
+	 * @param crossPageEdges Filled with the number of edges between each pair of
+	 *                       pages, keyed by "Page&lt;a&gt; -&gt; Page&lt;b&gt;".
+	 * @return The edges within each page.
+	 */
+	private List<List<Edge>> getPageEdges(List<List<Module>> pages, List<Edge> edges,
+			TreeMap<String, Integer> crossPageEdges) {
+		List<List<Edge>> pageEdges = new ArrayList<List<Edge>>();
+		HashMap<String, Integer> pageOfModule = new HashMap<String, Integer>();
+
+		for (int i = 0; i < pages.size(); i++) {
+			pageEdges.add(new ArrayList<Edge>());
+			for (Module module : pages.get(i))
+				pageOfModule.put(module.getModulePrefix(), i);
+		}
+
+		for (Edge edge : edges) {
+			Integer src = pageOfModule.get(edge.getSourceNodeObject().getModulePrefix());
+			Integer dst = pageOfModule.get(edge.getDestinationNodeObject().getModulePrefix());
+			if (src == null || dst == null)
+				continue;
+			if (src.equals(dst))
+				pageEdges.get(src).add(edge);
+			else
+				crossPageEdges.merge(String.format("Page%d -> Page%d", src, dst), 1, Integer::sum);
+		}
+
+		return pageEdges;
+	}
+
+	/**
+	 * Builds and writes a graph for the given modules and edges, in canonical
+	 * order (see CanonicalGraph).
+	 *
+	 * @param fileName Name of the file to write to (without extension).
+	 * @param modules  Modules to draw as clusters.
+	 * @param edges    Edges to draw between the nodes of the modules.
+	 * @throws Exception If there is an error creating the graph or writing it to a
+	 *                   file.
+	 */
+	private void writeGraph(String fileName, List<Module> modules, List<Edge> edges) throws Exception {
 		ArrayList<String> moduleCluster = new ArrayList<String>();
 		ArrayList<String> nodeDefs = new ArrayList<String>();
 		String graph = graphTemplate;
+		CanonicalGraph canonical = new CanonicalGraph(modules, edges);
 
-		for (Module module : modules) {
+		for (Module module : canonical.getModules()) {
 			String nodeClusters = getInnerSubgraph(module);
 			String subgraphCluster = outterSubgraphTemplate;
 			subgraphCluster = subgraphCluster.replaceAll("%subgraph.modulePrefix%", module.getModulePrefix());
 			subgraphCluster = subgraphCluster.replaceAll("%subgraph.node_clusters%", nodeClusters);
+			if (moduleColors != null && moduleColors.containsKey(module.getModulePrefix()))
+				subgraphCluster = fillCluster(subgraphCluster, moduleColors.get(module.getModulePrefix()));
 			moduleCluster.add(subgraphCluster);
 		}
 
-		for (Edge edge : edges)
-			nodeDefs.add(createEdgeDefString(edge));
+		long maxCallCount = getMaxCallCount();
+		for (Edge edge : canonical.getEdges())
+			nodeDefs.add(createEdgeDefString(edge, maxCallCount));
 
 		graph = graph.replaceAll("%graph.subgraph_cluster%", moduleCluster.stream().collect(Collectors.joining()));
 		graph = graph.replaceAll("%graph.edge_defs%", nodeDefs.stream().collect(Collectors.joining()));
 
 		writeToFile(fileName + ".dot", graph);
+		lastGraph = fileName;
+	}
+
+	/**
+	 * Streams the graph to a file using the exporter registered for the given
+	 * format. The templates are not needed and the output does not have to be
+	 * rendered by dot afterwards.
+	 *
+	 * @param fileName Name of the file to write to (including extension).
+	 * @param format   Format name of a registered exporter.
+	 * @throws Exception If there is no exporter for the format or there is an
+	 *                   error writing the file.
+	 */
+	public void exportGraph(String fileName, String format) throws Exception {
+		exportGraph(fileName, format, modules, edges);
+	}
+
+	/**
+	 * Exports the given modules and edges, in canonical order (see
+	 * CanonicalGraph).
+	 *
+	 * @param fileName Name of the file to write to.
+	 * @param format   Format name (see isExportFormat).
+	 * @param modules  Modules to export.
+	 * @param edges    Edges to export.
+	 * @throws Exception If the format is unknown or there is an error writing the
+	 *                   file.
+	 */
+	private void exportGraph(String fileName, String format, List<Module> modules, List<Edge> edges)
+			throws Exception {
+		GraphExporter exporter = exporters.get(format);
+
+		if (exporter == null)
+			throw new Exception("No exporter registered for format: " + format);
+
+		CanonicalGraph canonical = new CanonicalGraph(modules, edges);
+		BufferedWriter writer = new BufferedWriter(new FileWriter(new File(fileName)));
+		try {
+			exporter.export(canonical.getModules(), canonical.getEdges(), writer);
+		} finally {
+			writer.close();
+		}
 	}
 
 	/**
@@ -186,13 +423,58 @@ public class GraphWriter {
 	 * edge.getDestinationNodeId() to edge.getSourceNodeObject().getNodeLabel() and
 	 * edge.getDestinationNodeObject().getNodeLabel(), respectively.
 	 *
-	 * @param edge Edge object to create a node definition from.
+	 * If call counts were attached (see TraceReader), edges are styled by how
+	 * often they are called: on a logarithmic scale up to the hottest edge of the
+	 * graph they get wider, redder and a higher weight, which makes dot keep them
+	 * short and straight. Edges without a count are drawn thin and gray.
+	 *
+	 * @param edge         Edge object to create a node definition from.
+	 * @param maxCallCount Largest call count in the graph, 0 if there is none.
 	 * @return String representation of an edge definition according to the DOT
 	 *         grammar.
 	 */
-	private String createEdgeDefString(Edge edge) {
-		return String.format("%s -> %s;", edge.getSourceNodeId(), edge.getDestinationNodeId(),
-				edge.getSourceNodeObject().getNodeLabel());
+	private String createEdgeDefString(Edge edge, long maxCallCount) {
+		if (maxCallCount == 0)
+			return String.format("%s -> %s;", edge.getSourceNodeId(), edge.getDestinationNodeId(),
+					edge.getSourceNodeObject().getNodeLabel());
+
+		if (edge.getCallCount() == 0)
+			return String.format("%s -> %s [color=gray,tooltip=\"no calls traced\"];", edge.getSourceNodeId(),
+					edge.getDestinationNodeId());
+
+		// 0 for a single call, 1 for the hottest edge
+		double heat = (maxCallCount == 1) ? 1 : Math.log(edge.getCallCount()) / Math.log(maxCallCount);
+		return String.format(Locale.ROOT,
+				"%s -> %s [penwidth=%.1f,weight=%d,color=\"0.000 %.3f %.3f\",tooltip=\"%d calls\"];",
+				edge.getSourceNodeId(), edge.getDestinationNodeId(), 1 + 4 * heat, 1 + Math.round(9 * heat), heat,
+				0.3 + 0.6 * heat, edge.getCallCount());
+	}
+
+	/**
+	 * Fills a module cluster with a color. The attributes are inserted after the
+	 * opening brace, so any outter subgraph template can be colored.
+	 *
+	 * @param cluster Subgraph definition of the module.
+	 * @param color   DOT color.
+	 * @return The subgraph definition with the fill attributes.
+	 */
+	private String fillCluster(String cluster, String color) {
+		int brace = cluster.indexOf('{');
+		if (brace == -1)
+			return cluster;
+		return cluster.substring(0, brace + 1) + String.format("\n    style=filled;\n    fillcolor=\"%s\";", color)
+				+ cluster.substring(brace + 1);
+	}
+
+	/**
+	 * @return Largest call count of the edges, 0 if no trace was applied.
+	 */
+	private long getMaxCallCount() {
+		long max = 0;
+		if (edges != null)
+			for (Edge edge : edges)
+				max = Math.max(max, edge.getCallCount());
+		return max;
 	}
 
 	/**
@@ -260,15 +542,16 @@ public class GraphWriter {
 	 *
 	 * @param fileName Name of the file to write.
 	 * @param graph    Graph to write to the file.
+	 * @throws IOException If the file can not be written.
 	 */
-	private void writeToFile(String fileName, String graph) {
+	private void writeToFile(String fileName, String graph) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(new File(fileName)));
 		try {
-			BufferedWriter writer = new BufferedWriter(new FileWriter(new File(fileName)));
 			writer.write(graph);
+		} finally {
 			writer.close();
-		} catch (Exception ex) {
-			ex.printStackTrace();
 		}
+		graphHashes.put(fileName, CanonicalGraph.sha256(graph));
 	}
 
 	/**
@@ -298,6 +581,33 @@ public class GraphWriter {
 
 	/* Setters and Getters */
 
+	/**
+	 * @return SHA-256 of the DOT file last written by writeGraph, null if no
+	 *         graph was written yet.
+	 */
+	public String getGraphHash() {
+		return (lastGraph == null) ? null : getGraphHash(lastGraph);
+	}
+
+	/**
+	 * @param fileName Name of a graph written by this GraphWriter, without the
+	 *                 .dot extension (e.g. a name returned by
+	 *                 writePartitionedGraph).
+	 * @return SHA-256 of the DOT file, null if it was not written by this
+	 *         GraphWriter.
+	 */
+	public String getGraphHash(String fileName) {
+		return graphHashes.get(fileName + ".dot");
+	}
+
+	/**
+	 * @return SHA-256 of the graph model (see CanonicalGraph), independent of
+	 *         the templates.
+	 */
+	public String getContentHash() {
+		return new CanonicalGraph(modules, edges).getContentHash();
+	}
+
 	public String getGraphTemplatePath() {
 		return this.graphTemplatePath;
 	}
@@ -346,6 +656,14 @@ public class GraphWriter {
 		return this.edges;
 	}
 
+	public Map<String, String> getModuleColors() {
+		return this.moduleColors;
+	}
+
+	public void setModuleColors(Map<String, String> moduleColors) {
+		this.moduleColors = moduleColors;
+	}
+
 	public void setEdges(List<Edge> edges) {
 		this.edges = edges;
 	}
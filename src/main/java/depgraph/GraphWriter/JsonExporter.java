@@ -0,0 +1,109 @@
+package depgraph.GraphWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Exports the graph as a JSON document of the form:
+ *
+ * <pre>
+ * {
+ *   "modules": [ { "prefix": "BMS", "nodes": [ { "id": "Node0", "label": "BMS_Init", "public": true, "root": false } ] } ],
+ *   "edges": [ { "source": "Node0", "target": "Node3", "sourceLabel": "BMS_Init", "targetLabel": "DIAG_Handler" } ]
+ * }
+ * </pre>
+ */
+public class JsonExporter implements GraphExporter {
+
+	@Override
+	public String getFormat() {
+		return "json";
+	}
+
+	@Override
+	public void export(List<Module> modules, List<Edge> edges, Writer out) throws IOException {
+		out.write("{\n  \"modules\": [");
+
+		for (int i = 0; i < modules.size(); i++) {
+			Module module = modules.get(i);
+			out.write(i == 0 ? "\n" : ",\n");
+			out.write("    { \"prefix\": ");
+			writeString(out, module.getModulePrefix());
+			out.write(", \"nodes\": [");
+
+			List<Node> nodes = module.getNodes();
+			for (int j = 0; j < nodes.size(); j++) {
+				Node node = nodes.get(j);
+				out.write(j == 0 ? "\n" : ",\n");
+				out.write("      { \"id\": ");
+				writeString(out, node.getNodeId());
+				out.write(", \"label\": ");
+				writeString(out, node.getNodeLabel());
+				out.write(", \"public\": " + node.isPublic());
+				out.write(", \"root\": " + node.isRoot() + " }");
+			}
+			out.write(nodes.isEmpty() ? "] }" : "\n    ] }");
+		}
+
+		out.write(modules.isEmpty() ? "],\n  \"edges\": [" : "\n  ],\n  \"edges\": [");
+
+		for (int i = 0; i < edges.size(); i++) {
+			Edge edge = edges.get(i);
+			out.write(i == 0 ? "\n" : ",\n");
+			out.write("    { \"source\": ");
+			writeString(out, edge.getSourceNodeId());
+			out.write(", \"target\": ");
+			writeString(out, edge.getDestinationNodeId());
+			out.write(", \"sourceLabel\": ");
+			writeString(out, edge.getSourceNodeObject().getNodeLabel());
+			out.write(", \"targetLabel\": ");
+			writeString(out, edge.getDestinationNodeObject().getNodeLabel());
+			out.write(" }");
+		}
+
+		out.write(edges.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+	}
+
+	/**
+	 * Writes a quoted and escaped JSON string.
+	 *
+	 * @param out   Destination Writer.
+	 * @param value String to write.
+	 * @throws IOException If there is an error writing to out.
+	 */
+	private void writeString(Writer out, String value) throws IOException {
+		out.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					out.write(String.format("\\u%04x", (int) c));
+				else
+					out.write(c);
+				break;
+			}
+		}
+		out.write('"');
+	}
+}
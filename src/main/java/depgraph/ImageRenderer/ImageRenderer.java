@@ -1,9 +1,32 @@
 package depgraph.ImageRenderer;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 /**
  * Relatively simple class. It takes a format and output file name and and
  * creates and runs a process based off a run string generated by this class
  * (see createRunString).
+ *
+ * Renders can be skipped when the graph has not changed: given the hash of the
+ * DOT file (see GraphWriter.getGraphHash), the renderer writes it next to the
+ * output as &lt;output&gt;.sha256 after a successful render and does not run dot
+ * again while the output exists and the hash matches.
+ *
+ * With a RenderCache, images rendered before (in this or an earlier run) are
+ * copied from the cache instead of rendered again.
+ *
+ * With a LayoutCache, a graph that changed little since its last render keeps
+ * its layout: neato -n draws it with every node pinned to its old position.
+ * Images are then not taken from the render cache, since the image depends on
+ * the stored layout as well as on the DOT file.
  */
 public class ImageRenderer {
 
@@ -18,8 +41,21 @@ public class ImageRenderer {
 	 */
 	private Process process;
 
+	/**
+	 * Cache of rendered images, null if renders are not cached.
+	 */
+	private RenderCache renderCache;
+
+	/**
+	 * Layouts of earlier renders, null if every render is laid out from scratch.
+	 */
+	private LayoutCache layoutCache;
+
 	/**
 	 * List of supported image types that dot can generate. See dot(1)
+	 *
+	 * Note that Manager writes json output with the JsonExporter from the
+	 * GraphWriter package instead, so no layout has to be run to get the data.
 	 */
 	public final String[] OUTPUT_TYPES = { "dot", "xdot", "ps", "pdf", "svg", "fig", "png", "gif", "jpg", "jpeg",
 			"json", "imap", "cmapx" };
@@ -52,6 +88,96 @@ public class ImageRenderer {
 		}
 	}
 
+	/**
+	 * Renders the graph unless the output is already up to date for the given
+	 * hash of the DOT file.
+	 *
+	 * @param fileName    Name of the output file.
+	 * @param contentHash Hash of the DOT file to render, null to always render.
+	 * @return true if the image was rendered (or copied from the render cache),
+	 *         false if the render was skipped.
+	 */
+	public boolean renderImageIfChanged(String fileName, String contentHash) {
+		try {
+			return renderImageIfChanged(getFormatFromFileExtension(fileName), fileName, contentHash);
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Renders the graph unless the output is already up to date for the given
+	 * hash of the DOT file. The hash is recorded only if dot succeeded.
+	 *
+	 * @param format      Format the image should be generated as.
+	 * @param fileName    Name of the output file.
+	 * @param contentHash Hash of the DOT file to render, null to always render.
+	 * @return true if the image was rendered (or copied from the render cache),
+	 *         false if the render was skipped.
+	 */
+	public boolean renderImageIfChanged(String format, String fileName, String contentHash) {
+		try {
+			return renderIfChanged(format, fileName, contentHash);
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			return true;
+		}
+	}
+
+	/**
+	 * Same as renderImageIfChanged, but reports a failed render instead of
+	 * printing it.
+	 *
+	 * @param format      Format the image should be generated as.
+	 * @param fileName    Name of the output file.
+	 * @param contentHash Hash of the DOT file to render, null to always render.
+	 * @return true if the image was rendered (or copied from the render cache),
+	 *         false if the render was skipped.
+	 * @throws Exception If dot can not be run or did not create the output.
+	 */
+	public boolean renderIfChanged(String format, String fileName, String contentHash) throws Exception {
+		if (contentHash != null && isUpToDate(fileName, contentHash))
+			return false;
+
+		File hashFile = getHashFile(fileName);
+		Files.deleteIfExists(hashFile.toPath());
+		if (!render(format, fileName))
+			throw new Exception("dot could not render " + fileName);
+		if (contentHash != null)
+			Files.write(hashFile.toPath(), (contentHash + "\n").getBytes(StandardCharsets.UTF_8));
+
+		return true;
+	}
+
+	/**
+	 * @param fileName    Name of the output file.
+	 * @param contentHash Hash of the DOT file to render.
+	 * @return true if the output exists and was rendered from a DOT file with the
+	 *         same hash.
+	 */
+	public boolean isUpToDate(String fileName, String contentHash) {
+		File hashFile = getHashFile(fileName);
+
+		if (!new File(fileName).isFile() || !hashFile.isFile())
+			return false;
+
+		try {
+			return new String(Files.readAllBytes(hashFile.toPath()), StandardCharsets.UTF_8).trim()
+					.equals(contentHash);
+		} catch (Exception ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param fileName Name of the output file.
+	 * @return File holding the hash of the DOT file the output was rendered from.
+	 */
+	private File getHashFile(String fileName) {
+		return new File(fileName + ".sha256");
+	}
+
 	/**
 	 * Renders the graph image by creating a dot run string. Specifies the type and
 	 * output file name.
@@ -61,13 +187,154 @@ public class ImageRenderer {
 	 */
 	public void renderImage(String format, String fileName) {
 		try {
-			process = runtime.exec(createRunString(format, fileName));
-			process.waitFor();
+			render(format, fileName);
 		} catch (Exception ex) {
 			ex.printStackTrace();
 		}
 	}
 
+	/**
+	 * Copies the image from the render cache if it is there, runs dot otherwise
+	 * and adds the result to the cache.
+	 *
+	 * @param format   Format the image should be generated as.
+	 * @param fileName Name of the output file.
+	 * @return true if the output file was created.
+	 * @throws Exception If dot can not be run or the DOT file can not be read.
+	 */
+	private boolean render(String format, String fileName) throws Exception {
+		if (layoutCache != null)
+			return renderWithLayoutCache(format, fileName);
+
+		File output = new File(fileName);
+		String key = null;
+
+		if (renderCache != null) {
+			Path dotFile = new File(fileName.substring(0, fileName.lastIndexOf('.')) + ".dot").toPath();
+			key = renderCache.getKey(new String(Files.readAllBytes(dotFile), StandardCharsets.UTF_8), format);
+			if (renderCache.fetch(key, format, output))
+				return true;
+		}
+
+		process = runtime.exec(createRunString(format, fileName));
+		if (process.waitFor() != 0 || !output.isFile())
+			return false;
+
+		if (renderCache != null)
+			renderCache.store(key, format, output);
+
+		return true;
+	}
+
+	/**
+	 * Renders the graph with its stored layout if it changed little enough,
+	 * otherwise lays it out with dot and stores the new layout, read from the
+	 * plain output of the same dot run.
+	 *
+	 * @param format   Format the image should be generated as.
+	 * @param fileName Name of the output file.
+	 * @return true if the output file was created.
+	 * @throws Exception If dot or neato can not be run or the DOT file can not be
+	 *                   read.
+	 */
+	private boolean renderWithLayoutCache(String format, String fileName) throws Exception {
+		File output = new File(fileName);
+		String name = fileName.substring(0, fileName.lastIndexOf('.'));
+		String dot = new String(Files.readAllBytes(new File(name + ".dot").toPath()), StandardCharsets.UTF_8);
+
+		String pinned = layoutCache.pin(name, dot);
+		if (pinned != null) {
+			File pinnedFile = new File(name + ".pinned.dot");
+			Files.write(pinnedFile.toPath(), pinned.getBytes(StandardCharsets.UTF_8));
+			process = runtime.exec(new String[] { "neato", "-n", "-T" + format, "-o", fileName, pinnedFile.getPath() });
+			boolean rendered = process.waitFor() == 0 && output.isFile();
+			Files.deleteIfExists(pinnedFile.toPath());
+			if (rendered)
+				layoutCache.storePinnedLayout(name, dot);
+			return rendered;
+		}
+
+		File plain = File.createTempFile("layout", ".plain");
+		try {
+			process = runtime.exec(new String[] { "dot", "-T" + format, "-o", fileName, "-Tplain", "-o",
+					plain.getPath(), name + ".dot" });
+			if (process.waitFor() != 0 || !output.isFile())
+				return false;
+
+			layoutCache.storeFullLayout(name, dot,
+					new String(Files.readAllBytes(plain.toPath()), StandardCharsets.UTF_8));
+			return true;
+		} finally {
+			Files.deleteIfExists(plain.toPath());
+		}
+	}
+
+	/**
+	 * Renders several graphs in parallel, one dot process per graph. Used for
+	 * partitioned graphs, where each page is an independent layout.
+	 *
+	 * @param format    Format the images should be generated as.
+	 * @param fileNames Names of the graphs to render, without extension. The
+	 *                  DOT file &lt;name&gt;.dot is rendered to
+	 *                  &lt;name&gt;.&lt;format&gt;.
+	 * @param executor  Runs the renders. It is not shut down, the caller owns it.
+	 */
+	public void renderImages(String format, List<String> fileNames, ExecutorService executor) {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+
+		try {
+			for (String fileName : fileNames)
+				futures.add(executor.submit(() -> newWorker().renderImage(format, fileName + "." + format)));
+
+			for (Future<?> future : futures)
+				future.get();
+		} catch (Exception ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Same as renderImages, but skips the graphs whose output is up to date.
+	 *
+	 * @param format      Format the images should be generated as.
+	 * @param fileNames   Names of the graphs to render, without extension.
+	 * @param graphHashes Hash of the DOT file of each graph, keyed by name.
+	 *                    Graphs without a hash are always rendered.
+	 * @param executor    Runs the renders. It is not shut down, the caller owns
+	 *                    it.
+	 * @return Number of graphs rendered.
+	 */
+	public int renderImages(String format, List<String> fileNames, Map<String, String> graphHashes,
+			ExecutorService executor) {
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		int rendered = 0;
+
+		try {
+			for (String fileName : fileNames)
+				futures.add(executor.submit(() -> newWorker().renderImageIfChanged(format,
+						fileName + "." + format, graphHashes.get(fileName))));
+
+			for (Future<Boolean> future : futures)
+				if (future.get())
+					rendered++;
+		} catch (Exception ex) {
+			ex.printStackTrace();
+		}
+
+		return rendered;
+	}
+
+	/**
+	 * @return Renderer for one of several parallel renders, with the same render
+	 *         and layout caches as this one.
+	 */
+	private ImageRenderer newWorker() {
+		ImageRenderer worker = new ImageRenderer();
+		worker.setRenderCache(renderCache);
+		worker.setLayoutCache(layoutCache);
+		return worker;
+	}
+
 	/**
 	 * Checks if the file extension specified in the output file name is a valid by
 	 * checking if it exists in the OUTPUT_TYPES class attribute.
@@ -76,8 +343,8 @@ public class ImageRenderer {
 	 * @return The type of image to render. See OUTPUT_TYPES and dot(1) for details.
 	 * @throws Exception If the specified format is invalid.
 	 */
-	private String getFormatFromFileExtension(String fileName) throws Exception {
-		String extension = fileName.split("\\.")[1];
+	public String getFormatFromFileExtension(String fileName) throws Exception {
+		String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
 
 		for (String type : OUTPUT_TYPES)
 			if (extension.equals(type))
@@ -95,6 +362,24 @@ public class ImageRenderer {
 	 * @return Valid run string to create a process from.
 	 */
 	private String createRunString(String format, String fileName) {
-		return String.format("dot -T%s -o %s %s.dot", format, fileName, fileName.split("\\.")[0]);
+		return String.format("dot -T%s -o %s %s.dot", format, fileName, fileName.substring(0, fileName.lastIndexOf('.')));
+	}
+
+	/* Setters and Getters */
+
+	public RenderCache getRenderCache() {
+		return renderCache;
+	}
+
+	public void setRenderCache(RenderCache renderCache) {
+		this.renderCache = renderCache;
+	}
+
+	public LayoutCache getLayoutCache() {
+		return layoutCache;
+	}
+
+	public void setLayoutCache(LayoutCache layoutCache) {
+		this.layoutCache = layoutCache;
 	}
 }
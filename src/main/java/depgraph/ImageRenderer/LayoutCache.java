@@ -0,0 +1,497 @@
+package depgraph.ImageRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import depgraph.GraphWriter.CanonicalGraph;
+
+/**
+ * Keeps the layout of a graph from one render to the next, so a small change
+ * to the graph does not move everything else around and does not need a full
+ * dot layout.
+ *
+ * After a full dot layout, the node positions are read from the plain output
+ * of the same dot run and stored, with the nodes and edges the layout was made
+ * for, as &lt;name&gt;-&lt;hash of path&gt;.layout in the cache directory. On
+ * the next render of the same output the graph is compared with the stored
+ * one. If the nodes and edges added or removed since are at most the threshold
+ * (a fraction of the stored nodes and edges), every known node is pinned to its
+ * old position and neato -n only draws the graph. New nodes are placed next to
+ * a neighbour, preferably one of the same cluster. Cluster boxes are computed
+ * from the positions of their nodes. Past the threshold dot lays out the graph
+ * from scratch again.
+ *
+ * Nodes are matched by label, since node IDs are renumbered whenever a node is
+ * added or removed.
+ */
+public class LayoutCache {
+
+	private static Logger logger;
+
+	/**
+	 * Tokens of the DOT files written by GraphWriter: cluster openings, braces,
+	 * edge statements, node statements and other quoted strings, which are
+	 * skipped.
+	 */
+	private static final Pattern TOKEN = Pattern.compile(
+			"subgraph\\s+\"?(cluster_[^\\s\"{]*)\"?\\s*\\{|(\\{)|(\\})"
+					+ "|(\\w+)\\s*->\\s*(\\w+)|(\\w+)\\s*\\[label=\"((?:[^\"\\\\]|\\\\.)*)\"|\"(?:[^\"\\\\]|\\\\.)*\"");
+
+	/**
+	 * Size of a node in points (see templates/graph.temp) and the space kept
+	 * around nodes and inside clusters.
+	 */
+	private static final double NODE_WIDTH = 252;
+
+	private static final double NODE_HEIGHT = 36;
+
+	private static final double MARGIN = 8;
+
+	private static final double LABEL_HEIGHT = 30;
+
+	private File directory;
+
+	/**
+	 * Largest change, as a fraction of the nodes and edges of the stored layout,
+	 * for which the stored layout is reused.
+	 */
+	private double threshold;
+
+	/**
+	 * @param directory Directory holding the layouts, created if it does not
+	 *                  exist.
+	 * @param threshold Largest change (0 to 1) for which a layout is reused.
+	 */
+	public LayoutCache(String directory, double threshold) {
+		logger = Logger.getLogger("depgraph");
+		this.directory = new File(directory);
+		this.threshold = threshold;
+		this.directory.mkdirs();
+	}
+
+	/**
+	 * Nodes, edges and clusters of a DOT file written by GraphWriter.
+	 */
+	static class Graph {
+
+		/**
+		 * Label of each node ID, in order of appearance.
+		 */
+		LinkedHashMap<String, String> labels = new LinkedHashMap<String, String>();
+
+		/**
+		 * Edges as "source label\tdestination label".
+		 */
+		List<String> edges = new ArrayList<String>();
+
+		/**
+		 * Innermost cluster of each node ID.
+		 */
+		HashMap<String, Cluster> clusterOf = new HashMap<String, Cluster>();
+
+		/**
+		 * Clusters in the order they are closed, so inner clusters come before the
+		 * clusters containing them.
+		 */
+		List<Cluster> clusters = new ArrayList<Cluster>();
+	}
+
+	static class Cluster {
+
+		String name;
+
+		/**
+		 * Position after the opening brace, where attributes can be inserted.
+		 */
+		int bodyStart;
+
+		List<String> nodes = new ArrayList<String>();
+
+		List<Cluster> children = new ArrayList<Cluster>();
+
+		/**
+		 * Bounding box (llx, lly, urx, ury) in points, null while empty.
+		 */
+		double[] box;
+	}
+
+	/**
+	 * @param dot Contents of a DOT file.
+	 * @return The nodes, edges and clusters of the file.
+	 */
+	static Graph parse(String dot) {
+		Graph graph = new Graph();
+		List<Cluster> open = new ArrayList<Cluster>();
+		List<Cluster> braces = new ArrayList<Cluster>();
+		Matcher matcher = TOKEN.matcher(dot);
+
+		while (matcher.find()) {
+			if (matcher.group(1) != null) {
+				Cluster cluster = new Cluster();
+				cluster.name = matcher.group(1);
+				cluster.bodyStart = matcher.end();
+				if (!open.isEmpty())
+					open.get(open.size() - 1).children.add(cluster);
+				open.add(cluster);
+				braces.add(cluster);
+			} else if (matcher.group(2) != null) {
+				braces.add(null);
+			} else if (matcher.group(3) != null) {
+				if (!braces.isEmpty() && braces.remove(braces.size() - 1) != null)
+					graph.clusters.add(open.remove(open.size() - 1));
+			} else if (matcher.group(4) != null) {
+				graph.edges.add(matcher.group(4) + "\t" + matcher.group(5));
+			} else if (matcher.group(6) != null) {
+				graph.labels.putIfAbsent(matcher.group(6), matcher.group(7));
+				if (!open.isEmpty()) {
+					open.get(open.size() - 1).nodes.add(matcher.group(6));
+					graph.clusterOf.put(matcher.group(6), open.get(open.size() - 1));
+				}
+			}
+		}
+
+		// Edges by label, the IDs are not stable
+		List<String> edges = new ArrayList<String>();
+		for (String edge : graph.edges) {
+			String[] ids = edge.split("\t");
+			edges.add(graph.labels.getOrDefault(ids[0], ids[0]) + "\t" + graph.labels.getOrDefault(ids[1], ids[1]));
+		}
+		graph.edges = edges;
+
+		return graph;
+	}
+
+	/**
+	 * Stored layout of an output.
+	 */
+	private static class Layout {
+
+		HashSet<String> nodes = new HashSet<String>();
+
+		HashSet<String> edges = new HashSet<String>();
+
+		/**
+		 * Position of each node label in points.
+		 */
+		HashMap<String, double[]> positions = new HashMap<String, double[]>();
+	}
+
+	/**
+	 * Builds a DOT file with every node pinned to its stored position, if the
+	 * graph changed little enough since the stored layout.
+	 *
+	 * @param name Name of the output, usually its path without extension.
+	 * @param dot  Contents of the DOT file to render.
+	 * @return The pinned DOT file for neato -n, null if the graph needs a full
+	 *         layout.
+	 */
+	public String pin(String name, String dot) {
+		Layout layout = load(name);
+		if (layout == null)
+			return null;
+
+		Graph graph = parse(dot);
+		double changed = getChange(layout, graph);
+		if (changed > threshold) {
+			logger.info(String.format("%s changed by %.1f%%, laying it out again", name, 100 * changed));
+			return null;
+		}
+
+		HashMap<String, double[]> positions = place(layout, graph);
+		return insertPositions(dot, graph, positions);
+	}
+
+	/**
+	 * @return Nodes and edges added or removed, as a fraction of the nodes and
+	 *         edges of the stored layout.
+	 */
+	private static double getChange(Layout layout, Graph graph) {
+		HashSet<String> nodes = new HashSet<String>(graph.labels.values());
+		HashSet<String> edges = new HashSet<String>(graph.edges);
+		int changed = 0;
+
+		for (String node : nodes)
+			if (!layout.nodes.contains(node))
+				changed++;
+		for (String node : layout.nodes)
+			if (!nodes.contains(node))
+				changed++;
+		for (String edge : edges)
+			if (!layout.edges.contains(edge))
+				changed++;
+		for (String edge : layout.edges)
+			if (!edges.contains(edge))
+				changed++;
+
+		int size = layout.nodes.size() + layout.edges.size();
+		return (size == 0) ? 1 : (double) changed / size;
+	}
+
+	/**
+	 * @return Position of every node of the graph by ID: the stored position if
+	 *         there is one, otherwise a free spot below a neighbour.
+	 */
+	private static HashMap<String, double[]> place(Layout layout, Graph graph) {
+		HashMap<String, double[]> positions = new HashMap<String, double[]>();
+		List<double[]> placed = new ArrayList<double[]>();
+		List<String> unplaced = new ArrayList<String>();
+		double bottom = Double.MAX_VALUE;
+		double left = Double.MAX_VALUE;
+
+		for (Map.Entry<String, String> node : graph.labels.entrySet()) {
+			double[] position = layout.positions.get(node.getValue());
+			if (position == null) {
+				unplaced.add(node.getKey());
+				continue;
+			}
+			positions.put(node.getKey(), position);
+			placed.add(position);
+			bottom = Math.min(bottom, position[1]);
+			left = Math.min(left, position[0]);
+		}
+		if (placed.isEmpty())
+			bottom = left = 0;
+
+		HashMap<String, String> idOf = new HashMap<String, String>();
+		for (Map.Entry<String, String> node : graph.labels.entrySet())
+			idOf.put(node.getValue(), node.getKey());
+
+		for (String id : unplaced) {
+			// A caller or callee in the same cluster, else any member of the cluster,
+			// else any caller or callee, else below everything
+			Cluster cluster = graph.clusterOf.get(id);
+			double[] anchor = null;
+			double[] neighbour = null;
+			for (String edge : graph.edges) {
+				String[] ends = edge.split("\t");
+				String other = ends[0].equals(graph.labels.get(id)) ? idOf.get(ends[1])
+						: ends[1].equals(graph.labels.get(id)) ? idOf.get(ends[0]) : null;
+				if (other == null || !positions.containsKey(other))
+					continue;
+				if (graph.clusterOf.get(other) == cluster) {
+					anchor = positions.get(other);
+					break;
+				}
+				if (neighbour == null)
+					neighbour = positions.get(other);
+			}
+			if (anchor == null && cluster != null)
+				for (String member : cluster.nodes)
+					if (positions.containsKey(member)) {
+						anchor = positions.get(member);
+						break;
+					}
+			if (anchor == null)
+				anchor = (neighbour != null) ? neighbour : new double[] { left, bottom };
+
+			double[] position = { anchor[0], anchor[1] - NODE_HEIGHT - MARGIN };
+			while (overlaps(position, placed))
+				position[1] -= NODE_HEIGHT + MARGIN;
+			positions.put(id, position);
+			placed.add(position);
+		}
+
+		return positions;
+	}
+
+	private static boolean overlaps(double[] position, List<double[]> placed) {
+		for (double[] other : placed)
+			if (Math.abs(other[0] - position[0]) < NODE_WIDTH + MARGIN
+					&& Math.abs(other[1] - position[1]) < NODE_HEIGHT + MARGIN)
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return The DOT file with a pos attribute for every node and a bb attribute
+	 *         for every cluster with nodes.
+	 */
+	private static String insertPositions(String dot, Graph graph, HashMap<String, double[]> positions) {
+		// Inner clusters are closed first, so their boxes are known before the
+		// boxes of the clusters containing them
+		Insertions insertions = new Insertions();
+		for (Cluster cluster : graph.clusters) {
+			double[] box = null;
+			for (String node : cluster.nodes) {
+				double[] position = positions.get(node);
+				box = union(box, new double[] { position[0] - NODE_WIDTH / 2, position[1] - NODE_HEIGHT / 2,
+						position[0] + NODE_WIDTH / 2, position[1] + NODE_HEIGHT / 2 });
+			}
+			for (Cluster child : cluster.children)
+				box = union(box, child.box);
+			if (box == null)
+				continue;
+
+			cluster.box = new double[] { box[0] - MARGIN, box[1] - MARGIN, box[2] + MARGIN,
+					box[3] + MARGIN + LABEL_HEIGHT };
+			insertions.add(cluster.bodyStart, String.format(Locale.ROOT, "\n    bb=\"%.1f,%.1f,%.1f,%.1f\";",
+					cluster.box[0], cluster.box[1], cluster.box[2], cluster.box[3]));
+		}
+
+		Matcher matcher = TOKEN.matcher(dot);
+		HashSet<String> pinned = new HashSet<String>();
+		while (matcher.find())
+			if (matcher.group(6) != null && pinned.add(matcher.group(6))) {
+				double[] position = positions.get(matcher.group(6));
+				// Before the closing bracket of the attribute list
+				int end = dot.indexOf(']', matcher.end());
+				insertions.add(end,
+						String.format(Locale.ROOT, ",pos=\"%.1f,%.1f!\"", position[0], position[1]));
+			}
+
+		return insertions.apply(dot);
+	}
+
+	private static double[] union(double[] box, double[] other) {
+		if (box == null)
+			return (other == null) ? null : other.clone();
+		if (other == null)
+			return box;
+		return new double[] { Math.min(box[0], other[0]), Math.min(box[1], other[1]), Math.max(box[2], other[2]),
+				Math.max(box[3], other[3]) };
+	}
+
+	/**
+	 * Text insertions into a string at positions of the original string.
+	 */
+	private static class Insertions {
+
+		private TreeMap<Integer, StringBuilder> insertions = new TreeMap<Integer, StringBuilder>();
+
+		void add(int position, String text) {
+			insertions.computeIfAbsent(position, key -> new StringBuilder()).append(text);
+		}
+
+		String apply(String text) {
+			StringBuilder result = new StringBuilder(text.length() + 32 * insertions.size());
+			int last = 0;
+			for (Map.Entry<Integer, StringBuilder> insertion : insertions.entrySet()) {
+				result.append(text, last, insertion.getKey()).append(insertion.getValue());
+				last = insertion.getKey();
+			}
+			return result.append(text, last, text.length()).toString();
+		}
+	}
+
+	/**
+	 * Stores the layout of a graph after a full dot layout.
+	 *
+	 * @param name  Name of the output (see pin).
+	 * @param dot   Contents of the DOT file that was laid out.
+	 * @param plain Output of dot -Tplain for the same file.
+	 * @throws IOException If the layout can not be written.
+	 */
+	public void storeFullLayout(String name, String dot, String plain) throws IOException {
+		Graph graph = parse(dot);
+		HashMap<String, double[]> positions = new HashMap<String, double[]>();
+
+		for (String line : plain.split("\n")) {
+			String[] fields = line.trim().split("\\s+");
+			if (fields.length >= 4 && fields[0].equals("node") && graph.labels.containsKey(unquote(fields[1])))
+				positions.put(unquote(fields[1]),
+						new double[] { 72 * Double.parseDouble(fields[2]), 72 * Double.parseDouble(fields[3]) });
+		}
+
+		store(name, graph.labels.values(), graph.edges, graph, positions);
+	}
+
+	/**
+	 * Stores the positions used for a pinned render. The nodes and edges of the
+	 * last full layout are kept, so changes add up until the threshold is passed.
+	 *
+	 * @param name Name of the output (see pin).
+	 * @param dot  Contents of the DOT file that was rendered.
+	 * @throws IOException If the layout can not be written.
+	 */
+	public void storePinnedLayout(String name, String dot) throws IOException {
+		Layout layout = load(name);
+		if (layout == null)
+			return;
+
+		Graph graph = parse(dot);
+		store(name, layout.nodes, layout.edges, graph, place(layout, graph));
+	}
+
+	private void store(String name, Iterable<String> nodes, Iterable<String> edges, Graph graph,
+			HashMap<String, double[]> positions) throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (String node : nodes)
+			text.append("node\t").append(node).append('\n');
+		for (String edge : edges)
+			text.append("edge\t").append(edge).append('\n');
+		for (Map.Entry<String, double[]> position : positions.entrySet())
+			text.append(String.format(Locale.ROOT, "pos\t%s\t%.1f\t%.1f\n", graph.labels.get(position.getKey()),
+					position.getValue()[0], position.getValue()[1]));
+
+		File file = getFile(name);
+		File temp = File.createTempFile("layout", ".tmp", directory);
+		Files.write(temp.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return The stored layout of an output, null if there is none.
+	 */
+	private Layout load(String name) {
+		File file = getFile(name);
+		if (!file.isFile())
+			return null;
+
+		Layout layout = new Layout();
+		try {
+			for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+				String[] fields = line.split("\t");
+				if (fields[0].equals("node") && fields.length == 2)
+					layout.nodes.add(fields[1]);
+				else if (fields[0].equals("edge") && fields.length == 3)
+					layout.edges.add(fields[1] + "\t" + fields[2]);
+				else if (fields[0].equals("pos") && fields.length == 4)
+					layout.positions.put(fields[1],
+							new double[] { Double.parseDouble(fields[2]), Double.parseDouble(fields[3]) });
+			}
+		} catch (IOException | NumberFormatException ex) {
+			logger.warning("Ignoring unreadable layout " + file + ": " + ex.getMessage());
+			return null;
+		}
+
+		return layout;
+	}
+
+	/**
+	 * @param name Name of an output.
+	 * @return File holding the layout of the output.
+	 */
+	private File getFile(String name) {
+		File output = new File(name);
+		return new File(directory, output.getName() + "-"
+				+ CanonicalGraph.sha256(output.getAbsolutePath()).substring(0, 12) + ".layout");
+	}
+
+	private static String unquote(String name) {
+		return (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\""))
+				? name.substring(1, name.length() - 1)
+				: name;
+	}
+
+	/**
+	 * @return Largest change (0 to 1) for which a layout is reused.
+	 */
+	public double getThreshold() {
+		return threshold;
+	}
+}
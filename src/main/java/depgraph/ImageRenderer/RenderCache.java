@@ -0,0 +1,167 @@
+package depgraph.ImageRenderer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+import depgraph.GraphWriter.CanonicalGraph;
+
+/**
+ * Directory of rendered images, so a graph that was rendered before (e.g. by an
+ * earlier CI build) is copied instead of laid out by dot again.
+ *
+ * An image is stored as &lt;key&gt;.&lt;format&gt;, where the key is the SHA-256
+ * of the DOT file, the output format and the Graphviz version (see getKey). The
+ * DOT file already contains everything taken from the templates, so changing a
+ * template changes the key as well.
+ *
+ * The cache is limited in size. Whenever an image is stored, the least recently
+ * used images (by modification time, which is updated on every hit) are deleted
+ * until the cache fits again. Several renderers, in this or other processes,
+ * can share a cache directory: images are written to a temporary file first and
+ * moved into place.
+ */
+public class RenderCache {
+
+	private static Logger logger;
+
+	/**
+	 * Output of dot -V, read once per run.
+	 */
+	private static String graphvizVersion;
+
+	private File directory;
+
+	/**
+	 * Maximum total size of the cached images, in bytes.
+	 */
+	private long maxBytes;
+
+	/**
+	 * @param directory Directory holding the cached images, created if it does
+	 *                  not exist.
+	 * @param maxBytes  Maximum total size of the cached images, in bytes.
+	 */
+	public RenderCache(String directory, long maxBytes) {
+		logger = Logger.getLogger("depgraph");
+		this.directory = new File(directory);
+		this.maxBytes = maxBytes;
+		this.directory.mkdirs();
+	}
+
+	/**
+	 * @param dotContents Contents of the DOT file to render.
+	 * @param format      Format the image is rendered as.
+	 * @return Key of the rendered image.
+	 */
+	public String getKey(String dotContents, String format) {
+		return CanonicalGraph.sha256(getGraphvizVersion() + "\n" + format + "\n" + dotContents);
+	}
+
+	/**
+	 * Copies a cached image to the output file.
+	 *
+	 * @param key    Key of the image (see getKey).
+	 * @param format Format of the image.
+	 * @param output File to copy the image to.
+	 * @return true if the image was cached and copied, false otherwise.
+	 */
+	public boolean fetch(String key, String format, File output) {
+		File cached = getFile(key, format);
+
+		try {
+			Files.copy(cached.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			cached.setLastModified(System.currentTimeMillis());
+			return true;
+		} catch (IOException ex) {
+			// Not cached, or evicted by another renderer in the meantime
+			return false;
+		}
+	}
+
+	/**
+	 * Adds a rendered image to the cache and evicts the least recently used
+	 * images if the cache is over its size limit.
+	 *
+	 * @param key    Key of the image (see getKey).
+	 * @param format Format of the image.
+	 * @param output Rendered image.
+	 */
+	public void store(String key, String format, File output) {
+		try {
+			Path temp = Files.createTempFile(directory.toPath(), key, ".tmp");
+			Files.copy(output.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(temp, getFile(key, format).toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			logger.warning("Could not add " + output + " to the render cache: " + ex.getMessage());
+			return;
+		}
+
+		evict();
+	}
+
+	/**
+	 * Deletes the least recently used images until the cache is within its size
+	 * limit.
+	 */
+	public synchronized void evict() {
+		File[] files = directory.listFiles((dir, name) -> !name.endsWith(".tmp"));
+		if (files == null)
+			return;
+
+		List<File> images = new ArrayList<File>(Arrays.asList(files));
+		long size = 0;
+		for (File image : images)
+			size += image.length();
+
+		images.sort(Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+		for (int i = 0; i < images.size() && size > maxBytes; i++) {
+			size -= images.get(i).length();
+			logger.fine("Evicting " + images.get(i) + " from the render cache");
+			images.get(i).delete();
+		}
+	}
+
+	private File getFile(String key, String format) {
+		return new File(directory, key + "." + format);
+	}
+
+	/**
+	 * @return Version line printed by dot -V, "unknown" if dot can not be run.
+	 */
+	public static synchronized String getGraphvizVersion() {
+		if (graphvizVersion == null) {
+			try {
+				Process process = new ProcessBuilder("dot", "-V").redirectErrorStream(true).start();
+				BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+				String line = reader.readLine();
+				process.waitFor();
+				graphvizVersion = (line == null) ? "unknown" : line.trim();
+			} catch (Exception ex) {
+				graphvizVersion = "unknown";
+			}
+		}
+
+		return graphvizVersion;
+	}
+
+	/* Setters and Getters */
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+}
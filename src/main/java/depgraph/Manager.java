@@ -1,20 +1,53 @@
 package depgraph;
 
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import depgraph.Analysis.CallGraph;
+import depgraph.Analysis.EntryPoints;
+import depgraph.Analysis.FocusView;
+import depgraph.Analysis.ModuleMetrics;
+import depgraph.Analysis.ReachabilityAnalyzer;
+import depgraph.Analysis.StackAnalyzer;
+import depgraph.Analysis.StackDepth;
+import depgraph.Analysis.StackUsage;
+import depgraph.Analysis.TransitiveReduction;
 import depgraph.Configurator.ConfigType;
 import depgraph.Configurator.Configurator;
 import depgraph.Parser.Edge;
 import depgraph.Parser.Node;
 import depgraph.Parser.Module;
+import depgraph.Parser.ModuleStrategy;
+import depgraph.Parser.ParseError;
 import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Parser.PipelinedParser;
+import depgraph.Parser.SpillingGraphBuilder;
+import depgraph.Parser.UrlModuleStrategy;
+import depgraph.Pipeline.BatchRunner;
+import depgraph.Pipeline.DependencyGraphPipeline;
+import depgraph.Pipeline.VirtualThreads;
+import depgraph.Reader.CSourceScanner;
+import depgraph.Reader.DoxygenXmlReader;
+import depgraph.Reader.IncludeScanner;
+import depgraph.Reader.InputDeduplicator;
 import depgraph.Reader.Reader;
+import depgraph.Reader.TraceReader;
+import depgraph.GraphWriter.CanonicalGraph;
 import depgraph.GraphWriter.GraphWriter;
 import depgraph.ImageRenderer.ImageRenderer;
+import depgraph.ImageRenderer.LayoutCache;
+import depgraph.ImageRenderer.RenderCache;
 
 public class Manager {
 
@@ -81,22 +114,58 @@ public class Manager {
 		// String[] testArgs = { "-h" };
 		// String[] testArgs = { "-v", "3" };
 
-		List<String> files = null;
+		List<SourceFile> files = null;
 
 		ConfigType fileType = configurator.manageCmdLineArguments(args);
-		if (fileType == ConfigType.DIRECTORY) {
-			files = reader.readDirectory(configurator.getDirectoryName());
+		ModuleStrategy moduleStrategy = ModuleStrategy.fromSpec(configurator.getModuleStrategySpec());
+		parser.setModuleStrategy(moduleStrategy);
+		parser.setKeepGoing(configurator.isKeepGoing());
+		if (configurator.isOffHeapEdges())
+			parser.setOffHeapEdges(true);
+		if (configurator.isStackAnalyzed() || configurator.isReachabilityReported() || configurator.isFocused())
+			parser.setRecordCalls(true);
+		if (configurator.isRenderCached())
+			renderer.setRenderCache(new RenderCache(configurator.getRenderCachePath(),
+					configurator.getRenderCacheSize() * 1024L * 1024L));
+		if (configurator.isLayoutCached())
+			renderer.setLayoutCache(
+					new LayoutCache(configurator.getLayoutCachePath(), configurator.getLayoutThreshold() / 100));
+
+		if (configurator.isBatch() && (fileType == ConfigType.DIRECTORY || fileType == ConfigType.FILE)) {
+			runBatch(fileType, moduleStrategy);
+			return;
+		}
+
+		if (fileType == ConfigType.DIRECTORY && configurator.isMemoryBounded()) {
+			parseWithMemoryBudget();
+		} else if (fileType == ConfigType.DIRECTORY && configurator.isPipelined()) {
+			parsePipelined();
+		} else if (fileType == ConfigType.DIRECTORY) {
+			files = new InputDeduplicator().deduplicate(reader.readSourceDirectory(configurator.getDirectoryName()));
 		} else if (fileType == ConfigType.FILE) {
-			files = reader.readSingleFile(configurator.getFileName());
+			files = new InputDeduplicator().deduplicate(reader.readSourceFile(configurator.getFileName()));
+		} else if (fileType == ConfigType.XML_DIRECTORY) {
+			new DoxygenXmlReader().readDirectory(configurator.getDirectoryName(), parser);
+		} else if (fileType == ConfigType.SOURCE_DIRECTORY) {
+			new CSourceScanner().scanDirectory(configurator.getDirectoryName(), parser);
+		} else if (fileType == ConfigType.INCLUDE_DIRECTORY) {
+			// Function naming conventions do not apply to file names
+			if (configurator.getModuleStrategySpec().equals("default"))
+				parser.setModuleStrategy(new UrlModuleStrategy());
+			String cache = configurator.getIncludeCachePath();
+			new IncludeScanner(cache.equals("") ? null : cache).scanDirectory(configurator.getDirectoryName(), parser);
+		} else {
+			return;
 		}
 
 		if (files != null)
-			if (configurator.isFiltered())
-				parser.parse(files, configurator.getSourceFilterList(), configurator.getDestinationFilterList());
-			else
-				parser.parse(files);
-		else
-			return;
+			parser.parseSourceFiles(files);
+
+		if (configurator.isFiltered())
+			parser.filter(configurator.getSourceFilterList(), configurator.getDestinationFilterList());
+
+		if (configurator.isTraced())
+			applyTrace();
 
 		for (Node node : parser.getNodes()) {
 			logger.fine(node.toString());
@@ -110,20 +179,311 @@ public class Manager {
 
 		writer.setModules(parser.getModules());
 		writer.setEdges(parser.getEdges());
+		if (configurator.isFocused())
+			focus();
+		if (configurator.isReduced())
+			reduce();
 		writer.readTemplates();
 
-		if (!configurator.getOutputPath().equals("")) {
+		if (configurator.isMetricsReported() || configurator.isHeatColored())
+			reportMetrics();
+
+		if (configurator.isPartitioned()) {
+			writePartitions();
+		} else if (!configurator.getOutputPath().equals("")) {
 			String outFile = configurator.getOutputPath();
-			if (outFile.contains(".")) {
-				writer.writeGraph(outFile.split("\\.")[0]);
-				renderer.renderImage(outFile);
+			String extension = outFile.substring(outFile.lastIndexOf('.') + 1);
+			if (outFile.contains(".") && writer.isExportFormat(extension)) {
+				writer.exportGraph(outFile, extension);
+			} else if (outFile.contains(".")) {
+				writer.writeGraph(outFile.substring(0, outFile.lastIndexOf('.')));
+				render(outFile);
 			} else {
 				System.out.println("Error: Output file must have a file extension.");
 			}
 		} else {
 			writer.writeGraph();
-			renderer.renderImage();
+			render("out.pdf");
+		}
+
+		if (configurator.isStackAnalyzed())
+			reportStackDepth();
+		if (configurator.isReachabilityReported())
+			reportReachability();
+
+		reportErrors();
+		logger.info("Program end");
+	}
+
+	/**
+	 * Renders the graph last written, unless the output was already rendered
+	 * from an identical DOT file.
+	 *
+	 * @param outFile Name of the output file.
+	 */
+	private static void render(String outFile) {
+		if (!renderer.renderImageIfChanged(outFile, writer.getGraphHash()))
+			logger.info(outFile + " is up to date, skipped rendering");
+	}
+
+	/**
+	 * Bounded memory mode (-m). Reads the DOT files one at a time and lets the
+	 * SpillingGraphBuilder keep their nodes and edges on disk until the final
+	 * graph is merged.
+	 *
+	 * @throws Exception If a file or a spilled run can not be read or written.
+	 */
+	private static void parseWithMemoryBudget() throws Exception {
+		// Only fingerprints are kept, holding every file for comparison would defeat
+		// the memory budget
+		InputDeduplicator deduplicator = new InputDeduplicator(false);
+
+		// The run files are deleted even if a file can not be read or parsed
+		try (SpillingGraphBuilder builder = new SpillingGraphBuilder(parser,
+				configurator.getMemoryBudget() * 1024L * 1024L)) {
+			for (String path : reader.listDotFiles(configurator.getDirectoryName())) {
+				SourceFile file = reader.readSourceFile(path).get(0);
+				if (!deduplicator.isDuplicate(file))
+					builder.add(file);
+			}
+
+			builder.finish();
+			logger.info(String.format("Merged %d spilled run(s)", builder.getSpillCount()));
+		}
+	}
+
+	/**
+	 * Pipelined mode (-p). Reads, parses and merges the DOT files of the
+	 * directory concurrently; duplicate files are dropped by the reader stage.
+	 *
+	 * @throws Exception If a file can not be read or parsed.
+	 */
+	private static void parsePipelined() throws Exception {
+		InputDeduplicator deduplicator = new InputDeduplicator();
+
+		new PipelinedParser(parser, configurator.getParseThreads()).parse(
+				reader.listDotFiles(configurator.getDirectoryName()), path -> {
+					List<SourceFile> files = new ArrayList<SourceFile>();
+					for (SourceFile file : reader.readSourceFile(path))
+						if (!deduplicator.isDuplicate(file))
+							files.add(file);
+					return files;
+				});
+	}
+
+	/**
+	 * Call count overlay (-T). Attaches the run-time call counts to the edges and
+	 * removes the edges called less often than the minimum (-w).
+	 *
+	 * @throws Exception If the trace can not be read.
+	 */
+	private static void applyTrace() throws Exception {
+		TraceReader trace = new TraceReader();
+		trace.read(configurator.getTracePath());
+		trace.apply(parser.getEdges());
+		if (parser.isRecordingCalls())
+			trace.apply(parser.getCalls());
+
+		if (configurator.getMinCallCount() > 0)
+			logger.info(String.format("Removed %d edge(s) called less than %d time(s)",
+					parser.removeColdEdges(configurator.getMinCallCount()), configurator.getMinCallCount()));
+	}
+
+	/**
+	 * Focus mode (-f, -n, -D). Replaces the graph to be written by the
+	 * neighbourhood of one function or module, including the calls within
+	 * modules.
+	 *
+	 * @throws Exception If there is no function or module to focus on.
+	 */
+	private static void focus() throws Exception {
+		FocusView view = new FocusView(new CallGraph(parser.getNodes(), parser.getCalls()), configurator.getFocus(),
+				configurator.getFocusDepth(), FocusView.Direction.fromSpec(configurator.getFocusDirection()));
+
+		if (configurator.isTraced() && configurator.getMinCallCount() > 0)
+			view.getEdges().removeIf(edge -> edge.getCallCount() < configurator.getMinCallCount());
+
+		int functions = 0;
+		for (Module module : view.getModules())
+			functions += module.getNodes().size();
+		logger.info(String.format("Focused on %s: %d function(s), %d call(s)", configurator.getFocus(), functions,
+				view.getEdges().size()));
+
+		writer.setModules(view.getModules());
+		writer.setEdges(view.getEdges());
+	}
+
+	/**
+	 * Transitive reduction (-t). Leaves out the module dependencies of the graph
+	 * to be written that are implied by longer paths and lists them.
+	 */
+	private static void reduce() {
+		TransitiveReduction reduction = new TransitiveReduction(writer.getModules(), writer.getEdges());
+		writer.setEdges(reduction.getEdges());
+
+		System.out.println(String.format("Transitive reduction left out %d module dependency(ies), %d call(s):",
+				reduction.getElidedDependencies().size(), reduction.getElidedCalls()));
+		for (String dependency : reduction.getElidedDependencies())
+			System.out.println("  " + dependency);
+	}
+
+	/**
+	 * Module metrics (-A, -e). Writes the coupling metrics of the modules and
+	 * functions and colors the module clusters by instability.
+	 *
+	 * @throws Exception If the report can not be written.
+	 */
+	private static void reportMetrics() throws Exception {
+		CanonicalGraph canonical = new CanonicalGraph(parser.getModules(), parser.getEdges());
+		ModuleMetrics metrics = new ModuleMetrics(canonical.getModules(), canonical.getEdges());
+
+		if (configurator.isHeatColored())
+			writer.setModuleColors(metrics.getHeatColors());
+
+		String path = configurator.getMetricsPath();
+		if (path.endsWith(".json")) {
+			try (Writer out = new BufferedWriter(new FileWriter(path))) {
+				metrics.writeJson(out);
+			}
+		} else if (path.endsWith(".csv")) {
+			try (Writer out = new BufferedWriter(new FileWriter(path))) {
+				metrics.writeModuleCsv(out);
+			}
+			String functionPath = path.substring(0, path.length() - ".csv".length()) + "_functions.csv";
+			try (Writer out = new BufferedWriter(new FileWriter(functionPath))) {
+				metrics.writeFunctionCsv(out);
+			}
 		}
+	}
+
+	/**
+	 * Stack depth analysis (-S). Prints the worst-case stack depth of every entry
+	 * function (-R), deepest first, with the call path that needs it.
+	 *
+	 * @throws Exception If the stack usage files can not be read.
+	 */
+	private static void reportStackDepth() throws Exception {
+		StackUsage usage = new StackUsage();
+		usage.load(configurator.getStackUsagePath());
+
+		StackAnalyzer analyzer = new StackAnalyzer(new CallGraph(parser.getNodes(), parser.getCalls()), usage);
+		List<StackDepth> depths = new ArrayList<StackDepth>();
+		for (String root : analyzer.findRoots(configurator.getEntryFunctions()))
+			depths.add(analyzer.getDepth(root));
+		depths.sort(Comparator.comparingLong(StackDepth::getBytes).reversed());
+
+		if (depths.isEmpty()) {
+			System.out.println("No entry functions found for the stack depth analysis.");
+			return;
+		}
+		System.out.println("Worst-case stack depth:");
+		for (StackDepth depth : depths)
+			System.out.println("  " + depth);
+	}
+
+	/**
+	 * Reachability analysis (-U). Prints the functions and modules that can not
+	 * be reached from any entry function (-R) and the public functions no other
+	 * module calls.
+	 */
+	private static void reportReachability() {
+		CallGraph graph = new CallGraph(parser.getNodes(), parser.getCalls());
+		ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer(graph,
+				EntryPoints.find(graph, configurator.getEntryFunctions()));
+
+		List<String> functions = analyzer.getUnreachableFunctions();
+		List<String> modules = analyzer.getUnreachableModules();
+		List<String> unusedApi = analyzer.getUnusedPublicFunctions();
+
+		System.out.println(String.format("%d of %d function(s) reachable from %d entry function(s).",
+				analyzer.getReachableCount(), graph.size(), analyzer.getEntries().size()));
+		System.out.println(String.format("Unreachable functions (%d):", functions.size()));
+		for (String function : functions)
+			System.out.println("  " + function);
+		System.out.println(String.format("Unreachable modules (%d):", modules.size()));
+		for (String module : modules)
+			System.out.println("  " + module);
+		System.out.println(String.format("Public functions not called from another module (%d):", unusedApi.size()));
+		for (String function : unusedApi)
+			System.out.println("  " + function);
+	}
+
+	/**
+	 * Prints the problems found in the input files, if there were any, and the
+	 * files skipped because of them (-k).
+	 */
+	private static void reportErrors() {
+		if (parser.getErrors().isEmpty())
+			return;
+
+		System.out.println(String.format("%d problem(s) found in the input:", parser.getErrors().size()));
+		for (ParseError error : parser.getErrors())
+			System.out.println("  " + error);
+
+		if (!parser.getSkippedFiles().isEmpty())
+			System.out.println(String.format("Skipped %d file(s): %s", parser.getSkippedFiles().size(),
+					String.join(", ", parser.getSkippedFiles())));
+	}
+
+	/**
+	 * Partitioned output (-P). Writes one DOT file per page plus an index graph
+	 * and renders all of them in parallel. Export formats (see
+	 * GraphWriter.isExportFormat) are written one file per page instead, without
+	 * an index graph.
+	 *
+	 * @throws Exception If there is an error writing the graphs.
+	 */
+	private static void writePartitions() throws Exception {
+		String outFile = configurator.getOutputPath().equals("") ? "out.pdf" : configurator.getOutputPath();
+
+		if (!outFile.contains(".")) {
+			System.out.println("Error: Output file must have a file extension.");
+			return;
+		}
+
+		String extension = outFile.substring(outFile.lastIndexOf('.') + 1);
+		if (writer.isExportFormat(extension)) {
+			List<String> pages = writer.exportPartitionedGraph(outFile.substring(0, outFile.lastIndexOf('.')),
+					configurator.getMaxNodesPerPage(), extension);
+			System.out.println(String.format("Graph split into %d page(s).", pages.size()));
+			return;
+		}
+
+		String format = renderer.getFormatFromFileExtension(outFile);
+		List<String> pages = writer.writePartitionedGraph(outFile.substring(0, outFile.lastIndexOf('.')),
+				configurator.getMaxNodesPerPage());
+		HashMap<String, String> hashes = new HashMap<String, String>();
+		for (String page : pages)
+			hashes.put(page, writer.getGraphHash(page));
+
+		ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+		int rendered;
+		try {
+			rendered = renderer.renderImages(format, pages, hashes, executor);
+		} finally {
+			executor.shutdown();
+		}
+		logger.info(String.format("Rendered %d of %d graph(s), the rest were up to date", rendered, pages.size()));
+		System.out.println(String.format("Graph split into %d page(s) and an index graph.", pages.size() - 1));
+	}
+
+	/**
+	 * Batch mode (-B). Parses the input once and produces every view listed in
+	 * the manifest concurrently.
+	 *
+	 * @param fileType       Type of input selected on the command line.
+	 * @param moduleStrategy Strategy used to assign functions to modules.
+	 * @throws Exception If the manifest or the input can not be read.
+	 */
+	private static void runBatch(ConfigType fileType, ModuleStrategy moduleStrategy) throws Exception {
+		String input = (fileType == ConfigType.DIRECTORY) ? configurator.getDirectoryName()
+				: configurator.getFileName();
+		BatchRunner batch = new BatchRunner(
+				DependencyGraphPipeline.builder().addInput(input).moduleStrategy(moduleStrategy).build());
+		int failures = batch.run(configurator.getBatchManifestPath());
+
+		if (failures > 0)
+			System.out.println(String.format("Error: %d view(s) could not be produced.", failures));
 
 		logger.info("Program end");
 	}
@@ -0,0 +1,61 @@
+package depgraph.Parser;
+
+import java.util.HashMap;
+
+/**
+ * Memoizes another ModuleStrategy per node label. Every function shows up in
+ * many call graphs, so most lookups are answered from the cache instead of
+ * running the strategy again.
+ *
+ * Not thread-safe; each Parser wraps its strategy in its own cache.
+ */
+class CachingModuleStrategy implements ModuleStrategy {
+
+	private ModuleStrategy strategy;
+
+	private HashMap<String, String> modulePrefixCache;
+
+	private HashMap<String, Boolean> visibilityCache;
+
+	/**
+	 * @param strategy Strategy to memoize.
+	 */
+	CachingModuleStrategy(ModuleStrategy strategy) {
+		this.strategy = strategy;
+		this.modulePrefixCache = new HashMap<String, String>();
+		this.visibilityCache = new HashMap<String, Boolean>();
+	}
+
+	/**
+	 * The URL is part of the key when present, since the same label may belong to
+	 * different files (e.g. static functions).
+	 */
+	@Override
+	public String getModulePrefix(String nodeLabel, String url) {
+		String key = (url == null) ? nodeLabel : nodeLabel + '\0' + url;
+		String modulePrefix = modulePrefixCache.get(key);
+
+		if (modulePrefix == null) {
+			modulePrefix = strategy.getModulePrefix(nodeLabel, url);
+			modulePrefixCache.put(key, modulePrefix);
+		}
+
+		return modulePrefix;
+	}
+
+	@Override
+	public boolean isPublic(String nodeLabel) {
+		Boolean isPublic = visibilityCache.get(nodeLabel);
+
+		if (isPublic == null) {
+			isPublic = strategy.isPublic(nodeLabel);
+			visibilityCache.put(nodeLabel, isPublic);
+		}
+
+		return isPublic;
+	}
+
+	ModuleStrategy getStrategy() {
+		return strategy;
+	}
+}
@@ -0,0 +1,45 @@
+package depgraph.Parser;
+
+/**
+ * The original naming convention of the project: the module prefix is the text
+ * before the first '_' of the function name, upper-cased. Functions without a
+ * '_' are assumed to belong to the RTOS.
+ *
+ * Visibility is based on the capitalization of the prefix: MOD_Function is
+ * public, mod_Function is private.
+ */
+public class DefaultModuleStrategy implements ModuleStrategy {
+
+	@Override
+	public String getModulePrefix(String nodeLabel, String url) {
+		String modulePrefix = "";
+		if (nodeLabel.indexOf('_') == -1)
+			modulePrefix = "RTOS";
+		else
+			modulePrefix = nodeLabel.substring(0, nodeLabel.indexOf('_'));
+		return modulePrefix.toUpperCase();
+	}
+
+	/**
+	 * If there is no module prefix (no '_' char) then it is an RTOS function and
+	 * therefore public.
+	 */
+	@Override
+	public boolean isPublic(String nodeLabel) {
+		String functionName = "";
+
+		if (nodeLabel.indexOf('_') != -1 && nodeLabel.charAt(0) != '_') {
+			functionName = nodeLabel.substring(1, nodeLabel.indexOf('_'));
+		} else {
+			return true;
+		}
+
+		char[] charArray = functionName.toCharArray();
+
+		if (charArray.length > 0 && Character.isLowerCase(charArray[0])) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+}
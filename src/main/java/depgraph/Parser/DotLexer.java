@@ -0,0 +1,287 @@
+package depgraph.Parser;
+
+/**
+ * Splits the contents of a DOT file into the terminals of the DOT language
+ * grammar (https://graphviz.org/doc/info/lang.html). Unlike the line based
+ * Lexer, it does not care how statements are spread over lines, so it works
+ * with DOT from any generator, not only Doxygen.
+ *
+ * IDs are returned in one form no matter how they were written: quoted strings
+ * are unquoted (escaped quotes and line continuations are resolved), HTML
+ * strings lose their outer angle brackets. Comments and lines starting with #
+ * are skipped. Tokens are produced on demand in a single pass over the input.
+ */
+public class DotLexer {
+
+	/**
+	 * Terminals of the DOT grammar. Keywords are returned as ID and recognized by
+	 * the DotStatementParser, since quoted keywords are plain IDs.
+	 */
+	public enum Kind {
+		// @formatter:off
+		ID,
+		QUOTED_ID,
+		L_BRACE,
+		R_BRACE,
+		L_BRACKET,
+		R_BRACKET,
+		SEMICOLON,
+		COMMA,
+		EQUALS,
+		COLON,
+		PLUS,
+		EDGE_OP,
+		EOF
+		// @formatter:on
+	}
+
+	/**
+	 * Contents of the file being tokenized.
+	 */
+	private String input;
+
+	/**
+	 * Index of the next character to read.
+	 */
+	private int position;
+
+	/**
+	 * Line of the next character to read, starting at 1.
+	 */
+	private int line;
+
+	/**
+	 * Kind of the last token read.
+	 */
+	private Kind kind;
+
+	/**
+	 * Text of the last token read (unquoted for IDs).
+	 */
+	private String text;
+
+	/**
+	 * Line the last token read started on.
+	 */
+	private int tokenLine;
+
+	/**
+	 * @param input Contents of a DOT file.
+	 */
+	public DotLexer(String input) {
+		this.input = input;
+		this.position = 0;
+		this.line = 1;
+	}
+
+	/**
+	 * Reads the next token. Its kind, text and line are available through the
+	 * getters until next is called again.
+	 *
+	 * @return Kind of the token read, EOF at the end of the input.
+	 */
+	public Kind next() {
+		skipWhiteSpaceAndComments();
+		tokenLine = line;
+
+		if (position >= input.length())
+			return token(Kind.EOF, "", 0);
+
+		char c = input.charAt(position);
+		switch (c) {
+		case '{':
+			return token(Kind.L_BRACE, "{", 1);
+		case '}':
+			return token(Kind.R_BRACE, "}", 1);
+		case '[':
+			return token(Kind.L_BRACKET, "[", 1);
+		case ']':
+			return token(Kind.R_BRACKET, "]", 1);
+		case ';':
+			return token(Kind.SEMICOLON, ";", 1);
+		case ',':
+			return token(Kind.COMMA, ",", 1);
+		case '=':
+			return token(Kind.EQUALS, "=", 1);
+		case ':':
+			return token(Kind.COLON, ":", 1);
+		case '+':
+			return token(Kind.PLUS, "+", 1);
+		case '"':
+			return readQuoted();
+		case '<':
+			return readHtml();
+		default:
+			break;
+		}
+
+		if (c == '-' && position + 1 < input.length()
+				&& (input.charAt(position + 1) == '>' || input.charAt(position + 1) == '-'))
+			return token(Kind.EDGE_OP, input.substring(position, position + 2), 2);
+
+		return readId();
+	}
+
+	/**
+	 * Skips white space, C and C++ style comments and lines starting with #
+	 * (output of the C preprocessor).
+	 */
+	private void skipWhiteSpaceAndComments() {
+		while (position < input.length()) {
+			char c = input.charAt(position);
+
+			if (c == '\n') {
+				line++;
+				position++;
+			} else if (Character.isWhitespace(c)) {
+				position++;
+			} else if (c == '#' && isAtLineStart()) {
+				skipToEndOfLine();
+			} else if (input.startsWith("//", position)) {
+				skipToEndOfLine();
+			} else if (input.startsWith("/*", position)) {
+				int end = input.indexOf("*/", position + 2);
+				end = (end == -1) ? input.length() : end + 2;
+				countLines(position, end);
+				position = end;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private boolean isAtLineStart() {
+		for (int i = position - 1; i >= 0 && input.charAt(i) != '\n'; i--)
+			if (!Character.isWhitespace(input.charAt(i)))
+				return false;
+		return true;
+	}
+
+	private void skipToEndOfLine() {
+		int end = input.indexOf('\n', position);
+		position = (end == -1) ? input.length() : end;
+	}
+
+	private void countLines(int start, int end) {
+		for (int i = start; i < end; i++)
+			if (input.charAt(i) == '\n')
+				line++;
+	}
+
+	/**
+	 * Reads a double-quoted string. \" is an escaped quote and a backslash before
+	 * a newline continues the string on the next line; other escapes (e.g. \l)
+	 * are left as they are.
+	 */
+	private Kind readQuoted() {
+		StringBuilder value = new StringBuilder();
+		int i = position + 1;
+
+		while (i < input.length() && input.charAt(i) != '"') {
+			char c = input.charAt(i);
+			if (c == '\\' && i + 1 < input.length()) {
+				char escaped = input.charAt(i + 1);
+				if (escaped == '"') {
+					value.append('"');
+					i += 2;
+					continue;
+				} else if (escaped == '\n') {
+					line++;
+					i += 2;
+					continue;
+				} else if (escaped == '\r' && i + 2 < input.length() && input.charAt(i + 2) == '\n') {
+					line++;
+					i += 3;
+					continue;
+				}
+			} else if (c == '\n') {
+				line++;
+			}
+			value.append(c);
+			i++;
+		}
+
+		position = Math.min(i + 1, input.length());
+		kind = Kind.QUOTED_ID;
+		text = value.toString();
+		return kind;
+	}
+
+	/**
+	 * Reads an HTML string (&lt;...&gt; with balanced angle brackets).
+	 */
+	private Kind readHtml() {
+		int depth = 0;
+		int i = position;
+
+		for (; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if (c == '<') {
+				depth++;
+			} else if (c == '>') {
+				depth--;
+				if (depth == 0)
+					break;
+			} else if (c == '\n') {
+				line++;
+			}
+		}
+
+		text = input.substring(position + 1, Math.min(i, input.length()));
+		position = Math.min(i + 1, input.length());
+		kind = Kind.QUOTED_ID;
+		return kind;
+	}
+
+	/**
+	 * Reads an unquoted ID: a run of characters up to white space or one of the
+	 * DOT punctuation characters. This accepts alphanumeric IDs and numerals as
+	 * well as the identifiers other generators emit (e.g. Node0x55d1c3a0).
+	 */
+	private Kind readId() {
+		int start = position;
+		int i = position;
+
+		while (i < input.length()) {
+			char c = input.charAt(i);
+			if (Character.isWhitespace(c) || "{}[];,=:+\"<".indexOf(c) != -1)
+				break;
+			if (c == '-' && i + 1 < input.length() && (input.charAt(i + 1) == '>' || input.charAt(i + 1) == '-'))
+				break;
+			if ((c == '/' && i + 1 < input.length())
+					&& (input.charAt(i + 1) == '/' || input.charAt(i + 1) == '*'))
+				break;
+			i++;
+		}
+
+		// A lone character the grammar has no use for
+		if (i == start)
+			i++;
+
+		position = i;
+		kind = Kind.ID;
+		text = input.substring(start, i);
+		return kind;
+	}
+
+	private Kind token(Kind kind, String text, int length) {
+		this.kind = kind;
+		this.text = text;
+		position += length;
+		return kind;
+	}
+
+	/* Setters and Getters */
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public int getLine() {
+		return tokenLine;
+	}
+}
@@ -0,0 +1,78 @@
+package depgraph.Parser;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single statement of a DOT file, as read by the DotStatementParser. The
+ * statement types are the ones the Lexer distinguishes:
+ *
+ * - DIGRAPH_DEF: ids holds the graph's name, if it has one.
+ * - NODE_STMT: ids holds the node_id.
+ * - EDGE_STMT: ids holds the source and destination node_id. Edge chains and
+ * edges to subgraphs are split into one statement per pair of nodes.
+ * - NODE_ATTR_STMT, EDGE_ATTR_STMT: default attributes, ids is empty.
+ * - IGNORED: graph attributes, ids is empty.
+ */
+public class DotStatement {
+
+	private TokenType type;
+
+	private List<String> ids;
+
+	/**
+	 * Attributes of the statement's attr_list, in the order they appear.
+	 */
+	private Map<String, String> attributes;
+
+	/**
+	 * Line of the file the statement starts on.
+	 */
+	private int line;
+
+	/**
+	 * @param type       Type of the statement.
+	 * @param ids        IDs named by the statement (see class description).
+	 * @param attributes Attributes of the statement's attr_list.
+	 * @param line       Line of the file the statement starts on.
+	 */
+	public DotStatement(TokenType type, List<String> ids, Map<String, String> attributes, int line) {
+		this.type = type;
+		this.ids = Collections.unmodifiableList(ids);
+		this.attributes = Collections.unmodifiableMap(attributes);
+		this.line = line;
+	}
+
+	/**
+	 * @param name Name of an attribute.
+	 * @return Value of the attribute, null if the statement does not set it.
+	 */
+	public String getAttribute(String name) {
+		return attributes.get(name);
+	}
+
+	/* Setters and Getters */
+
+	public TokenType getType() {
+		return type;
+	}
+
+	public List<String> getIds() {
+		return ids;
+	}
+
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DotStatement\n\tTYPE: %s\n\tIDS: %s\n\tATTRIBUTES: %s\n\tLINE: %d", type, ids,
+				attributes, line);
+	}
+}
@@ -0,0 +1,317 @@
+package depgraph.Parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import depgraph.Parser.DotLexer.Kind;
+
+/**
+ * Reads the statements of a DOT file following the DOT language grammar
+ * (https://graphviz.org/doc/info/lang.html):
+ *
+ * graph : [strict] (graph | digraph) [ID] '{' stmt_list '}'
+ * stmt : node_stmt | edge_stmt | attr_stmt | ID '=' ID | subgraph
+ * edge_stmt : (node_id | subgraph) edgeRHS [attr_list]
+ * subgraph : [subgraph [ID]] '{' stmt_list '}'
+ *
+ * Statements may be separated by ';' or just white space and spread over any
+ * number of lines. The statements of subgraphs are returned as if they were at
+ * the top level; an edge to or from a subgraph becomes an edge to or from
+ * every node in it. Ports are accepted and dropped.
+ *
+ * The file is read in a single pass with one token of look ahead. Syntax
+ * errors do not stop the parse: the offending token is skipped and the error
+ * recorded (see getErrors), so as much of a damaged file as possible is read.
+ */
+public class DotStatementParser {
+
+	private DotLexer lexer;
+
+	private List<DotStatement> statements;
+
+	private List<ParseError> errors;
+
+	/**
+	 * Name of the file being parsed, used in errors.
+	 */
+	private String fileName;
+
+	/**
+	 * @param contents Contents of a DOT file.
+	 */
+	public DotStatementParser(String contents) {
+		this(new SourceFile("<input>", contents));
+	}
+
+	/**
+	 * @param file DOT file to parse.
+	 */
+	public DotStatementParser(SourceFile file) {
+		this.lexer = new DotLexer(file.getContents());
+		this.statements = new ArrayList<DotStatement>();
+		this.errors = new ArrayList<ParseError>();
+		this.fileName = file.getName();
+	}
+
+	/**
+	 * Reads every graph in the file.
+	 *
+	 * @return Statements of the file, in the order they appear.
+	 */
+	public List<DotStatement> parse() {
+		lexer.next();
+
+		while (lexer.getKind() != Kind.EOF) {
+			int line = lexer.getLine();
+
+			if (isKeyword("strict"))
+				lexer.next();
+
+			if (isKeyword("graph") || isKeyword("digraph")) {
+				lexer.next();
+				List<String> name = isId() ? Arrays.asList(readId()) : Collections.<String>emptyList();
+				statements.add(new DotStatement(TokenType.DIGRAPH_DEF, name, Collections.<String, String>emptyMap(),
+						line));
+				parseBody(new LinkedHashSet<String>());
+			} else {
+				unexpected("graph or digraph");
+			}
+		}
+
+		return statements;
+	}
+
+	/**
+	 * Reads '{' stmt_list '}'.
+	 *
+	 * @param mentioned Collects every node_id named in the body.
+	 */
+	private void parseBody(Set<String> mentioned) {
+		if (lexer.getKind() != Kind.L_BRACE) {
+			error("expected '{'");
+			return;
+		}
+		lexer.next();
+
+		while (lexer.getKind() != Kind.R_BRACE && lexer.getKind() != Kind.EOF) {
+			parseStatement(mentioned);
+			if (lexer.getKind() == Kind.SEMICOLON)
+				lexer.next();
+		}
+
+		if (lexer.getKind() == Kind.R_BRACE)
+			lexer.next();
+		else
+			error("missing '}'");
+	}
+
+	private void parseStatement(Set<String> mentioned) {
+		int line = lexer.getLine();
+
+		if (isKeyword("node") || isKeyword("edge") || isKeyword("graph")) {
+			TokenType type = isKeyword("node") ? TokenType.NODE_ATTR_STMT
+					: isKeyword("edge") ? TokenType.EDGE_ATTR_STMT : TokenType.IGNORED;
+			lexer.next();
+			statements.add(new DotStatement(type, Collections.<String>emptyList(), parseAttributes(), line));
+		} else if (isKeyword("subgraph") || lexer.getKind() == Kind.L_BRACE) {
+			parseEdges(parseSubgraph(mentioned), line, mentioned);
+		} else if (isId()) {
+			String id = readId();
+
+			if (lexer.getKind() == Kind.EQUALS) {
+				lexer.next();
+				if (isId())
+					readId();
+				else
+					error("expected a value after '='");
+				return;
+			}
+
+			skipPort();
+			mentioned.add(id);
+
+			if (lexer.getKind() == Kind.EDGE_OP)
+				parseEdges(Arrays.asList(id), line, mentioned);
+			else
+				statements.add(new DotStatement(TokenType.NODE_STMT, Arrays.asList(id), parseAttributes(), line));
+		} else {
+			unexpected("a statement");
+		}
+	}
+
+	/**
+	 * Reads the edgeRHS and attr_list of an edge_stmt whose first operand has
+	 * been read, and adds an EDGE_STMT for every pair of connected nodes. Does
+	 * nothing if no edge operator follows (a lone subgraph).
+	 *
+	 * @param first     node_ids of the first operand.
+	 * @param line      Line the statement starts on.
+	 * @param mentioned Collects every node_id named in the statement.
+	 */
+	private void parseEdges(List<String> first, int line, Set<String> mentioned) {
+		List<List<String>> operands = new ArrayList<List<String>>();
+		operands.add(first);
+
+		while (lexer.getKind() == Kind.EDGE_OP) {
+			lexer.next();
+
+			if (isKeyword("subgraph") || lexer.getKind() == Kind.L_BRACE) {
+				operands.add(parseSubgraph(mentioned));
+			} else if (isId()) {
+				String id = readId();
+				skipPort();
+				mentioned.add(id);
+				operands.add(Arrays.asList(id));
+			} else {
+				error("expected a node or subgraph after '" + lexer.getText() + "'");
+				break;
+			}
+		}
+
+		if (operands.size() == 1)
+			return;
+
+		Map<String, String> attributes = parseAttributes();
+		for (int i = 1; i < operands.size(); i++)
+			for (String source : operands.get(i - 1))
+				for (String destination : operands.get(i))
+					statements.add(new DotStatement(TokenType.EDGE_STMT, Arrays.asList(source, destination),
+							attributes, line));
+	}
+
+	/**
+	 * Reads [subgraph [ID]] '{' stmt_list '}'.
+	 *
+	 * @param mentioned Collects every node_id named in the subgraph.
+	 * @return node_ids named in the subgraph.
+	 */
+	private List<String> parseSubgraph(Set<String> mentioned) {
+		Set<String> inner = new LinkedHashSet<String>();
+
+		if (isKeyword("subgraph")) {
+			lexer.next();
+			if (isId())
+				readId();
+		}
+
+		parseBody(inner);
+		mentioned.addAll(inner);
+
+		return new ArrayList<String>(inner);
+	}
+
+	/**
+	 * Reads any number of attr_lists ('[' [a_list] ']').
+	 *
+	 * @return Attributes set by the lists. Attributes without a value are set to
+	 *         "true".
+	 */
+	private Map<String, String> parseAttributes() {
+		Map<String, String> attributes = new LinkedHashMap<String, String>();
+
+		while (lexer.getKind() == Kind.L_BRACKET) {
+			lexer.next();
+
+			while (lexer.getKind() != Kind.R_BRACKET && lexer.getKind() != Kind.EOF) {
+				if (isId()) {
+					String name = readId();
+					String value = "true";
+					if (lexer.getKind() == Kind.EQUALS) {
+						lexer.next();
+						if (isId())
+							value = readId();
+						else
+							error("expected a value for attribute " + name);
+					}
+					attributes.put(name, value);
+				} else if (lexer.getKind() == Kind.COMMA || lexer.getKind() == Kind.SEMICOLON) {
+					lexer.next();
+				} else {
+					unexpected("an attribute");
+				}
+			}
+
+			if (lexer.getKind() == Kind.R_BRACKET)
+				lexer.next();
+			else
+				error("missing ']'");
+		}
+
+		return attributes;
+	}
+
+	/**
+	 * Skips the port of a node_id (':' ID [':' compass_pt]).
+	 */
+	private void skipPort() {
+		while (lexer.getKind() == Kind.COLON) {
+			lexer.next();
+			if (isId())
+				readId();
+		}
+	}
+
+	/**
+	 * Reads an ID, including concatenated quoted strings ("a" + "b").
+	 *
+	 * @return Value of the ID.
+	 */
+	private String readId() {
+		String id = lexer.getText();
+		boolean quoted = lexer.getKind() == Kind.QUOTED_ID;
+		lexer.next();
+
+		while (quoted && lexer.getKind() == Kind.PLUS) {
+			lexer.next();
+			if (lexer.getKind() != Kind.QUOTED_ID) {
+				error("expected a quoted string after '+'");
+				break;
+			}
+			id += lexer.getText();
+			lexer.next();
+		}
+
+		return id;
+	}
+
+	private boolean isId() {
+		return lexer.getKind() == Kind.ID || lexer.getKind() == Kind.QUOTED_ID;
+	}
+
+	/**
+	 * @param keyword Keyword of the DOT language.
+	 * @return True if the current token is the (unquoted) keyword.
+	 */
+	private boolean isKeyword(String keyword) {
+		return lexer.getKind() == Kind.ID && lexer.getText().equalsIgnoreCase(keyword);
+	}
+
+	/**
+	 * Records an unexpected token and skips it.
+	 *
+	 * @param expected What the grammar allows at this point.
+	 */
+	private void unexpected(String expected) {
+		error(String.format("expected %s, found '%s'", expected, lexer.getText()));
+		lexer.next();
+	}
+
+	private void error(String message) {
+		errors.add(new ParseError(fileName, lexer.getLine(), message));
+	}
+
+	/* Setters and Getters */
+
+	/**
+	 * @return Syntax errors found by parse.
+	 */
+	public List<ParseError> getErrors() {
+		return errors;
+	}
+}
@@ -32,6 +32,12 @@ public class Edge {
 	 */
 	private Node destinationNodeObject;
 
+	/**
+	 * Number of times the call was seen at run time (see TraceReader), 0 if no
+	 * trace was applied or the call was not in it.
+	 */
+	private long callCount;
+
 	/**
 	 * No-arg constructor
 	 */
@@ -40,6 +46,7 @@ public class Edge {
 		this.destinationNodeId = "";
 		this.sourceNodeObject = null;
 		this.destinationNodeObject = null;
+		this.callCount = 0;
 	}
 
 	/* Setters and Getters */
@@ -76,6 +83,14 @@ public class Edge {
 		this.destinationNodeObject = destinationNodeObject;
 	}
 
+	public long getCallCount() {
+		return this.callCount;
+	}
+
+	public void setCallCount(long callCount) {
+		this.callCount = callCount;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("Edge\n\tSOURCE: %s\n\tDESTINATION: %s", this.sourceNodeObject.getNodeLabel(),
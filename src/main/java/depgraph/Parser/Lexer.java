@@ -12,6 +12,10 @@ import java.util.regex.Pattern;
  * The tokenize function goes through each line character-by-character and
  * builds up a buffer of what has been read until it matches a known pattern
  * from the DOT language grammar.
+ *
+ * The Lexer only understands the one-statement-per-line DOT that Doxygen
+ * writes. The Parser reads files with the DotLexer and DotStatementParser,
+ * which implement the full grammar.
  */
 public class Lexer {
 	/**
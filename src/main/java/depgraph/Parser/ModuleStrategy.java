@@ -0,0 +1,69 @@
+package depgraph.Parser;
+
+import java.util.regex.Pattern;
+
+/**
+ * Decides which module a function node belongs to and whether it is public.
+ * The Parser calls the strategy for every node it creates, so implementations
+ * should do any expensive preparation (compiling patterns, loading tables) in
+ * their constructor. The Parser memoizes the results per node label (see
+ * CachingModuleStrategy), so a strategy is only called once per distinct
+ * function.
+ *
+ * Implementations must be stateless (or thread-safe), since one strategy may
+ * be shared by several Parsers running at the same time.
+ *
+ * Available strategies (see fromSpec):
+ * <ul>
+ * <li>default - text before the first '_' of the label, upper-cased, RTOS
+ * otherwise (DefaultModuleStrategy)</li>
+ * <li>url - name of the source file in the Doxygen URL attribute, e.g.
+ * $bal_8c.html becomes BAL (UrlModuleStrategy)</li>
+ * <li>regex:&lt;pattern&gt; - first capture group of a regular expression
+ * matched against the label (RegexModuleStrategy)</li>
+ * <li>table:&lt;file&gt; - longest matching label prefix from a table of
+ * "&lt;prefix&gt; &lt;module&gt;" lines (PrefixTableModuleStrategy)</li>
+ * </ul>
+ */
+public interface ModuleStrategy {
+
+	/**
+	 * Determines the module prefix of a function.
+	 *
+	 * @param nodeLabel Label of the node (function name).
+	 * @param url       Value of the node's URL attribute (e.g.
+	 *                  $bal_8c.html#a1e9d...), null if the node has none.
+	 * @return Module prefix of the function (e.g. BAL, BMS, CONT, etc.)
+	 */
+	String getModulePrefix(String nodeLabel, String url);
+
+	/**
+	 * Determines if a function is public or private.
+	 *
+	 * @param nodeLabel Label of the node (function name).
+	 * @return true if the function is public, false if private.
+	 */
+	boolean isPublic(String nodeLabel);
+
+	/**
+	 * Creates a strategy from its command-line specification.
+	 *
+	 * @param spec One of default, url, regex:&lt;pattern&gt; or
+	 *             table:&lt;file&gt;.
+	 * @return The strategy.
+	 * @throws Exception If the specification is unknown, the pattern is invalid
+	 *                   or the table can not be read.
+	 */
+	static ModuleStrategy fromSpec(String spec) throws Exception {
+		if (spec.equals("default"))
+			return new DefaultModuleStrategy();
+		else if (spec.equals("url"))
+			return new UrlModuleStrategy();
+		else if (spec.startsWith("regex:"))
+			return new RegexModuleStrategy(Pattern.compile(spec.substring("regex:".length())));
+		else if (spec.startsWith("table:"))
+			return PrefixTableModuleStrategy.fromFile(spec.substring("table:".length()));
+
+		throw new Exception("Unknown module strategy: " + spec);
+	}
+}
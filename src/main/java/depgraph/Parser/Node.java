@@ -36,6 +36,12 @@ public class Node {
 	 */
 	private boolean isPublic;
 
+	/**
+	 * Position of the node in the Parser's global list of nodes, -1 until it is
+	 * added there. Lets edges refer to nodes by number (see OffHeapEdgeSet).
+	 */
+	private int index = -1;
+
 	/**
 	 * No-arg constructor.
 	 */
@@ -85,6 +91,14 @@ public class Node {
 		this.isPublic = isPublic;
 	}
 
+	public int getIndex() {
+		return this.index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("Node\n\tNODE ID: %s\n\tNODE LABEL: %s\n\tMODULE PREFIX: %s\n\tROOT: %b", this.nodeId,
@@ -0,0 +1,186 @@
+package depgraph.Parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Set of edges between nodes identified by their index, stored outside of the
+ * Java heap. Each edge is packed into a long (source index in the upper 32
+ * bits, destination index in the lower 32 bits) and kept in an open-addressing
+ * hash table with linear probing in a direct buffer, so adding, looking up and
+ * iterating edges creates no objects for the garbage collector to track, no
+ * matter how many edges there are.
+ *
+ * The edges are also kept in the order they were added, so the set can be
+ * traversed by position (see getSource and getDestination).
+ */
+public class OffHeapEdgeSet {
+
+	/**
+	 * Value of an unused slot. No edge packs to it, since node indexes are never
+	 * negative.
+	 */
+	private static final long EMPTY = -1L;
+
+	/**
+	 * Largest number of slots a direct buffer can hold.
+	 */
+	private static final int MAX_CAPACITY = 1 << 27;
+
+	/**
+	 * Hash table of packed edges, its capacity is a power of two.
+	 */
+	private LongBuffer table;
+
+	/**
+	 * Packed edges in the order they were added.
+	 */
+	private LongBuffer order;
+
+	private int size;
+
+	/**
+	 * No-arg constructor, starts with room for 1024 edges.
+	 */
+	public OffHeapEdgeSet() {
+		this(1024);
+	}
+
+	/**
+	 * @param expectedEdges Number of edges the set should hold before it has to
+	 *                      grow.
+	 */
+	public OffHeapEdgeSet(int expectedEdges) {
+		int capacity = 16;
+		while (capacity < 2L * expectedEdges && capacity < MAX_CAPACITY)
+			capacity <<= 1;
+
+		this.table = allocateTable(capacity);
+		this.order = allocate(Math.max(16, expectedEdges));
+		this.size = 0;
+	}
+
+	/**
+	 * Adds an edge if it is not in the set yet.
+	 *
+	 * @param source      Index of the source node.
+	 * @param destination Index of the destination node.
+	 * @return True if the edge was added, false if it was already in the set.
+	 */
+	public boolean add(int source, int destination) {
+		long edge = pack(source, destination);
+		int slot = findSlot(table, edge);
+
+		if (table.get(slot) == edge)
+			return false;
+
+		table.put(slot, edge);
+		if (size == order.capacity())
+			order = grow(order);
+		order.put(size, edge);
+		size++;
+
+		if (2L * size > table.capacity())
+			rehash();
+
+		return true;
+	}
+
+	/**
+	 * @param source      Index of the source node.
+	 * @param destination Index of the destination node.
+	 * @return True if the edge is in the set.
+	 */
+	public boolean contains(int source, int destination) {
+		long edge = pack(source, destination);
+		return table.get(findSlot(table, edge)) == edge;
+	}
+
+	/**
+	 * @param position Position of an edge in the order edges were added.
+	 * @return Index of the source node of the edge.
+	 */
+	public int getSource(int position) {
+		return (int) (order.get(position) >>> 32);
+	}
+
+	/**
+	 * @param position Position of an edge in the order edges were added.
+	 * @return Index of the destination node of the edge.
+	 */
+	public int getDestination(int position) {
+		return (int) order.get(position);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private static long pack(int source, int destination) {
+		return ((long) source << 32) | (destination & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @return The slot holding the edge, or the empty slot it would go in.
+	 */
+	private static int findSlot(LongBuffer table, long edge) {
+		int mask = table.capacity() - 1;
+		int slot = hash(edge) & mask;
+
+		while (true) {
+			long value = table.get(slot);
+			if (value == edge || value == EMPTY)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Finalizer of MurmurHash3, spreads the bits of both node indexes.
+	 */
+	private static int hash(long edge) {
+		edge ^= edge >>> 33;
+		edge *= 0xff51afd7ed558ccdL;
+		edge ^= edge >>> 33;
+		edge *= 0xc4ceb9fe1a85ec53L;
+		edge ^= edge >>> 33;
+		return (int) edge;
+	}
+
+	/**
+	 * Doubles the hash table, reinserting the edges in the order they were added.
+	 */
+	private void rehash() {
+		if (table.capacity() >= MAX_CAPACITY)
+			throw new IllegalStateException("Too many edges for an OffHeapEdgeSet: " + size);
+
+		LongBuffer larger = allocateTable(table.capacity() << 1);
+		for (int i = 0; i < size; i++) {
+			long edge = order.get(i);
+			larger.put(findSlot(larger, edge), edge);
+		}
+		table = larger;
+	}
+
+	private static LongBuffer allocateTable(int capacity) {
+		LongBuffer table = allocate(capacity);
+		for (int i = 0; i < capacity; i++)
+			table.put(i, EMPTY);
+		return table;
+	}
+
+	private static LongBuffer allocate(int capacity) {
+		return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+	private static LongBuffer grow(LongBuffer buffer) {
+		if (buffer.capacity() >= MAX_CAPACITY)
+			throw new IllegalStateException("Too many edges for an OffHeapEdgeSet: " + buffer.capacity());
+
+		LongBuffer larger = allocate(Math.min(MAX_CAPACITY, buffer.capacity() << 1));
+		for (int i = 0; i < buffer.capacity(); i++)
+			larger.put(i, buffer.get(i));
+		return larger;
+	}
+}
@@ -0,0 +1,55 @@
+package depgraph.Parser;
+
+/**
+ * Problem found while parsing an input file.
+ */
+public final class ParseError {
+
+	/**
+	 * Name of the file the problem is in.
+	 */
+	private final String fileName;
+
+	/**
+	 * Line the problem is on, 0 if it concerns the whole file.
+	 */
+	private final int line;
+
+	private final String message;
+
+	/**
+	 * @param fileName Name of the file the problem is in.
+	 * @param line     Line the problem is on, 0 if it concerns the whole file.
+	 * @param message  Description of the problem.
+	 */
+	public ParseError(String fileName, int line, String message) {
+		this.fileName = fileName;
+		this.line = line;
+		this.message = message;
+	}
+
+	/* Getters */
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return The error as &lt;file&gt;:&lt;line&gt;: &lt;message&gt; (the line is
+	 *         left out if it is 0).
+	 */
+	@Override
+	public String toString() {
+		if (line == 0)
+			return String.format("%s: %s", fileName, message);
+		return String.format("%s:%d: %s", fileName, line, message);
+	}
+}
@@ -1,7 +1,11 @@
 package depgraph.Parser;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -10,22 +14,15 @@ import java.util.logging.Logger;
  * within so that they can be changed and reformatted into a module based
  * dependency view.
  *
- * Each input graph is handled one at a time and parsed line by line until the
- * end of the file is reached.
+ * Each input graph is handled one at a time and parsed statement by statement
+ * until the end of the file is reached.
  *
- * The Parser uses the Lexer to determine what kind of declaration (e.g.
- * node_stmt, edge_stmt, attr_list, etc.) is on the current line in the graph
- * being processed. Based on that, the Parser will know how to interpret the
- * information returned from the Lexer's tokenizer function.
+ * The Parser uses the DotStatementParser to split a graph into its statements
+ * (e.g. node_stmt, edge_stmt, attr_stmt, etc.). Based on the type of each
+ * statement, the Parser will know how to interpret its IDs and attributes.
  */
 public class Parser {
 
-	/**
-	 * Lexer class that the Parser uses to determine what type of statement is
-	 * incoming and how to handle it.
-	 */
-	private Lexer lexer;
-
 	/**
 	 * Collection of Node objects created based on the contents of the DOT file(s)
 	 * passed to the program.
@@ -34,21 +31,73 @@ public class Parser {
 
 	/**
 	 * Collection of Edge objects created based on the connections between nodes
-	 * defined the DOT file(s) passed to the program.
+	 * defined the DOT file(s) passed to the program. If the edges are kept off
+	 * the heap, this is only a view created by getEdges (null until needed).
 	 */
 	private ArrayList<Edge> edges;
 
+	/**
+	 * Global edges, if they are kept off the heap (see setOffHeapEdges), null
+	 * otherwise. Replaces edgeKeys and is the real edge table in that case.
+	 */
+	private OffHeapEdgeSet offHeapEdges;
+
 	/**
 	 * Collection of Module objects created based on the module prefixes parsed when
 	 * the nodes are created.
 	 */
 	private ArrayList<Module> modules;
 
+	/**
+	 * Index of the global nodes by node label, so finding an existing node is a
+	 * hash lookup instead of a scan of every node.
+	 */
+	private HashMap<String, Node> nodesByLabel;
+
+	/**
+	 * Keys (source label, destination label) of the global edges, so duplicate
+	 * edges are found with a hash lookup.
+	 */
+	private HashSet<String> edgeKeys;
+
+	/**
+	 * Every distinct call between two functions, including calls within a
+	 * module, if they are recorded (see setRecordCalls), null otherwise.
+	 */
+	private ArrayList<Edge> calls;
+
+	/**
+	 * Keys (source label, destination label) of the recorded calls.
+	 */
+	private HashSet<String> callKeys;
+
+	/**
+	 * Problems found in the files parsed so far.
+	 */
+	private ArrayList<ParseError> errors;
+
+	/**
+	 * Names of the files that were skipped because of errors.
+	 */
+	private ArrayList<String> skippedFiles;
+
+	/**
+	 * Fault tolerant mode. If set, a file with errors is skipped as a whole;
+	 * otherwise as much of it as could be read is kept.
+	 */
+	private boolean keepGoing;
+
 	/**
 	 * Counter used to create nodeIds that are unique.
 	 */
 	private int lastNodeId;
 
+	/**
+	 * Decides the module and visibility of every node, memoized per node label.
+	 * Uses the DefaultModuleStrategy unless changed with setModuleStrategy.
+	 */
+	private CachingModuleStrategy moduleStrategy;
+
 	/**
 	 * Logger used with levels SEVERE, WARNING, INFO, and FINE.
 	 */
@@ -58,12 +107,17 @@ public class Parser {
 	 * No-arg constructor.
 	 */
 	public Parser() {
-		lexer = new Lexer();
 		nodes = new ArrayList<Node>();
 		edges = new ArrayList<Edge>();
 		modules = new ArrayList<Module>();
+		nodesByLabel = new HashMap<String, Node>();
+		edgeKeys = new HashSet<String>();
+		errors = new ArrayList<ParseError>();
+		skippedFiles = new ArrayList<String>();
+		keepGoing = false;
 		logger = Logger.getLogger("depgraph");
 		lastNodeId = 0;
+		moduleStrategy = new CachingModuleStrategy(new DefaultModuleStrategy());
 	}
 
 	/**
@@ -76,11 +130,77 @@ public class Parser {
 	 *                     String contains the contents of one file.
 	 */
 	public void parse(List<String> fileContents) {
-		for (String singleFileContents : fileContents) {
-			this.parse(singleFileContents);
+		List<SourceFile> files = new ArrayList<SourceFile>();
+		for (int i = 0; i < fileContents.size(); i++)
+			files.add(new SourceFile("<input " + (i + 1) + ">", fileContents.get(i)));
+
+		parseSourceFiles(files);
+	}
+
+	/**
+	 * Same as parse, for files whose names are known so errors can be reported
+	 * against them (see getErrors).
+	 *
+	 * Every file is parsed in isolation: its nodes and edges only join the
+	 * global context once the whole file has been read. In fault tolerant mode
+	 * (see setKeepGoing) a file with errors is skipped and parsing continues
+	 * with the next file.
+	 *
+	 * @param files Files created by the Reader.
+	 */
+	public void parseSourceFiles(List<SourceFile> files) {
+		for (SourceFile file : files) {
+			FileGraph graph = readFile(file);
+			if (graph != null)
+				merge(graph);
 		}
 
+		groupModules();
+	}
+
+	/**
+	 * Reads the nodes and edges of a single file without adding them to the
+	 * global context (see merge). Used by parseSourceFiles and by the
+	 * SpillingGraphBuilder, which keeps the results on disk instead.
+	 *
+	 * @param file A single DOT file.
+	 * @return Nodes and edges of the file, null if the file was skipped.
+	 */
+	FileGraph readFile(SourceFile file) {
+		if (!keepGoing)
+			return this.parse(file);
+
+		try {
+			return this.parse(file);
+		} catch (RuntimeException ex) {
+			// Last line of defence, a bug must not cost the rest of the run
+			errors.add(new ParseError(file.getName(), 0, "could not be parsed: " + ex));
+			skippedFiles.add(file.getName());
+			return null;
+		}
+	}
+
+	/**
+	 * Alternative parse function for parsing according to a set of filters.
+	 *
+	 * @param fileContents       Set of files to parser through.
+	 * @param sourceFilters      Source modules to filter.
+	 * @param destinationFilters Destination modules to filter.
+	 */
+	public void parse(List<String> fileContents, ArrayList<String> sourceFilters,
+			ArrayList<String> destinationFilters) {
+		this.parse(fileContents);
+		filter(sourceFilters, destinationFilters);
+	}
+
+	/**
+	 * Separates the global nodes into modules based on their module prefix. Called
+	 * at the end of parse; front ends that add functions and calls directly (see
+	 * addFunction and addCall) call it once they are done.
+	 */
+	public void groupModules() {
 		logger.fine("Grouping Nodes into Modules...");
+		modules.clear();
 		for (Node node : nodes) {
 			Module module = getModuleFromModulePrefix(node.getModulePrefix());
 
@@ -95,15 +215,13 @@ public class Parser {
 	}
 
 	/**
-	 * Alternative parse function for parsing according to a set of filters.
+	 * Keeps only the modules named in either filter list and the edges going from
+	 * a source module to a destination module.
 	 *
-	 * @param fileContents       Set of files to parser through.
 	 * @param sourceFilters      Source modules to filter.
 	 * @param destinationFilters Destination modules to filter.
 	 */
-	public void parse(List<String> fileContents, ArrayList<String> sourceFilters,
-			ArrayList<String> destinationFilters) {
-		this.parse(fileContents);
+	public void filter(List<String> sourceFilters, List<String> destinationFilters) {
 		ArrayList<Module> moduleList = new ArrayList<Module>();
 		ArrayList<Edge> edgeList = new ArrayList<Edge>();
 
@@ -114,76 +232,176 @@ public class Parser {
 				moduleList.add(module);
 		}
 
-		for (Edge edge : edges)
+		for (Edge edge : getEdges())
 			if (sourceFilters.contains(edge.getSourceNodeObject().getModulePrefix())
 					&& destinationFilters.contains(edge.getDestinationNodeObject().getModulePrefix()))
 				edgeList.add(edge);
 
 		modules = moduleList;
 		edges = edgeList;
+
+		if (offHeapEdges != null) {
+			offHeapEdges = new OffHeapEdgeSet(edgeList.size());
+			for (Edge edge : edgeList)
+				offHeapEdges.add(edge.getSourceNodeObject().getIndex(), edge.getDestinationNodeObject().getIndex());
+		}
 	}
 
 	/**
-	 * Handles a single file's contents. Passes each line of the file to the Lexer
-	 * so it can be tokenized to ease handling. At the moment, this function ignores
-	 * L_BRACE, R_BRACE, NODE_ATTR_STMT, EDGE_ATTR_STMT, IGNORED, and NONE because
-	 * they have no real use in the information we are storing.
+	 * Removes the edges called less often than the given number of times (see
+	 * Edge.getCallCount), so only the hot calls are laid out.
 	 *
-	 * When an edge is found, setting the Edge object's Node attributes may not be
-	 * possible if a node hasn't been parsed yet. We attempt by calling the
-	 * getNodeObjectFromId method, which searches for a Node object with a matching
-	 * nodeId. If there is not yet an object with a matching nodeId, then it will
-	 * throw a NPE, which is caught and effectively ignored. We try again after
-	 * we've finished parsing all of the lines in the file.
+	 * @param minCallCount Smallest call count of the edges to keep.
+	 * @return Number of edges removed.
+	 */
+	public int removeColdEdges(long minCallCount) {
+		ArrayList<Edge> edgeList = new ArrayList<Edge>();
+
+		for (Edge edge : getEdges())
+			if (edge.getCallCount() >= minCallCount)
+				edgeList.add(edge);
+
+		int removed = getEdges().size() - edgeList.size();
+		edges = edgeList;
+
+		if (offHeapEdges != null) {
+			offHeapEdges = new OffHeapEdgeSet(edgeList.size());
+			for (Edge edge : edgeList)
+				offHeapEdges.add(edge.getSourceNodeObject().getIndex(), edge.getDestinationNodeObject().getIndex());
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Adds a function to the global context, for front ends that do not produce
+	 * DOT (e.g. the DoxygenXmlReader). The module and visibility are decided by
+	 * the module strategy, just like for parsed node_stmts.
+	 *
+	 * @param nodeLabel Name of the function.
+	 * @param url       Doxygen URL of the function's source file (e.g.
+	 *                  $bal_8c.html), null if unknown.
+	 * @param isRoot    Whether the function is the root of its own call graph.
+	 * @return The global node for the function. If the function was added before,
+	 *         the existing node is returned unchanged (except that isRoot is set
+	 *         if requested).
+	 */
+	public Node addFunction(String nodeLabel, String url, boolean isRoot) {
+		Node node = nodesByLabel.get(nodeLabel);
+
+		if (node == null) {
+			node = new Node();
+			node.setNodeId("Node" + this.lastNodeId);
+			lastNodeId++;
+			node.setNodeLabel(nodeLabel);
+			node.setModulePrefix(moduleStrategy.getModulePrefix(nodeLabel, url));
+			node.setIsPublic(moduleStrategy.isPublic(nodeLabel));
+			addGlobalNode(node);
+			nodesByLabel.put(nodeLabel, node);
+		}
+
+		if (isRoot)
+			node.setIsRoot(true);
+
+		return node;
+	}
+
+	/**
+	 * Adds a call from one function to another, for front ends that do not
+	 * produce DOT. Unknown functions are added with addFunction. Like edges parsed
+	 * from DOT, the call is only kept if it crosses modules and was not added
+	 * before.
 	 *
-	 * @param fileContents A string containing the contents of a single DOT file
+	 * @param callerLabel Name of the calling function.
+	 * @param calleeLabel Name of the called function.
 	 */
-	private void parse(String fileContents) {
-		String[] lines = fileContents.split("\n");
+	public void addCall(String callerLabel, String calleeLabel) {
+		Node src = addFunction(callerLabel, null, false);
+		Node dst = addFunction(calleeLabel, null, false);
+
+		if (calls != null)
+			recordCall(src, dst);
+
+		if (src.getModulePrefix().equalsIgnoreCase(dst.getModulePrefix()))
+			return;
+
+		addGlobalEdge(src, dst);
+	}
+
+	/**
+	 * Handles a single file's contents. Passes the file to the DotStatementParser
+	 * so it can be split into statements. At the moment, this function ignores
+	 * NODE_ATTR_STMT, EDGE_ATTR_STMT and IGNORED statements because they have no
+	 * real use in the information we are storing.
+	 *
+	 * A node without a label attribute is labelled with its node_id, and a node
+	 * that is only named in edge_stmts is created as if it had been declared with
+	 * no attributes, as the DOT language defines.
+	 *
+	 * Edges are resolved in two phases. While the statements are read, the nodes
+	 * of the file are indexed by node_id and an edge whose nodes are already
+	 * known is resolved with a hash lookup. Edges often come before the node they
+	 * lead to (Doxygen writes them that way), so an edge naming an unknown
+	 * node_id is parked in a table of pending edges keyed by that node_id. At the
+	 * end of the file every pending node_id is looked up once and all edges
+	 * waiting for it are completed.
+	 *
+	 * Errors in the file are added to the global list of errors. In fault
+	 * tolerant mode, the file is skipped if there are any.
+	 *
+	 * @param file A single DOT file
+	 * @return Nodes and edges of the file, null if the file was skipped.
+	 */
+	private FileGraph parse(SourceFile file) {
+		DotStatementParser statementParser = new DotStatementParser(file);
+		List<DotStatement> statements = statementParser.parse();
 		String graphName = null;
+		String rootUrl = UrlModuleStrategy.getUrlFromGraphFileName(file.getName());
+		boolean hasGraph = false;
 		ArrayList<Node> nodeCollection = new ArrayList<Node>();
 		ArrayList<Edge> edgeCollection = new ArrayList<Edge>();
-		ArrayList<Node> nodeRemovalList = new ArrayList<Node>();
-		ArrayList<Edge> edgeRemovalList = new ArrayList<Edge>();
-
-		for (String line : lines) {
-			Token tokenizedLine = lexer.tokenize(line);
+		HashMap<String, Node> nodesById = new HashMap<String, Node>();
+		LinkedHashMap<String, ArrayList<Edge>> pendingEdges = new LinkedHashMap<String, ArrayList<Edge>>();
 
-			switch (tokenizedLine.getToken()) {
+		for (DotStatement statement : statements) {
+			switch (statement.getType()) {
 			case DIGRAPH_DEF:
-				graphName = tokenizedLine.getValue();
+				graphName = statement.getIds().isEmpty() ? null : statement.getIds().get(0);
+				hasGraph = true;
 				logger.info("Parsing graph: " + graphName);
 				break;
 			case NODE_STMT:
+				String nodeId = statement.getIds().get(0);
+				String label = statement.getAttribute("label");
+				if (nodesById.containsKey(nodeId)) {
+					// A node may be named again to add attributes
+					if (label != null)
+						setNodeAttributes(nodesById.get(nodeId), getNodeLabel(label), statement.getAttribute("URL"),
+								graphName, rootUrl);
+					break;
+				}
+
 				Node newNode = new Node();
-				newNode.setNodeId(getNodeIdFromString(tokenizedLine.getValue()));
-				newNode.setNodeLabel(getNodeLabelFromString(tokenizedLine.getValue()));
-				newNode.setModulePrefix(getModulePrefixFromNodeLabel(newNode.getNodeLabel()));
-				newNode.setIsRoot(newNode.getNodeLabel().equals(graphName));
-				newNode.setIsPublic(getIsPublicFromNodeLabel(newNode.getNodeLabel()));
+				newNode.setNodeId(nodeId);
+				setNodeAttributes(newNode, label == null ? nodeId : getNodeLabel(label), statement.getAttribute("URL"),
+						graphName, rootUrl);
 				nodeCollection.add(newNode);
+				nodesById.put(nodeId, newNode);
 				break;
 			case EDGE_STMT:
 				Edge newEdge = new Edge();
-				String sourceNodeId = getSourceNodeIdFromString(tokenizedLine.getValue());
-				String destinationNodeId = getDestinationNodeIdFromString(tokenizedLine.getValue());
+				String sourceNodeId = statement.getIds().get(0);
+				String destinationNodeId = statement.getIds().get(1);
 				newEdge.setSourceNodeId(sourceNodeId);
 				newEdge.setDestinationNodeId(destinationNodeId);
 
-				try {
-					newEdge.setSourceNodeObject(getNodeObjectFromId(nodeCollection, sourceNodeId));
-				} catch (NullPointerException ex) {
-					/* Ignored */
-				} catch (Exception ex) {
-					logger.warning("Edge could not set Source Node object: " + ex);
-				}
-				try {
-					newEdge.setDestinationNodeObject(getNodeObjectFromId(nodeCollection, destinationNodeId));
-				} catch (NullPointerException ex) {
-					/* Ignored */
-				} catch (Exception ex) {
-					logger.warning("Edge could not set Destination Node Object: " + ex);
-				}
+				newEdge.setSourceNodeObject(nodesById.get(sourceNodeId));
+				newEdge.setDestinationNodeObject(nodesById.get(destinationNodeId));
+
+				if (newEdge.getSourceNodeObject() == null)
+					pendingEdges.computeIfAbsent(sourceNodeId, id -> new ArrayList<Edge>()).add(newEdge);
+				if (newEdge.getDestinationNodeObject() == null && !destinationNodeId.equals(sourceNodeId))
+					pendingEdges.computeIfAbsent(destinationNodeId, id -> new ArrayList<Edge>()).add(newEdge);
 
 				edgeCollection.add(newEdge);
 				break;
@@ -192,32 +410,63 @@ public class Parser {
 			}
 		}
 
-		for (Edge e : edgeCollection) {
-			if (e.getSourceNodeObject() == null)
-				e.setSourceNodeObject(getNodeObjectFromId(nodeCollection, e.getSourceNodeId()));
-			if (e.getDestinationNodeObject() == null)
-				e.setDestinationNodeObject(getNodeObjectFromId(nodeCollection, e.getDestinationNodeId()));
+		List<ParseError> fileErrors = new ArrayList<ParseError>(statementParser.getErrors());
+		if (!hasGraph)
+			fileErrors.add(new ParseError(file.getName(), 0, "no graph found"));
+
+		for (ParseError error : fileErrors)
+			logger.warning("Syntax error: " + error);
+		errors.addAll(fileErrors);
+
+		if (keepGoing && !fileErrors.isEmpty()) {
+			skippedFiles.add(file.getName());
+			return null;
 		}
 
-		ArrayList<Edge> removeEdgeCollection = new ArrayList<Edge>();
-		for (Edge edge : edgeCollection)
-			if (edge.getSourceNodeObject().getNodeLabel().equals("__attribute__")
-					|| edge.getDestinationNodeObject().getNodeLabel().equals("__attribute__"))
-				removeEdgeCollection.add(edge);
+		for (Map.Entry<String, ArrayList<Edge>> pending : pendingEdges.entrySet()) {
+			String nodeId = pending.getKey();
+			Node node = nodesById.get(nodeId);
+
+			// Nodes that were only named in edges
+			if (node == null) {
+				node = new Node();
+				node.setNodeId(nodeId);
+				setNodeAttributes(node, nodeId, null, graphName, rootUrl);
+				nodeCollection.add(node);
+				nodesById.put(nodeId, node);
+			}
 
-		edgeCollection.removeAll(removeEdgeCollection);
+			for (Edge edge : pending.getValue()) {
+				if (edge.getSourceNodeObject() == null && edge.getSourceNodeId().equals(nodeId))
+					edge.setSourceNodeObject(node);
+				if (edge.getDestinationNodeObject() == null && edge.getDestinationNodeId().equals(nodeId))
+					edge.setDestinationNodeObject(node);
+			}
+		}
 
-		ArrayList<Node> removeNodeCollection = new ArrayList<Node>();
-		for (Node node : nodeCollection)
-			if (node.getNodeLabel().equals("__attribute__"))
-				removeNodeCollection.add(node);
+		edgeCollection.removeIf(edge -> edge.getSourceNodeObject().getNodeLabel().equals("__attribute__")
+				|| edge.getDestinationNodeObject().getNodeLabel().equals("__attribute__"));
+		nodeCollection.removeIf(node -> node.getNodeLabel().equals("__attribute__"));
 
-		nodeCollection.removeAll(removeNodeCollection);
+		return new FileGraph(nodeCollection, edgeCollection);
+	}
 
-		nodeCollection = cleanUpNodeCollection(nodeCollection);
-		nodes.addAll(nodeCollection);
-		edgeCollection = cleanUpEdgeCollection(edgeCollection);
-		edges.addAll(edgeCollection);
+	/**
+	 * Adds the nodes and edges of a file to the global context. Nodes whose label
+	 * is already known and edges that stay within a module or are already known
+	 * are dropped.
+	 *
+	 * @param graph Nodes and edges read from a single file.
+	 */
+	private void merge(FileGraph graph) {
+		ArrayList<Node> nodeCollection = cleanUpNodeCollection(graph.nodes);
+		for (Node node : nodeCollection) {
+			addGlobalNode(node);
+			nodesByLabel.putIfAbsent(node.getNodeLabel(), node);
+		}
+		ArrayList<Edge> edgeCollection = cleanUpEdgeCollection(graph.edges);
+		for (Edge edge : edgeCollection)
+			addGlobalEdge(edge.getSourceNodeObject(), edge.getDestinationNodeObject());
 
 		// logger.finest("New nodes added ...");
 		// for (Node node : nodeCollection) {
@@ -230,6 +479,78 @@ public class Parser {
 
 	}
 
+	/**
+	 * Adds a node whose module and visibility were already decided, for the
+	 * SpillingGraphBuilder. The node must not exist yet.
+	 *
+	 * @param nodeLabel    Name of the function.
+	 * @param modulePrefix Module of the function.
+	 * @param isRoot       Whether the function is the root of its call graph.
+	 * @param isPublic     Whether the function is public.
+	 * @return The new global node.
+	 */
+	Node addNode(String nodeLabel, String modulePrefix, boolean isRoot, boolean isPublic) {
+		Node node = new Node();
+		node.setNodeId("Node" + this.lastNodeId);
+		lastNodeId++;
+		node.setNodeLabel(nodeLabel);
+		node.setModulePrefix(modulePrefix);
+		node.setIsRoot(isRoot);
+		node.setIsPublic(isPublic);
+		addGlobalNode(node);
+		nodesByLabel.put(nodeLabel, node);
+		return node;
+	}
+
+	/**
+	 * Adds a call between two global nodes to the recorded calls, unless it is
+	 * there already.
+	 */
+	private void recordCall(Node src, Node dst) {
+		if (callKeys.add(getEdgeKey(src, dst))) {
+			Edge call = new Edge();
+			call.setSourceNodeId(src.getNodeId());
+			call.setSourceNodeObject(src);
+			call.setDestinationNodeId(dst.getNodeId());
+			call.setDestinationNodeObject(dst);
+			calls.add(call);
+		}
+	}
+
+	/**
+	 * Appends a node to the global list of nodes and records its position.
+	 *
+	 * @param node Node that is not in the global context yet.
+	 */
+	private void addGlobalNode(Node node) {
+		node.setIndex(nodes.size());
+		nodes.add(node);
+	}
+
+	/**
+	 * Adds an edge between two global nodes to the global edge table, unless it
+	 * is there already.
+	 *
+	 * @param src Source node of the edge.
+	 * @param dst Destination node of the edge.
+	 */
+	private void addGlobalEdge(Node src, Node dst) {
+		if (offHeapEdges != null) {
+			if (offHeapEdges.add(src.getIndex(), dst.getIndex()))
+				edges = null;
+			return;
+		}
+
+		if (edgeKeys.add(getEdgeKey(src, dst))) {
+			Edge edge = new Edge();
+			edge.setSourceNodeId(src.getNodeId());
+			edge.setSourceNodeObject(src);
+			edge.setDestinationNodeId(dst.getNodeId());
+			edge.setDestinationNodeObject(dst);
+			edges.add(edge);
+		}
+	}
+
 	/**
 	 * Takes a collection of Edges. If the source or destination Node in an Edge
 	 * exists in the global context, it substitutes that for what was previously
@@ -256,6 +577,9 @@ public class Parser {
 				edge.setDestinationNodeObject(dstNode);
 			}
 
+			if (calls != null)
+				recordCall(edge.getSourceNodeObject(), edge.getDestinationNodeObject());
+
 			if (!edge.getSourceNodeObject().getModulePrefix()
 					.equalsIgnoreCase(edge.getDestinationNodeObject().getModulePrefix())) {
 				if (!existsInEdgeList(edge.getSourceNodeObject(), edge.getDestinationNodeObject())) {
@@ -268,14 +592,18 @@ public class Parser {
 	}
 
 	private boolean existsInEdgeList(Node src, Node dst) {
-		for (Edge edge : edges) {
-			if (edge.getSourceNodeObject().getNodeLabel().equals(src.getNodeLabel())) {
-				if (edge.getDestinationNodeObject().getNodeLabel().equals(dst.getNodeLabel())) {
-					return true;
-				}
-			}
-		}
-		return false;
+		if (offHeapEdges != null)
+			return offHeapEdges.contains(src.getIndex(), dst.getIndex());
+		return edgeKeys.contains(getEdgeKey(src, dst));
+	}
+
+	/**
+	 * @param src Source node of an edge.
+	 * @param dst Destination node of an edge.
+	 * @return Key identifying the edge by its node labels.
+	 */
+	private String getEdgeKey(Node src, Node dst) {
+		return src.getNodeLabel() + '\0' + dst.getNodeLabel();
 	}
 
 	/**
@@ -285,10 +613,7 @@ public class Parser {
 	 * @return a Node that exists globally with the given label
 	 */
 	private Node getGlobalNodeFromNodeLabel(String nodeLabel) {
-		for (Node node : this.nodes)
-			if (node.getNodeLabel().equals(nodeLabel))
-				return node;
-		return null;
+		return nodesByLabel.get(nodeLabel);
 	}
 
 	/**
@@ -312,161 +637,244 @@ public class Parser {
 	}
 
 	/**
-	 * Determines the node_id from a node_stmt.
+	 * Sets the label of a node and everything derived from it.
 	 *
-	 * @param valueString The value of a Lexer created Token which has a TokenType
-	 *                    of node_stmt
-	 * @return node_id as defined in the official DOT language grammar
+	 * @param node      Node to update.
+	 * @param label     Label of the node (the function name).
+	 * @param url       Value of the node's URL attribute (Doxygen links every
+	 *                  function but the root of the graph to the page of its
+	 *                  source file), null if it has none.
+	 * @param graphName Name of the graph the node is declared in.
+	 * @param rootUrl   URL of the page the root of the graph is documented on,
+	 *                  used if the root has no URL attribute (see
+	 *                  UrlModuleStrategy.getUrlFromGraphFileName), may be null.
 	 */
-	private String getNodeIdFromString(String valueString) {
-		return valueString.substring(0, valueString.indexOf('['));
+	private void setNodeAttributes(Node node, String label, String url, String graphName, String rootUrl) {
+		// Doxygen breaks long labels with \l, but not the name of the graph
+		boolean isRoot = label.equals(graphName) || label.replace("\\l", "").equals(graphName);
+		node.setNodeLabel(label);
+		node.setModulePrefix(moduleStrategy.getModulePrefix(label, (url == null && isRoot) ? rootUrl : url));
+		node.setIsRoot(isRoot);
+		node.setIsPublic(moduleStrategy.isPublic(label));
 	}
 
 	/**
-	 * Determines the label of a node from the attribute list (will always be the
-	 * first attribute in a node_stmt).
+	 * Determines the function name from a label attribute. Record labels (e.g.
+	 * "{main}", as written by clang's call graph printer) lose their braces.
 	 *
-	 * @param valueString Either an attribute list, or the entire node_stmt line
+	 * @param label Value of a label attribute.
 	 * @return Label of the function
 	 */
-	private String getNodeLabelFromString(String valueString) {
-		String assigment = valueString.substring(valueString.indexOf('['), valueString.indexOf(','));
-		String nodeLabel = assigment.split("=")[1];
+	private String getNodeLabel(String label) {
+		String nodeLabel = label.trim();
+		if (nodeLabel.length() > 1 && nodeLabel.startsWith("{") && nodeLabel.endsWith("}"))
+			nodeLabel = nodeLabel.substring(1, nodeLabel.length() - 1).trim();
 		return nodeLabel;
 	}
 
 	/**
-	 * Determines the module prefix of a function from the node label.
+	 * Helper function to scan the "global" list of nodes and check if there is a
+	 * duplicate of the given node label.
 	 *
-	 * @param nodeLabel Label of the node (easiest to use the getNodeLabelFromString
-	 *                  function first and pass the result here).
-	 * @return Module prefix of a function (e.g. BAL, BMS, CONT, etc.)
+	 * @param nodeLabel The node label (aka function name) to check against.
+	 * @return true if there is a match, false otherwise.
 	 */
-	private String getModulePrefixFromNodeLabel(String nodeLabel) {
-		String modulePrefix = "";
-		if (nodeLabel.indexOf('_') == -1)
-			modulePrefix = "RTOS";
-		else
-			modulePrefix = nodeLabel.substring(0, nodeLabel.indexOf('_'));
-		return modulePrefix.toUpperCase();
+	private boolean existsInNodeList(String nodeLabel) {
+		return nodesByLabel.containsKey(nodeLabel);
 	}
 
 	/**
-	 * Determines if a function is public or private based on the function name's
-	 * capitalization.
+	 * Scans the "global" list of modules to find a Module object matching with a
+	 * matching module prefix.
 	 *
-	 * If there is no module prefix (no '_' char) then it is an RTOS function and
-	 * therefore public.
+	 * @param modulePrefix Specific module prefix to search for (e.g. ADC, BAL,
+	 *                     etc.).
+	 * @return Module object with the matching module prefix, null if one doesn't
+	 *         exist.
+	 */
+	private Module getModuleFromModulePrefix(String modulePrefix) {
+		Module module = null;
+
+		for (Module m : modules)
+			if (m.getModulePrefix().equals(modulePrefix))
+				module = m;
+
+		return module;
+	}
+
+	/**
+	 * Adds a file read by another Parser (see PipelinedParser) to the global
+	 * context, as if this Parser had read it.
 	 *
-	 * @param nodeLabel the label of the node, in the form MOD_FunctionName
-	 * @return True if the function is public, False if private, based on
-	 *         capitalization of the function name in nodeLabel
+	 * @param graph        Nodes and edges of the file, null if it was skipped.
+	 * @param fileErrors   Problems found in the file.
+	 * @param skippedFiles The file's name if it was skipped, otherwise empty.
 	 */
-	private Boolean getIsPublicFromNodeLabel(String nodeLabel) {
-		String functionName = "";
+	void mergeFile(FileGraph graph, List<ParseError> fileErrors, List<String> skippedFiles) {
+		this.errors.addAll(fileErrors);
+		this.skippedFiles.addAll(skippedFiles);
+		if (graph != null)
+			merge(graph);
+	}
 
-		if (nodeLabel.indexOf('_') != -1 && nodeLabel.charAt(0) != '_') {
-			functionName = nodeLabel.substring(1, nodeLabel.indexOf('_'));
-		} else {
-			return true;
-		}
+	/**
+	 * @return The problems found since the last call, which are removed from
+	 *         this Parser.
+	 */
+	List<ParseError> takeErrors() {
+		List<ParseError> taken = new ArrayList<ParseError>(errors);
+		errors.clear();
+		return taken;
+	}
 
-		char[] charArray = functionName.toCharArray();
+	/**
+	 * @return The files skipped since the last call, which are removed from this
+	 *         Parser.
+	 */
+	List<String> takeSkippedFiles() {
+		List<String> taken = new ArrayList<String>(skippedFiles);
+		skippedFiles.clear();
+		return taken;
+	}
 
-		if (Character.isLowerCase(charArray[0])) {
-			return false;
-		} else {
-			return true;
+	/**
+	 * Nodes and edges read from a single file, before they are added to the
+	 * global context.
+	 */
+	static class FileGraph {
+		final ArrayList<Node> nodes;
+		final ArrayList<Edge> edges;
+
+		FileGraph(ArrayList<Node> nodes, ArrayList<Edge> edges) {
+			this.nodes = nodes;
+			this.edges = edges;
 		}
 	}
 
+	/* Setters and Getters */
+
 	/**
-	 * Determines source node from an edge_stmt. edge_stmts always take the form src
-	 * -&gt; dest (whitespace is omitted by the Lexer).
-	 *
-	 * @param valueString The value of a Lexer created Token which has a TokenType
-	 *                    of edge_stmt
-	 * @return node_id of the source node in the edge_stmt
+	 * @return Problems found in the files parsed so far, in the order they were
+	 *         found.
 	 */
-	private String getSourceNodeIdFromString(String valueString) {
-		return valueString.substring(0, valueString.indexOf('-'));
+	public ArrayList<ParseError> getErrors() {
+		return errors;
 	}
 
 	/**
-	 * Determines the destination node from an edge_stmt. edge_stmts always take the
-	 * form src -&gt; dest (whitespace omitted by the Lexer).
-	 *
-	 * @param valueString The value of a Lexer created Token which has a TokenType
-	 *                    of edge_stmt
-	 * @return node_id of the destination node in the edge_stmt
+	 * @return Names of the files skipped because of errors (fault tolerant mode
+	 *         only).
 	 */
-	private String getDestinationNodeIdFromString(String valueString) {
-		return valueString.substring(valueString.indexOf('>') + 1, valueString.indexOf('['));
+	public ArrayList<String> getSkippedFiles() {
+		return skippedFiles;
 	}
 
 	/**
-	 * Simple search function to find a node that matches a specific ID (nodeId) in
-	 * a list. Both the list and ID need to passed to this function, however, it
-	 * works for both source and destination nodes.
-	 *
-	 * @param nodeCollection ArrayList of nodes to search through.
-	 * @param nodeId         Specific ID to match.
-	 * @return The node with a matching ID.
-	 * @throws NullPointerException If a node with a matching ID cannot be found,
-	 *                              then a NullPointerException is thrown.
+	 * @return The global edges as node indexes (see Node.getIndex) if they are
+	 *         kept off the heap, null otherwise.
 	 */
-	private Node getNodeObjectFromId(ArrayList<Node> nodeCollection, String nodeId) throws NullPointerException {
-		Node output = null;
-		for (Node node : nodeCollection)
-			if (node.getNodeId().equals(nodeId))
-				output = node;
+	public OffHeapEdgeSet getOffHeapEdges() {
+		return offHeapEdges;
+	}
 
-		if (output == null)
-			throw new NullPointerException("Could not find node: " + nodeId);
+	/**
+	 * Keeps the global edges in an OffHeapEdgeSet instead of on the heap, or back
+	 * on the heap. Edges added so far are moved.
+	 *
+	 * @param offHeap True to keep the edges off the heap.
+	 */
+	public void setOffHeapEdges(boolean offHeap) {
+		ArrayList<Edge> current = getEdges();
+
+		if (offHeap) {
+			offHeapEdges = new OffHeapEdgeSet(Math.max(1024, current.size()));
+			for (Edge edge : current)
+				offHeapEdges.add(edge.getSourceNodeObject().getIndex(), edge.getDestinationNodeObject().getIndex());
+			edgeKeys.clear();
+		} else {
+			offHeapEdges = null;
+			edgeKeys.clear();
+			for (Edge edge : current)
+				edgeKeys.add(getEdgeKey(edge.getSourceNodeObject(), edge.getDestinationNodeObject()));
+		}
 
-		return output;
+		edges = current;
 	}
 
 	/**
-	 * Helper function to scan the "global" list of nodes and check if there is a
-	 * duplicate of the given node label.
+	 * Records every call between two functions, including calls within a module
+	 * that are left out of the module graph (see getCalls). Should be called
+	 * before parsing.
 	 *
-	 * @param nodeLabel The node label (aka function name) to check against.
-	 * @return true if there is a match, false otherwise.
+	 * @param recordCalls True to record calls.
 	 */
-	private boolean existsInNodeList(String nodeLabel) {
-		for (Node node : nodes)
-			if (node.getNodeLabel().equals(nodeLabel))
-				return true;
-		return false;
+	public void setRecordCalls(boolean recordCalls) {
+		this.calls = recordCalls ? new ArrayList<Edge>() : null;
+		this.callKeys = recordCalls ? new HashSet<String>() : null;
+	}
+
+	public boolean isRecordingCalls() {
+		return calls != null;
 	}
 
 	/**
-	 * Scans the "global" list of modules to find a Module object matching with a
-	 * matching module prefix.
-	 *
-	 * @param modulePrefix Specific module prefix to search for (e.g. ADC, BAL,
-	 *                     etc.).
-	 * @return Module object with the matching module prefix, null if one doesn't
-	 *         exist.
+	 * @return Every distinct call between two global nodes in the order they
+	 *         were found, or null if calls are not recorded.
 	 */
-	private Module getModuleFromModulePrefix(String modulePrefix) {
-		Module module = null;
+	public ArrayList<Edge> getCalls() {
+		return calls;
+	}
 
-		for (Module m : modules)
-			if (m.getModulePrefix().equals(modulePrefix))
-				module = m;
+	public boolean isKeepGoing() {
+		return keepGoing;
+	}
 
-		return module;
+	/**
+	 * Switches fault tolerant mode on or off (see parseSourceFiles).
+	 *
+	 * @param keepGoing True to skip files with errors.
+	 */
+	public void setKeepGoing(boolean keepGoing) {
+		this.keepGoing = keepGoing;
 	}
 
-	/* Setters and Getters */
+	public ModuleStrategy getModuleStrategy() {
+		return moduleStrategy.getStrategy();
+	}
+
+	/**
+	 * Changes how nodes are assigned to modules. Should be called before parsing.
+	 *
+	 * @param moduleStrategy Strategy to use for every node parsed afterwards.
+	 */
+	public void setModuleStrategy(ModuleStrategy moduleStrategy) {
+		this.moduleStrategy = new CachingModuleStrategy(moduleStrategy);
+	}
 
 	public ArrayList<Node> getNodes() {
 		return nodes;
 	}
 
+	/**
+	 * @return The global edges. If they are kept off the heap, Edge objects are
+	 *         created for them on the first call after a change; use
+	 *         getOffHeapEdges to traverse them without creating objects.
+	 */
 	public ArrayList<Edge> getEdges() {
+		if (edges == null) {
+			edges = new ArrayList<Edge>(offHeapEdges.size());
+			for (int i = 0; i < offHeapEdges.size(); i++) {
+				Node src = nodes.get(offHeapEdges.getSource(i));
+				Node dst = nodes.get(offHeapEdges.getDestination(i));
+				Edge edge = new Edge();
+				edge.setSourceNodeId(src.getNodeId());
+				edge.setSourceNodeObject(src);
+				edge.setDestinationNodeId(dst.getNodeId());
+				edge.setDestinationNodeObject(dst);
+				edges.add(edge);
+			}
+		}
+
 		return edges;
 	}
 
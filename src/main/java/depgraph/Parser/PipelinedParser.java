@@ -0,0 +1,237 @@
+package depgraph.Parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+/**
+ * Builds the global graph of a Parser with reading, parsing and merging running
+ * at the same time, so the disk is busy while files are parsed and the CPU is
+ * busy while files are read.
+ *
+ * The stages are connected by bounded queues:
+ *
+ * <pre>
+ * reader (1 thread) -&gt; parse workers (n threads) -&gt; merge (calling thread)
+ * </pre>
+ *
+ * The reader loads the inputs in order, the workers parse files into nodes and
+ * edges on their own Parsers (module strategy caches are not thread-safe) and
+ * the merge stage adds them to the global context in input order, so the result
+ * is the same graph, with the same errors, as Parser.parseSourceFiles would
+ * build. A fixed number of files may be in flight between the reader and the
+ * merge stage; when the merge stage falls behind, the reader blocks.
+ *
+ * Writing and rendering need the complete graph and run after the pipeline.
+ */
+public class PipelinedParser {
+
+	private static Logger logger;
+
+	/**
+	 * Loads the files of one input, called from the reader stage only.
+	 */
+	public interface FileLoader {
+		/**
+		 * @param path Path of an input (e.g. a DOT file or an archive).
+		 * @return Files of the input to parse, in order. May be empty.
+		 * @throws Exception If the input can not be read.
+		 */
+		List<SourceFile> load(String path) throws Exception;
+	}
+
+	private Parser parser;
+
+	private int parseThreads;
+
+	/**
+	 * Maximum number of files read but not merged yet.
+	 */
+	private int filesInFlight;
+
+	/**
+	 * @param parser       Parser whose global graph is built. Its module strategy
+	 *                     and fault tolerant mode are used by every worker.
+	 * @param parseThreads Number of parse workers.
+	 */
+	public PipelinedParser(Parser parser, int parseThreads) {
+		this(parser, parseThreads, 16 * parseThreads);
+	}
+
+	/**
+	 * @param parser        Parser whose global graph is built.
+	 * @param parseThreads  Number of parse workers.
+	 * @param filesInFlight Maximum number of files read but not merged yet.
+	 */
+	public PipelinedParser(Parser parser, int parseThreads, int filesInFlight) {
+		logger = Logger.getLogger("depgraph");
+		this.parser = parser;
+		this.parseThreads = parseThreads;
+		this.filesInFlight = Math.max(filesInFlight, parseThreads);
+	}
+
+	/**
+	 * Reads, parses and merges every input, then groups the nodes into modules.
+	 *
+	 * @param paths  Inputs, in the order their files are merged.
+	 * @param loader Reads the files of an input.
+	 * @throws Exception If an input can not be read, or a file can not be parsed
+	 *                   outside of fault tolerant mode.
+	 */
+	public void parse(List<String> paths, FileLoader loader) throws Exception {
+		BlockingQueue<Item> readQueue = new ArrayBlockingQueue<Item>(filesInFlight);
+		BlockingQueue<Item> parsedQueue = new ArrayBlockingQueue<Item>(filesInFlight);
+		Semaphore inFlight = new Semaphore(filesInFlight);
+		ExecutorService executor = Executors.newFixedThreadPool(parseThreads + 1);
+
+		try {
+			executor.submit(() -> read(paths, loader, readQueue, parsedQueue, inFlight));
+			for (int i = 0; i < parseThreads; i++)
+				executor.submit(() -> parseFiles(readQueue, parsedQueue));
+
+			merge(parsedQueue, inFlight);
+		} finally {
+			// Stops the other stages if the merge stage gave up early
+			executor.shutdownNow();
+		}
+
+		parser.groupModules();
+	}
+
+	/**
+	 * Reader stage. Queues every file with its position in the input, then one
+	 * end marker per worker.
+	 */
+	private void read(List<String> paths, FileLoader loader, BlockingQueue<Item> readQueue,
+			BlockingQueue<Item> parsedQueue, Semaphore inFlight) {
+		long position = 0;
+
+		try {
+			for (String path : paths) {
+				for (SourceFile file : loader.load(path)) {
+					inFlight.acquire();
+					readQueue.put(new Item(position++, file));
+				}
+			}
+
+			for (int i = 0; i < parseThreads; i++)
+				readQueue.put(Item.END);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (Exception | Error ex) {
+			putQuietly(parsedQueue, Item.failed(ex));
+		}
+	}
+
+	/**
+	 * Parse stage. Every worker has its own Parser, whose errors are handed to
+	 * the merge stage with the file. A worker that dies (even with an Error such
+	 * as OutOfMemoryError) hands the failure to the merge stage, which would
+	 * otherwise wait for its end marker forever.
+	 */
+	private void parseFiles(BlockingQueue<Item> readQueue, BlockingQueue<Item> parsedQueue) {
+		Parser worker = new Parser();
+		worker.setModuleStrategy(parser.getModuleStrategy());
+		worker.setKeepGoing(parser.isKeepGoing());
+
+		try {
+			while (true) {
+				Item item = readQueue.take();
+				if (item == Item.END) {
+					parsedQueue.put(Item.END);
+					return;
+				}
+
+				item.graph = worker.readFile(item.file);
+				item.errors = worker.takeErrors();
+				item.skippedFiles = worker.takeSkippedFiles();
+				item.file = null;
+				parsedQueue.put(item);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException | Error ex) {
+			putQuietly(parsedQueue, Item.failed(ex));
+		}
+	}
+
+	/**
+	 * Merge stage. Files finish parsing out of order; they are held until every
+	 * earlier file was merged.
+	 */
+	private void merge(BlockingQueue<Item> parsedQueue, Semaphore inFlight) throws Exception {
+		HashMap<Long, Item> waiting = new HashMap<Long, Item>();
+		long next = 0;
+		int finishedWorkers = 0;
+
+		while (finishedWorkers < parseThreads) {
+			Item item = parsedQueue.take();
+
+			if (item.failure instanceof Error)
+				throw (Error) item.failure;
+			if (item.failure != null)
+				throw (Exception) item.failure;
+			if (item == Item.END) {
+				finishedWorkers++;
+				continue;
+			}
+
+			waiting.put(item.position, item);
+			while (waiting.containsKey(next)) {
+				Item ready = waiting.remove(next++);
+				parser.mergeFile(ready.graph, ready.errors, ready.skippedFiles);
+				inFlight.release();
+			}
+		}
+
+		logger.info(String.format("Merged %d file(s) with %d parse thread(s)", next, parseThreads));
+	}
+
+	private static void putQuietly(BlockingQueue<Item> queue, Item item) {
+		try {
+			queue.put(item);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A file on its way through the pipeline.
+	 */
+	private static class Item {
+
+		private static final Item END = new Item(-1, null);
+
+		private final long position;
+
+		private SourceFile file;
+
+		private Parser.FileGraph graph;
+
+		private List<ParseError> errors = new ArrayList<ParseError>();
+
+		private List<String> skippedFiles = new ArrayList<String>();
+
+		/**
+		 * Exception or Error that stopped the stage which queued this item.
+		 */
+		private Throwable failure;
+
+		private Item(long position, SourceFile file) {
+			this.position = position;
+			this.file = file;
+		}
+
+		private static Item failed(Throwable failure) {
+			Item item = new Item(-1, null);
+			item.failure = failure;
+			return item;
+		}
+	}
+}
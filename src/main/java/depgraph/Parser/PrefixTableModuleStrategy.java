@@ -0,0 +1,95 @@
+package depgraph.Parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps function name prefixes to modules with a table, so that several naming
+ * prefixes can be modelled as one module (e.g. CANS and CAN both in CAN) or
+ * one prefix can be split. The longest prefix that matches the start of the
+ * function name (ignoring case) wins. Names without a matching prefix fall back
+ * to the DefaultModuleStrategy.
+ *
+ * A table file has one "&lt;prefix&gt; &lt;module&gt;" pair per line. Empty
+ * lines and lines starting with '#' are ignored.
+ */
+public class PrefixTableModuleStrategy implements ModuleStrategy {
+
+	/**
+	 * Upper-cased prefix to module.
+	 */
+	private HashMap<String, String> table;
+
+	/**
+	 * Length of the longest prefix in the table. Limits the number of lookups
+	 * per name.
+	 */
+	private int longestPrefix;
+
+	private DefaultModuleStrategy fallback;
+
+	/**
+	 * @param prefixes Prefix to module.
+	 */
+	public PrefixTableModuleStrategy(Map<String, String> prefixes) {
+		table = new HashMap<String, String>();
+		longestPrefix = 0;
+		fallback = new DefaultModuleStrategy();
+
+		for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+			table.put(entry.getKey().toUpperCase(), entry.getValue());
+			longestPrefix = Math.max(longestPrefix, entry.getKey().length());
+		}
+	}
+
+	/**
+	 * Loads a table file.
+	 *
+	 * @param filePath Path to the table.
+	 * @return The strategy.
+	 * @throws Exception If the file can not be read or a line is malformed.
+	 */
+	public static PrefixTableModuleStrategy fromFile(String filePath) throws Exception {
+		HashMap<String, String> prefixes = new HashMap<String, String>();
+		BufferedReader reader = new BufferedReader(new FileReader(new File(filePath)));
+		String line;
+
+		try {
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] pair = line.split("\\s+");
+				if (pair.length != 2)
+					throw new Exception("Invalid module table line: " + line);
+				prefixes.put(pair[0], pair[1]);
+			}
+		} finally {
+			reader.close();
+		}
+
+		return new PrefixTableModuleStrategy(prefixes);
+	}
+
+	@Override
+	public String getModulePrefix(String nodeLabel, String url) {
+		String upper = nodeLabel.toUpperCase();
+
+		for (int length = Math.min(longestPrefix, upper.length()); length > 0; length--) {
+			String module = table.get(upper.substring(0, length));
+			if (module != null)
+				return module;
+		}
+
+		return fallback.getModulePrefix(nodeLabel, url);
+	}
+
+	@Override
+	public boolean isPublic(String nodeLabel) {
+		return fallback.isPublic(nodeLabel);
+	}
+}
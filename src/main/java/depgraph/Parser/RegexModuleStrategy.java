@@ -0,0 +1,43 @@
+package depgraph.Parser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches a precompiled regular expression against the function name and uses
+ * the first capture group (or the whole match if the pattern has no groups),
+ * upper-cased, as the module prefix. Names that do not match fall back to the
+ * DefaultModuleStrategy.
+ *
+ * Example: ^([A-Za-z]+?)(?:_cfg)?_ puts CANS_Init and cans_cfg_Init in CANS.
+ */
+public class RegexModuleStrategy implements ModuleStrategy {
+
+	private Pattern pattern;
+
+	private DefaultModuleStrategy fallback;
+
+	/**
+	 * @param pattern Compiled pattern, matched with Matcher.find.
+	 */
+	public RegexModuleStrategy(Pattern pattern) {
+		this.pattern = pattern;
+		this.fallback = new DefaultModuleStrategy();
+	}
+
+	@Override
+	public String getModulePrefix(String nodeLabel, String url) {
+		Matcher matcher = pattern.matcher(nodeLabel);
+
+		if (!matcher.find())
+			return fallback.getModulePrefix(nodeLabel, url);
+
+		String module = matcher.groupCount() > 0 && matcher.group(1) != null ? matcher.group(1) : matcher.group();
+		return module.isEmpty() ? fallback.getModulePrefix(nodeLabel, url) : module.toUpperCase();
+	}
+
+	@Override
+	public boolean isPublic(String nodeLabel) {
+		return fallback.isPublic(nodeLabel);
+	}
+}
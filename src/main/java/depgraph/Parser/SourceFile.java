@@ -0,0 +1,34 @@
+package depgraph.Parser;
+
+/**
+ * Contents of one input file together with its name, so errors found while
+ * parsing it can be reported against the file.
+ */
+public final class SourceFile {
+
+	/**
+	 * Path of the file as given to the Reader.
+	 */
+	private final String name;
+
+	private final String contents;
+
+	/**
+	 * @param name     Path of the file as given to the Reader.
+	 * @param contents Contents of the file.
+	 */
+	public SourceFile(String name, String contents) {
+		this.name = name;
+		this.contents = contents;
+	}
+
+	/* Getters */
+
+	public String getName() {
+		return name;
+	}
+
+	public String getContents() {
+		return contents;
+	}
+}
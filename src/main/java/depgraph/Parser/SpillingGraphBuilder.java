@@ -0,0 +1,378 @@
+package depgraph.Parser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Builds the global graph of a Parser from any number of files with a bounded
+ * amount of memory, for corpora too large to hold every file and every
+ * function-level edge on the heap.
+ *
+ * Files are added one at a time. The nodes and edges read from each file are
+ * turned into text records and buffered; whenever the buffers exceed the
+ * memory budget they are sorted, deduplicated and written to a run file on
+ * disk. finish merges all runs (external merge sort), keeping the first
+ * occurrence of every function and every call, and adds the result to the
+ * Parser. Only the final module graph (one node per function, one edge per
+ * distinct call between modules) is ever held on the heap as a whole.
+ *
+ * The run files are deleted by finish, or by close if the graph is not
+ * finished (e.g. because a file could not be read), so the builder is best
+ * used in a try-with-resources statement.
+ *
+ * The resulting graph is the same one Parser.parseSourceFiles would build from
+ * the same files in the same order: a function keeps the module and flags of
+ * its first occurrence, and nodes and edges keep the order of their first
+ * occurrence.
+ */
+public class SpillingGraphBuilder implements AutoCloseable {
+
+	private static Logger logger;
+
+	/**
+	 * Estimated overhead of a buffered record on the heap, besides its
+	 * characters.
+	 */
+	private static final int RECORD_OVERHEAD = 64;
+
+	private Parser parser;
+
+	/**
+	 * Maximum estimated size of the buffered records, in bytes.
+	 */
+	private long memoryBudget;
+
+	/**
+	 * Directory holding the run files, deleted by finish or close.
+	 */
+	private Path spillDirectory;
+
+	/**
+	 * Node records: label, order, module, isRoot, isPublic.
+	 */
+	private ArrayList<String> nodeBuffer;
+
+	/**
+	 * Edge records: source label, destination label, order.
+	 */
+	private ArrayList<String> edgeBuffer;
+
+	private long bufferedBytes;
+
+	private ArrayList<Path> nodeRuns;
+
+	private ArrayList<Path> edgeRuns;
+
+	/**
+	 * Number of times the buffers were written to disk.
+	 */
+	private int spillCount;
+
+	/**
+	 * Number of files added so far, the first part of the order of a record.
+	 */
+	private int fileCount;
+
+	/**
+	 * @param parser       Parser whose global graph is built. Its module strategy
+	 *                     and fault tolerant mode are used for every file.
+	 * @param memoryBudget Maximum estimated size of the buffered records, in
+	 *                     bytes.
+	 * @throws IOException If the directory for the run files can not be
+	 *                     created.
+	 */
+	public SpillingGraphBuilder(Parser parser, long memoryBudget) throws IOException {
+		logger = Logger.getLogger("depgraph");
+		this.parser = parser;
+		this.memoryBudget = memoryBudget;
+		this.spillDirectory = Files.createTempDirectory("depgraph-spill");
+		this.nodeBuffer = new ArrayList<String>();
+		this.edgeBuffer = new ArrayList<String>();
+		this.bufferedBytes = 0;
+		this.nodeRuns = new ArrayList<Path>();
+		this.edgeRuns = new ArrayList<Path>();
+		this.fileCount = 0;
+		this.spillCount = 0;
+	}
+
+	/**
+	 * Reads a file and buffers its nodes and edges, spilling the buffers to disk
+	 * if they exceed the memory budget. The file's contents can be dropped once
+	 * this returns.
+	 *
+	 * @param file A single DOT file.
+	 * @throws IOException If a run file can not be written.
+	 */
+	public void add(SourceFile file) throws IOException {
+		Parser.FileGraph graph = parser.readFile(file);
+		int fileIndex = fileCount++;
+
+		if (graph == null)
+			return;
+
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node node = graph.nodes.get(i);
+			buffer(nodeBuffer, String.join("\t", escape(node.getNodeLabel()), getOrder(fileIndex, i),
+					escape(node.getModulePrefix()), node.isRoot() ? "1" : "0", node.isPublic() ? "1" : "0"));
+		}
+
+		for (int i = 0; i < graph.edges.size(); i++) {
+			Edge edge = graph.edges.get(i);
+			buffer(edgeBuffer, String.join("\t", escape(edge.getSourceNodeObject().getNodeLabel()),
+					escape(edge.getDestinationNodeObject().getNodeLabel()), getOrder(fileIndex, i)));
+		}
+
+		if (bufferedBytes > memoryBudget)
+			spill();
+	}
+
+	/**
+	 * Merges the run files and adds the final nodes, edges and modules to the
+	 * Parser. The run files are deleted afterwards.
+	 *
+	 * @throws IOException If a run file can not be read.
+	 */
+	public void finish() throws IOException {
+		try {
+			spill();
+			logger.fine(String.format("Merging %d node and %d edge run(s)...", nodeRuns.size(), edgeRuns.size()));
+
+			List<String[]> nodeRecords = new ArrayList<String[]>();
+			mergeRuns(nodeRuns, 1, nodeRecords::add);
+			nodeRecords.sort(Comparator.comparing((String[] record) -> record[1]));
+			HashMap<String, String> modules = new HashMap<String, String>();
+			for (String[] record : nodeRecords) {
+				Node node = parser.addNode(unescape(record[0]), unescape(record[2]), record[3].equals("1"),
+						record[4].equals("1"));
+				modules.put(node.getNodeLabel(), node.getModulePrefix());
+			}
+			nodeRecords = null;
+
+			// Calls within a module are dropped before the rest is sorted in memory,
+			// unless the Parser records every call
+			List<String[]> edgeRecords = new ArrayList<String[]>();
+			mergeRuns(edgeRuns, 2, record -> {
+				if (parser.isRecordingCalls()
+						|| !modules.get(unescape(record[0])).equalsIgnoreCase(modules.get(unescape(record[1]))))
+					edgeRecords.add(record);
+			});
+			edgeRecords.sort(Comparator.comparing((String[] record) -> record[2]));
+			for (String[] record : edgeRecords)
+				parser.addCall(unescape(record[0]), unescape(record[1]));
+
+			parser.groupModules();
+		} finally {
+			deleteRuns();
+		}
+	}
+
+	/**
+	 * Deletes the run files and their directory. Does nothing if finish already
+	 * did.
+	 *
+	 * @throws IOException If the run files can not be deleted.
+	 */
+	@Override
+	public void close() throws IOException {
+		deleteRuns();
+	}
+
+	private void buffer(ArrayList<String> buffer, String record) {
+		buffer.add(record);
+		bufferedBytes += 2L * record.length() + RECORD_OVERHEAD;
+	}
+
+	/**
+	 * Sorts, deduplicates and writes both buffers to new run files.
+	 */
+	private void spill() throws IOException {
+		if (nodeBuffer.isEmpty() && edgeBuffer.isEmpty())
+			return;
+
+		spillCount++;
+		if (!nodeBuffer.isEmpty())
+			nodeRuns.add(writeRun(nodeBuffer, 1));
+		if (!edgeBuffer.isEmpty())
+			edgeRuns.add(writeRun(edgeBuffer, 2));
+
+		nodeBuffer.clear();
+		edgeBuffer.clear();
+		bufferedBytes = 0;
+	}
+
+	/**
+	 * Writes the first record of every key in a buffer to a run file, sorted.
+	 * Records sort by key first and order second, so the first record of a key
+	 * is its first occurrence.
+	 *
+	 * @param buffer    Records to write.
+	 * @param keyFields Number of leading fields forming the key.
+	 * @return Path of the run file.
+	 */
+	private Path writeRun(ArrayList<String> buffer, int keyFields) throws IOException {
+		Collections.sort(buffer);
+		Path run = Files.createTempFile(spillDirectory, "run", ".txt");
+		String lastKey = null;
+
+		try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+			for (String record : buffer) {
+				String key = getKey(record, keyFields);
+				if (key.equals(lastKey))
+					continue;
+				writer.write(record);
+				writer.write('\n');
+				lastKey = key;
+			}
+		}
+
+		return run;
+	}
+
+	/**
+	 * Merges sorted run files, keeping the first record of every key.
+	 *
+	 * @param runs      Run files to merge.
+	 * @param keyFields Number of leading fields forming the key.
+	 * @param consumer  Receives the fields of every remaining record, in key
+	 *                  order.
+	 */
+	private void mergeRuns(List<Path> runs, int keyFields, Consumer<String[]> consumer) throws IOException {
+		PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(Math.max(1, runs.size()),
+				Comparator.comparing((RunReader reader) -> reader.current));
+		List<RunReader> readers = new ArrayList<RunReader>();
+
+		try {
+			for (Path run : runs) {
+				RunReader reader = new RunReader(Files.newBufferedReader(run, StandardCharsets.UTF_8));
+				readers.add(reader);
+				if (reader.advance())
+					queue.add(reader);
+			}
+
+			String lastKey = null;
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				String key = getKey(reader.current, keyFields);
+
+				if (!key.equals(lastKey)) {
+					consumer.accept(reader.current.split("\t", -1));
+					lastKey = key;
+				}
+
+				if (reader.advance())
+					queue.add(reader);
+			}
+		} finally {
+			for (RunReader reader : readers)
+				reader.reader.close();
+		}
+	}
+
+	private void deleteRuns() throws IOException {
+		for (Path run : nodeRuns)
+			Files.deleteIfExists(run);
+		for (Path run : edgeRuns)
+			Files.deleteIfExists(run);
+		nodeRuns.clear();
+		edgeRuns.clear();
+
+		File[] leftovers = spillDirectory.toFile().listFiles();
+		if (leftovers != null)
+			for (File leftover : leftovers)
+				leftover.delete();
+		Files.deleteIfExists(spillDirectory);
+	}
+
+	/**
+	 * @param record    A node or edge record.
+	 * @param keyFields Number of leading fields forming the key.
+	 * @return The key of the record, including the separator after it.
+	 */
+	private static String getKey(String record, int keyFields) {
+		int end = -1;
+		for (int i = 0; i < keyFields; i++)
+			end = record.indexOf('\t', end + 1);
+		return record.substring(0, end + 1);
+	}
+
+	/**
+	 * @return Fixed width text that sorts like (fileIndex, position).
+	 */
+	private static String getOrder(int fileIndex, int position) {
+		return String.format("%010d%010d", fileIndex, position);
+	}
+
+	/**
+	 * Escapes the characters used by the record format, so labels can not break
+	 * a record apart.
+	 */
+	static String escape(String value) {
+		if (value.indexOf('\\') == -1 && value.indexOf('\t') == -1 && value.indexOf('\n') == -1)
+			return value;
+		return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+	}
+
+	static String unescape(String value) {
+		if (value.indexOf('\\') == -1)
+			return value;
+
+		StringBuilder result = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				char next = value.charAt(++i);
+				result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Reads the records of a run file one at a time.
+	 */
+	private static class RunReader {
+		private BufferedReader reader;
+		private String current;
+
+		private RunReader(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		private boolean advance() throws IOException {
+			current = reader.readLine();
+			return current != null;
+		}
+	}
+
+	/* Setters and Getters */
+
+	/**
+	 * @return Number of times the buffered records were written to disk,
+	 *         including the final write in finish.
+	 */
+	public int getSpillCount() {
+		return spillCount;
+	}
+
+	/**
+	 * @return Directory holding the run files.
+	 */
+	public Path getSpillDirectory() {
+		return spillDirectory;
+	}
+}
@@ -0,0 +1,114 @@
+package depgraph.Parser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Uses the source file that Doxygen links a function to as its module. The
+ * URL attribute of a node in a Doxygen call graph names the HTML page of the
+ * file the function is documented in, with the file name escaped (e.g.
+ * $bal_8c.html#a1e9d... for bal.c, $cansignal__cfg_8c.html#... for
+ * cansignal_cfg.c). The file name without extension, upper-cased, is the
+ * module prefix (BAL, CANSIGNAL_CFG).
+ *
+ * The root node of a graph has no URL. The Parser gives it the URL of the
+ * page named by the graph's file name instead (see getUrlFromGraphFileName),
+ * so a function is put in the same module whether its own graph or a graph
+ * calling it is read first.
+ *
+ * Nodes without a URL and URLs that do not name a source file fall back to the
+ * DefaultModuleStrategy. Visibility is always taken from the
+ * DefaultModuleStrategy.
+ */
+public class UrlModuleStrategy implements ModuleStrategy {
+
+	/**
+	 * Name of a Doxygen call or caller graph file: the escaped page name, the
+	 * anchor of the function and the graph type (e.g.
+	 * cansignal_8c_a1e9d..._cgraph.dot).
+	 */
+	private static final Pattern GRAPH_FILE_NAME = Pattern.compile("^(.+)_a[0-9a-f]+_i?cgraph\\.dot(?:\\.gz)?$");
+
+	private DefaultModuleStrategy fallback;
+
+	public UrlModuleStrategy() {
+		fallback = new DefaultModuleStrategy();
+	}
+
+	@Override
+	public String getModulePrefix(String nodeLabel, String url) {
+		String fileName = getFileNameFromUrl(url);
+
+		if (fileName == null)
+			return fallback.getModulePrefix(nodeLabel, url);
+
+		int extension = fileName.lastIndexOf('.');
+		return (extension > 0 ? fileName.substring(0, extension) : fileName).toUpperCase();
+	}
+
+	@Override
+	public boolean isPublic(String nodeLabel) {
+		return fallback.isPublic(nodeLabel);
+	}
+
+	/**
+	 * Reverses Doxygen's file name escaping in a URL attribute ("_8" is '.', "__"
+	 * is '_'). Only source files (pages whose name contains an escaped '.') are
+	 * accepted; group and class pages return null.
+	 *
+	 * @param url Value of the URL attribute, may be null.
+	 * @return Name of the source file, or null if the URL does not name one.
+	 */
+	static String getFileNameFromUrl(String url) {
+		if (url == null)
+			return null;
+
+		int start = url.startsWith("$") ? 1 : 0;
+		int end = url.indexOf(".html");
+		if (end == -1)
+			end = url.indexOf('#') == -1 ? url.length() : url.indexOf('#');
+
+		String page = url.substring(start, end);
+		if (page.indexOf("_8") == -1)
+			return null;
+
+		StringBuilder fileName = new StringBuilder(page.length());
+		for (int i = 0; i < page.length(); i++) {
+			char c = page.charAt(i);
+			if (c == '_' && i + 1 < page.length()) {
+				char next = page.charAt(i + 1);
+				if (next == '_') {
+					fileName.append('_');
+					i++;
+					continue;
+				} else if (next == '8') {
+					fileName.append('.');
+					i++;
+					continue;
+				}
+			}
+			fileName.append(c);
+		}
+
+		return fileName.toString();
+	}
+
+	/**
+	 * Derives the URL of the root node of a Doxygen graph from the file name of
+	 * the graph.
+	 *
+	 * @param fileName Name or path of a DOT file (e.g.
+	 *                 html/cansignal_8c_a1e9d..._cgraph.dot).
+	 * @return URL of the page the root function is documented on (e.g.
+	 *         $cansignal_8c.html), or null if the file name does not follow
+	 *         Doxygen's naming.
+	 */
+	static String getUrlFromGraphFileName(String fileName) {
+		if (fileName == null)
+			return null;
+
+		String baseName = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+		Matcher matcher = GRAPH_FILE_NAME.matcher(baseName);
+		return matcher.matches() ? "$" + matcher.group(1) + ".html" : null;
+	}
+}
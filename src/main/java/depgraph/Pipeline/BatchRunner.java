@@ -0,0 +1,144 @@
+package depgraph.Pipeline;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import depgraph.Configurator.FilterExpression;
+import depgraph.GraphWriter.GraphWriter;
+
+/**
+ * Produces many filtered views of the same input in one run. The input is read
+ * and parsed only once; every view is then filtered from the shared (immutable)
+ * GraphResult, written and rendered on its own virtual thread, including the
+ * wait on the dot subprocess.
+ *
+ * A batch manifest contains one view per line, of the form:
+ *
+ * <pre>
+ * &lt;output file&gt; {module [, module]} =&gt; {module [, module]}
+ * </pre>
+ *
+ * Empty lines and lines starting with '#' are ignored. Views that are rendered
+ * by dot must not share a base name (e.g. bms.pdf and bms.svg), since the
+ * intermediate DOT file of each view is named after it and the views run at
+ * the same time.
+ */
+public class BatchRunner {
+
+	private static Logger logger;
+
+	/**
+	 * Pipeline used to parse the input and write the views.
+	 */
+	private DependencyGraphPipeline pipeline;
+
+	/**
+	 * @param pipeline Pipeline configured with the inputs and templates of the
+	 *                 batch. Its filters and outputs are ignored.
+	 */
+	public BatchRunner(DependencyGraphPipeline pipeline) {
+		this.pipeline = pipeline;
+		logger = Logger.getLogger("depgraph");
+	}
+
+	/**
+	 * Reads the manifest, parses the input once and produces every view
+	 * concurrently. A view that fails does not stop the others.
+	 *
+	 * @param manifestPath Path to the batch manifest.
+	 * @return Number of views that could not be produced.
+	 * @throws Exception If the manifest or the input can not be read.
+	 */
+	public int run(String manifestPath) throws Exception {
+		List<String[]> views = readManifest(manifestPath);
+		GraphResult graph = pipeline.parse();
+		ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		int failures = 0;
+
+		logger.info(String.format("Producing %d views from %s", views.size(), graph));
+
+		try {
+			for (String[] view : views) {
+				String output = view[0];
+				FilterExpression filter = FilterExpression.parse(view[1]);
+				futures.add(executor.submit(() -> {
+					pipeline.writeOutput(graph.filter(filter.getSourceModules(), filter.getDestinationModules()),
+							output);
+					return null;
+				}));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException ex) {
+					failures++;
+					System.out.println(String.format("Error: Could not produce %s: %s", views.get(i)[0],
+							ex.getCause().getMessage()));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		return failures;
+	}
+
+	/**
+	 * Reads the manifest into pairs of output file and filter expression. Every
+	 * filter expression is validated before any view is produced.
+	 *
+	 * @param manifestPath Path to the batch manifest.
+	 * @return List of {output file, filter expression} pairs.
+	 * @throws Exception If the manifest can not be read or contains an invalid
+	 *                   line or two rendered views with the same base name.
+	 */
+	private List<String[]> readManifest(String manifestPath) throws Exception {
+		List<String[]> views = new ArrayList<String[]>();
+		HashMap<String, Integer> dotFiles = new HashMap<String, Integer>();
+		GraphWriter writer = new GraphWriter();
+		BufferedReader reader = new BufferedReader(new FileReader(new File(manifestPath)));
+		String line;
+		int lineNumber = 0;
+
+		try {
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] view = line.split("\\s+", 2);
+				if (view.length != 2)
+					throw new Exception(String.format("%s:%d: Expected <output file> <filter expression>",
+							manifestPath, lineNumber));
+
+				FilterExpression.parse(view[1]);
+
+				int extension = view[0].lastIndexOf('.');
+				if (extension != -1 && !writer.isExportFormat(view[0].substring(extension + 1))) {
+					String dotFile = new File(view[0].substring(0, extension) + ".dot").getAbsolutePath();
+					Integer other = dotFiles.putIfAbsent(dotFile, lineNumber);
+					if (other != null)
+						throw new Exception(String.format("%s:%d: %s shares its DOT file with the view on line %d",
+								manifestPath, lineNumber, view[0], other));
+				}
+
+				views.add(view);
+			}
+		} finally {
+			reader.close();
+		}
+
+		return views;
+	}
+}
@@ -0,0 +1,317 @@
+package depgraph.Pipeline;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import depgraph.GraphWriter.GraphWriter;
+import depgraph.ImageRenderer.ImageRenderer;
+import depgraph.Parser.DefaultModuleStrategy;
+import depgraph.Parser.ModuleStrategy;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.InputDeduplicator;
+import depgraph.Reader.Reader;
+
+/**
+ * Library entry point for embedding the dependency graph tool in another JVM
+ * program (e.g. a build server) without paying the JVM start-up cost on every
+ * invocation.
+ *
+ * A pipeline is created with a Builder and its configuration can not change
+ * afterwards. Every call to execute creates its own Reader, Parser, GraphWriter
+ * and ImageRenderer, so one pipeline (or several different pipelines) can be
+ * executed from many threads at the same time without sharing mutable state.
+ *
+ * Example:
+ *
+ * <pre>
+ * DependencyGraphPipeline pipeline = DependencyGraphPipeline.builder()
+ * 		.addInput("test/dot-files")
+ * 		.filter(List.of("BMS"), List.of("DIAG", "CONT"))
+ * 		.addOutput("bms.pdf")
+ * 		.build();
+ * GraphResult result = pipeline.execute();
+ * </pre>
+ */
+public final class DependencyGraphPipeline {
+
+	/**
+	 * DOT files and/or directories of DOT files to read.
+	 */
+	private final List<String> inputs;
+
+	/**
+	 * Source modules to filter. Empty if the graph is not filtered.
+	 */
+	private final List<String> sourceFilters;
+
+	/**
+	 * Destination modules to filter. Empty if the graph is not filtered.
+	 */
+	private final List<String> destinationFilters;
+
+	/**
+	 * Strategy used to assign functions to modules. Shared by every execution,
+	 * so it must be stateless.
+	 */
+	private final ModuleStrategy moduleStrategy;
+
+	/**
+	 * Path to the graph template.
+	 */
+	private final String graphTemplatePath;
+
+	/**
+	 * Path to the outter-most subgraph template.
+	 */
+	private final String outterSubgraphTemplatePath;
+
+	/**
+	 * Path to the inner-most subgraph template.
+	 */
+	private final String innerSubgraphTemplatePath;
+
+	/**
+	 * Output files to create. The file extension selects either an exporter or
+	 * the image format rendered by dot.
+	 */
+	private final List<String> outputs;
+
+	/**
+	 * Only created through the Builder.
+	 *
+	 * @param builder Builder holding the configuration.
+	 */
+	private DependencyGraphPipeline(Builder builder) {
+		this.inputs = Collections.unmodifiableList(new ArrayList<String>(builder.inputs));
+		this.sourceFilters = Collections.unmodifiableList(new ArrayList<String>(builder.sourceFilters));
+		this.destinationFilters = Collections.unmodifiableList(new ArrayList<String>(builder.destinationFilters));
+		this.moduleStrategy = builder.moduleStrategy;
+		this.graphTemplatePath = builder.graphTemplatePath;
+		this.outterSubgraphTemplatePath = builder.outterSubgraphTemplatePath;
+		this.innerSubgraphTemplatePath = builder.innerSubgraphTemplatePath;
+		this.outputs = Collections.unmodifiableList(new ArrayList<String>(builder.outputs));
+	}
+
+	/**
+	 * @return A new Builder with the default templates and no inputs, filters or
+	 *         outputs.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Reads and parses the inputs, applies the filter (if any) and writes every
+	 * output.
+	 *
+	 * @return The parsed (and filtered) graph.
+	 * @throws Exception If an input can not be read or an output can not be
+	 *                   written.
+	 */
+	public GraphResult execute() throws Exception {
+		GraphResult result = parse();
+
+		if (isFiltered())
+			result = result.filter(sourceFilters, destinationFilters);
+
+		for (String output : outputs)
+			writeOutput(result, output);
+
+		return result;
+	}
+
+	/**
+	 * Reads and parses the inputs without filtering or writing any output. Input
+	 * files that duplicate an earlier one are skipped (see InputDeduplicator).
+	 * The result can be filtered and written any number of times afterwards.
+	 *
+	 * @return The complete parsed graph.
+	 * @throws Exception If an input can not be read.
+	 */
+	public GraphResult parse() throws Exception {
+		Reader reader = new Reader();
+		Parser parser = new Parser();
+		parser.setModuleStrategy(moduleStrategy);
+		List<SourceFile> files = new ArrayList<SourceFile>();
+
+		for (String input : inputs) {
+			if (new File(input).isDirectory())
+				files.addAll(reader.readSourceDirectory(input));
+			else
+				files.addAll(reader.readSourceFile(input));
+		}
+
+		parser.parseSourceFiles(new InputDeduplicator().deduplicate(files));
+
+		return new GraphResult(parser.getNodes(), parser.getEdges(), parser.getModules());
+	}
+
+	/**
+	 * Writes a graph to a single output file using this pipeline's templates.
+	 * Exporter formats (see GraphWriter.isExportFormat) are written directly,
+	 * anything else is written as DOT and rendered by dot, unless the output was
+	 * already rendered from an identical DOT file.
+	 *
+	 * @param result  Graph to write.
+	 * @param outFile Output file name, including the file extension.
+	 * @throws Exception If the output file has no extension, can not be written or
+	 *                   could not be rendered.
+	 */
+	public void writeOutput(GraphResult result, String outFile) throws Exception {
+		if (!outFile.contains("."))
+			throw new Exception("Output file must have a file extension: " + outFile);
+
+		GraphWriter writer = new GraphWriter(result.getModules(), result.getEdges());
+		String extension = outFile.substring(outFile.lastIndexOf('.') + 1);
+
+		if (writer.isExportFormat(extension)) {
+			writer.exportGraph(outFile, extension);
+		} else {
+			writer.setGraphTemplatePath(graphTemplatePath);
+			writer.setOutterSubgraphTemplatePath(outterSubgraphTemplatePath);
+			writer.setInnerSubgraphTemplatePath(innerSubgraphTemplatePath);
+			writer.readTemplates();
+			writer.writeGraph(outFile.substring(0, outFile.lastIndexOf('.')));
+			ImageRenderer renderer = new ImageRenderer();
+			renderer.renderIfChanged(renderer.getFormatFromFileExtension(outFile), outFile, writer.getGraphHash());
+		}
+	}
+
+	/* Getters */
+
+	public List<String> getInputs() {
+		return inputs;
+	}
+
+	public List<String> getSourceFilters() {
+		return sourceFilters;
+	}
+
+	public List<String> getDestinationFilters() {
+		return destinationFilters;
+	}
+
+	public boolean isFiltered() {
+		return !sourceFilters.isEmpty() || !destinationFilters.isEmpty();
+	}
+
+	public ModuleStrategy getModuleStrategy() {
+		return moduleStrategy;
+	}
+
+	public String getGraphTemplatePath() {
+		return graphTemplatePath;
+	}
+
+	public String getOutterSubgraphTemplatePath() {
+		return outterSubgraphTemplatePath;
+	}
+
+	public String getInnerSubgraphTemplatePath() {
+		return innerSubgraphTemplatePath;
+	}
+
+	public List<String> getOutputs() {
+		return outputs;
+	}
+
+	/**
+	 * Collects the configuration of a DependencyGraphPipeline. A Builder is not
+	 * thread-safe, but the pipelines it builds are.
+	 */
+	public static final class Builder {
+
+		private final List<String> inputs;
+		private final List<String> sourceFilters;
+		private final List<String> destinationFilters;
+		private ModuleStrategy moduleStrategy;
+		private String graphTemplatePath;
+		private String outterSubgraphTemplatePath;
+		private String innerSubgraphTemplatePath;
+		private final List<String> outputs;
+
+		/**
+		 * Initializes the builder with the default templates (same as
+		 * GraphWriter).
+		 */
+		private Builder() {
+			inputs = new ArrayList<String>();
+			sourceFilters = new ArrayList<String>();
+			destinationFilters = new ArrayList<String>();
+			moduleStrategy = new DefaultModuleStrategy();
+			graphTemplatePath = "templates/graph.temp";
+			outterSubgraphTemplatePath = "templates/subgraph-outter.temp";
+			innerSubgraphTemplatePath = "templates/subgraph-inner.temp";
+			outputs = new ArrayList<String>();
+		}
+
+		/**
+		 * @param input A DOT file or a directory of DOT files.
+		 * @return this Builder.
+		 */
+		public Builder addInput(String input) {
+			inputs.add(input);
+			return this;
+		}
+
+		/**
+		 * Equivalent to the -F command-line option.
+		 *
+		 * @param sourceModules      Source modules to filter.
+		 * @param destinationModules Destination modules to filter.
+		 * @return this Builder.
+		 */
+		public Builder filter(List<String> sourceModules, List<String> destinationModules) {
+			sourceFilters.addAll(sourceModules);
+			destinationFilters.addAll(destinationModules);
+			return this;
+		}
+
+		/**
+		 * Equivalent to the -M command-line option.
+		 *
+		 * @param strategy Stateless strategy used to assign functions to modules.
+		 * @return this Builder.
+		 */
+		public Builder moduleStrategy(ModuleStrategy strategy) {
+			moduleStrategy = strategy;
+			return this;
+		}
+
+		/**
+		 * @param graphTemplate          Path to the graph template.
+		 * @param outterSubgraphTemplate Path to the outter-most subgraph template.
+		 * @param innerSubgraphTemplate  Path to the inner-most subgraph template.
+		 * @return this Builder.
+		 */
+		public Builder templates(String graphTemplate, String outterSubgraphTemplate, String innerSubgraphTemplate) {
+			graphTemplatePath = graphTemplate;
+			outterSubgraphTemplatePath = outterSubgraphTemplate;
+			innerSubgraphTemplatePath = innerSubgraphTemplate;
+			return this;
+		}
+
+		/**
+		 * @param output Output file name including the extension (e.g. out.pdf,
+		 *               out.json).
+		 * @return this Builder.
+		 */
+		public Builder addOutput(String output) {
+			outputs.add(output);
+			return this;
+		}
+
+		/**
+		 * @return A new pipeline with a copy of the current configuration.
+		 * @throws IllegalStateException If no input was added.
+		 */
+		public DependencyGraphPipeline build() {
+			if (inputs.isEmpty())
+				throw new IllegalStateException("At least one input is required");
+			return new DependencyGraphPipeline(this);
+		}
+	}
+}
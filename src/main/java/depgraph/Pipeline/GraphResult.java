@@ -0,0 +1,97 @@
+package depgraph.Pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+
+/**
+ * Immutable snapshot of a parsed dependency graph, as produced by
+ * DependencyGraphPipeline.execute.
+ *
+ * The lists are copied on construction and can not be modified. The Node,
+ * Edge and Module objects inside them are shared between results (e.g. when
+ * filtering) and must be treated as read-only, which is what allows one result
+ * to be used from several threads at the same time.
+ */
+public final class GraphResult {
+
+	/**
+	 * Every node created by the Parser, including nodes of modules that were
+	 * filtered out.
+	 */
+	private final List<Node> nodes;
+
+	/**
+	 * Edges between modules that are part of this result.
+	 */
+	private final List<Edge> edges;
+
+	/**
+	 * Modules that are part of this result.
+	 */
+	private final List<Module> modules;
+
+	/**
+	 * Creates a result from the collections of a Parser (or another result).
+	 *
+	 * @param nodes   Nodes created by the Parser.
+	 * @param edges   Edges created by the Parser.
+	 * @param modules Modules created by the Parser.
+	 */
+	public GraphResult(List<Node> nodes, List<Edge> edges, List<Module> modules) {
+		this.nodes = Collections.unmodifiableList(new ArrayList<Node>(nodes));
+		this.edges = Collections.unmodifiableList(new ArrayList<Edge>(edges));
+		this.modules = Collections.unmodifiableList(new ArrayList<Module>(modules));
+	}
+
+	/**
+	 * Creates a new result that only contains the modules named in either filter
+	 * list and the edges going from a source module to a destination module. This
+	 * result is left unchanged, so any number of filtered views can be created
+	 * from the same parsed graph.
+	 *
+	 * @param sourceFilters      Source modules to filter.
+	 * @param destinationFilters Destination modules to filter.
+	 * @return Filtered view of this result.
+	 */
+	public GraphResult filter(List<String> sourceFilters, List<String> destinationFilters) {
+		ArrayList<Module> moduleList = new ArrayList<Module>();
+		ArrayList<Edge> edgeList = new ArrayList<Edge>();
+
+		for (Module module : modules)
+			if (sourceFilters.contains(module.getModulePrefix())
+					|| destinationFilters.contains(module.getModulePrefix()))
+				moduleList.add(module);
+
+		for (Edge edge : edges)
+			if (sourceFilters.contains(edge.getSourceNodeObject().getModulePrefix())
+					&& destinationFilters.contains(edge.getDestinationNodeObject().getModulePrefix()))
+				edgeList.add(edge);
+
+		return new GraphResult(nodes, edgeList, moduleList);
+	}
+
+	/* Getters */
+
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	public List<Edge> getEdges() {
+		return edges;
+	}
+
+	public List<Module> getModules() {
+		return modules;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("GraphResult\n\tNODES: %d\n\tEDGES: %d\n\tMODULES: %d", nodes.size(), edges.size(),
+				modules.size());
+	}
+}
@@ -0,0 +1,38 @@
+package depgraph.Pipeline;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Creates executors that start one virtual thread per task. Virtual threads
+ * are cheap enough to create one per graph, and blocking on I/O or on a dot
+ * subprocess does not tie up a platform thread.
+ *
+ * The project still builds and runs on JVMs older than 21, so the factory
+ * method is looked up reflectively. On older JVMs a cached pool of platform
+ * threads is used instead, which behaves the same, only with a higher cost per
+ * thread.
+ */
+public final class VirtualThreads {
+
+	private static Logger logger = Logger.getLogger("depgraph");
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * @return An executor starting a new (virtual if possible) thread for every
+	 *         submitted task.
+	 */
+	public static ExecutorService newPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			logger.fine("Virtual threads not available, using platform threads");
+			return Executors.newCachedThreadPool();
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package depgraph.Reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import depgraph.Parser.SourceFile;
+
+/**
+ * Reads DOT files straight out of compressed archives, so archived Doxygen
+ * output does not have to be extracted first. Supported inputs:
+ * <ul>
+ * <li>.zip - entries are independent, so they are decompressed in
+ * parallel</li>
+ * <li>.tar.gz and .tgz - one gzip stream, read in a single pass with a minimal
+ * tar parser (ustar, GNU long names and pax path records)</li>
+ * <li>.dot.gz - a single compressed DOT file</li>
+ * </ul>
+ *
+ * Only entries ending in .dot are read, everything else in an archive (e.g.
+ * the HTML pages) is skipped without being decompressed where the format
+ * allows it. Files are named &lt;archive&gt;!/&lt;entry&gt; and returned sorted
+ * by name, like the files of a directory.
+ */
+public class ArchiveReader {
+
+	private static Logger logger;
+
+	private static final int TAR_BLOCK = 512;
+
+	public ArchiveReader() {
+		logger = Logger.getLogger("depgraph");
+	}
+
+	/**
+	 * @param filePath - Path of a file.
+	 * @return True if the file is an archive or compressed DOT file this class
+	 *         can read.
+	 */
+	public static boolean isArchive(String filePath) {
+		return filePath.endsWith(".zip") || filePath.endsWith(".tar.gz") || filePath.endsWith(".tgz")
+				|| filePath.endsWith(".dot.gz");
+	}
+
+	/**
+	 * @param filePath - Path of an archive (see isArchive).
+	 * @return The DOT files in the archive, sorted by name.
+	 * @throws IOException If the archive can not be read or is not a supported
+	 *                     format.
+	 */
+	public List<SourceFile> read(String filePath) throws IOException {
+		logger.info("Reading archive: " + filePath);
+
+		if (filePath.endsWith(".zip"))
+			return readZip(filePath);
+		else if (filePath.endsWith(".tar.gz") || filePath.endsWith(".tgz"))
+			return readTarGz(filePath);
+		else if (filePath.endsWith(".dot.gz"))
+			return readDotGz(filePath);
+
+		throw new IOException("Unsupported archive: " + filePath);
+	}
+
+	private List<SourceFile> readZip(String filePath) throws IOException {
+		try (ZipFile zip = new ZipFile(filePath)) {
+			List<ZipEntry> entries = Collections.list(zip.entries()).stream()
+					.filter(entry -> !entry.isDirectory() && entry.getName().endsWith(".dot"))
+					.sorted(Comparator.comparing(ZipEntry::getName)).collect(Collectors.toList());
+
+			// ZipFile can be read from several threads, each entry is inflated on its own
+			return entries.parallelStream().map(entry -> {
+				try (InputStream in = zip.getInputStream(entry)) {
+					return new SourceFile(filePath + "!/" + entry.getName(), readText(in));
+				} catch (IOException ex) {
+					throw new UncheckedIOException("Could not read " + entry.getName() + " from " + filePath, ex);
+				}
+			}).collect(Collectors.toList());
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	private List<SourceFile> readTarGz(String filePath) throws IOException {
+		List<SourceFile> files = new ArrayList<SourceFile>();
+
+		try (InputStream in = new BufferedInputStream(
+				new GZIPInputStream(new FileInputStream(filePath), 64 * 1024))) {
+			byte[] header = new byte[TAR_BLOCK];
+			String longName = null;
+
+			while (readBlock(in, header)) {
+				// Two zero blocks end the archive, one is enough to stop
+				if (header[0] == 0)
+					break;
+
+				String name = (longName != null) ? longName : getTarName(header);
+				long size = parseTarSize(header);
+				char type = (char) header[156];
+				longName = null;
+
+				if (type == 'L') {
+					longName = trimNul(new String(readFully(in, size), StandardCharsets.UTF_8));
+				} else if (type == 'x') {
+					longName = getPaxPath(readFully(in, size));
+				} else if ((type == '0' || type == 0) && name.endsWith(".dot")) {
+					files.add(new SourceFile(filePath + "!/" + name,
+							readText(new ByteArrayInputStream(readFully(in, size)))));
+				} else {
+					skipFully(in, size);
+				}
+
+				skipFully(in, (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK);
+			}
+		}
+
+		files.sort(Comparator.comparing(SourceFile::getName));
+		return files;
+	}
+
+	private List<SourceFile> readDotGz(String filePath) throws IOException {
+		List<SourceFile> files = new ArrayList<SourceFile>();
+
+		try (InputStream in = new GZIPInputStream(new FileInputStream(filePath), 64 * 1024)) {
+			files.add(new SourceFile(filePath.substring(0, filePath.length() - ".gz".length()), readText(in)));
+		}
+
+		return files;
+	}
+
+	/**
+	 * Reads text line by line like Reader does for plain files, so line endings
+	 * are the same no matter where a file came from.
+	 */
+	private String readText(InputStream in) throws IOException {
+		StringBuilder text = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String line;
+
+		while ((line = reader.readLine()) != null)
+			text.append(line).append('\n');
+
+		return text.toString();
+	}
+
+	/**
+	 * @return Name of a ustar entry: prefix (if any), a slash and name.
+	 */
+	private static String getTarName(byte[] header) {
+		String name = trimNul(new String(header, 0, 100, StandardCharsets.UTF_8));
+		boolean ustar = new String(header, 257, 5, StandardCharsets.US_ASCII).equals("ustar");
+		String prefix = ustar ? trimNul(new String(header, 345, 155, StandardCharsets.UTF_8)) : "";
+
+		return prefix.isEmpty() ? name : prefix + "/" + name;
+	}
+
+	/**
+	 * @return Size of an entry, written in octal or (for large GNU entries) as a
+	 *         base-256 number.
+	 */
+	private static long parseTarSize(byte[] header) throws IOException {
+		if ((header[124] & 0x80) != 0) {
+			long size = 0;
+			for (int i = 125; i < 136; i++)
+				size = (size << 8) | (header[i] & 0xFF);
+			return size;
+		}
+
+		String octal = trimNul(new String(header, 124, 12, StandardCharsets.US_ASCII)).trim();
+		try {
+			return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+		} catch (NumberFormatException ex) {
+			throw new IOException("Corrupt tar header, bad size: " + octal);
+		}
+	}
+
+	/**
+	 * @return The path record of a pax extended header, null if there is none.
+	 */
+	private static String getPaxPath(byte[] records) {
+		// Every record is "<length> <key>=<value>\n"
+		for (String record : new String(records, StandardCharsets.UTF_8).split("\n")) {
+			int space = record.indexOf(' ');
+			if (space != -1 && record.startsWith("path=", space + 1))
+				return record.substring(space + 1 + "path=".length());
+		}
+		return null;
+	}
+
+	private static String trimNul(String value) {
+		int end = value.indexOf('\0');
+		return (end == -1) ? value : value.substring(0, end);
+	}
+
+	/**
+	 * @return False at the end of the stream.
+	 */
+	private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+		int read = in.readNBytes(block, 0, block.length);
+		if (read == 0)
+			return false;
+		if (read < block.length)
+			throw new EOFException("Truncated tar archive");
+		return true;
+	}
+
+	private static byte[] readFully(InputStream in, long size) throws IOException {
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("Tar entry too large: " + size + " bytes");
+
+		byte[] data = in.readNBytes((int) size);
+		if (data.length < size)
+			throw new EOFException("Truncated tar archive");
+		return data;
+	}
+
+	private static void skipFully(InputStream in, long count) throws IOException {
+		while (count > 0) {
+			long skipped = in.skip(count);
+			if (skipped <= 0) {
+				if (in.read() == -1)
+					throw new EOFException("Truncated tar archive");
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package depgraph.Reader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import depgraph.Parser.Parser;
+
+/**
+ * Lightweight C front end that builds the call graph straight from .c/.h
+ * sources, so dependency graphs can be created without running Doxygen with
+ * CALL_GRAPH=YES first.
+ *
+ * Every file is scanned independently (in parallel):
+ * <ol>
+ * <li>Comments, string and character literals are removed.</li>
+ * <li>Preprocessor directives are dropped. Conditionals can not be resolved
+ * without the build configuration, so only the first branch of every
+ * #if/#ifdef/#ifndef is kept and #elif/#else branches are skipped (which keeps
+ * braces balanced when branches open the same block differently). #if 0 blocks
+ * are skipped in favour of their #else branch.</li>
+ * <li>A function definition is an identifier followed by a parameter list and a
+ * '{' at file scope. Inside its body, every identifier followed by '(' that is
+ * not a keyword is a call site.</li>
+ * </ol>
+ * Only calls to functions defined somewhere in the scanned tree are kept, like
+ * in Doxygen's call graphs. The results are handed to the Parser (see
+ * Parser.addFunction and Parser.addCall) together with a Doxygen style URL of
+ * the defining file, so every module strategy (including -M url) works the same
+ * way as with Doxygen input.
+ *
+ * This is a heuristic scanner, not a compiler: calls through function pointers
+ * are not seen and function-like macros that expand to calls are missed.
+ */
+public class CSourceScanner {
+
+	private static Logger logger;
+
+	/**
+	 * Keywords (and keyword-like operators) that can be followed by '(' without
+	 * being a call.
+	 */
+	private static final HashSet<String> KEYWORDS = new HashSet<String>(Arrays.asList("if", "while", "for",
+			"switch", "return", "sizeof", "do", "else", "case", "goto", "defined", "_Alignof", "alignof",
+			"_Static_assert", "__attribute__", "__asm", "__asm__", "asm", "typeof", "__typeof__", "_Generic"));
+
+	public CSourceScanner() {
+		logger = Logger.getLogger("depgraph");
+	}
+
+	/**
+	 * Scans every .c and .h file below a directory and adds the functions and
+	 * calls found to the parser. Modules are grouped afterwards, so the parser is
+	 * ready to be written once this returns.
+	 *
+	 * @param directory Root of the source tree.
+	 * @param parser    Parser to add the functions and calls to.
+	 * @throws Exception If the directory can not be read or contains no C
+	 *                   sources.
+	 */
+	public void scanDirectory(String directory, Parser parser) throws Exception {
+		logger.fine("Scanning C sources...");
+		List<Path> sources;
+
+		try (Stream<Path> paths = Files.walk(Paths.get(directory))) {
+			sources = paths.filter(Files::isRegularFile).filter(CSourceScanner::isCSource).sorted()
+					.collect(Collectors.toList());
+		}
+
+		if (sources.isEmpty()) {
+			System.out.println("Directory did not contain any C sources");
+			throw new Exception("Directory did not contain any C sources");
+		}
+
+		List<List<Function>> perFile = sources.parallelStream().map(CSourceScanner::scanFile)
+				.collect(Collectors.toList());
+
+		LinkedHashMap<String, Function> definitions = new LinkedHashMap<String, Function>();
+		for (List<Function> fileFunctions : perFile)
+			for (Function function : fileFunctions) {
+				Function existing = definitions.putIfAbsent(function.name, function);
+				if (existing != null)
+					existing.callees.addAll(function.callees);
+			}
+
+		logger.info(String.format("Found %d function definitions in %d files", definitions.size(), sources.size()));
+
+		for (Function function : definitions.values())
+			parser.addFunction(function.name, function.url, true);
+
+		for (Function function : definitions.values())
+			for (String callee : function.callees)
+				if (definitions.containsKey(callee))
+					parser.addCall(function.name, callee);
+
+		parser.groupModules();
+	}
+
+	/**
+	 * @param path Path of a file.
+	 * @return true for .c and .h files.
+	 */
+	static boolean isCSource(Path path) {
+		String name = path.getFileName().toString();
+		return name.endsWith(".c") || name.endsWith(".h");
+	}
+
+	/**
+	 * Scans a single file. Files that can not be read are logged and skipped.
+	 *
+	 * @param path Path of the file.
+	 * @return Functions defined in the file.
+	 */
+	static List<Function> scanFile(Path path) {
+		String source;
+
+		try {
+			source = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+		} catch (IOException ex) {
+			logger.warning("Could not read " + path + ": " + ex);
+			return new ArrayList<Function>();
+		}
+
+		String url = "$" + escapeFileName(path.getFileName().toString()) + ".html";
+		return findFunctions(tokenize(stripPreprocessor(stripCommentsAndLiterals(source))), url);
+	}
+
+	/**
+	 * Replaces comments with a space and string/character literals with empty
+	 * literals. Line breaks are kept, so preprocessor lines stay intact.
+	 *
+	 * @param source Contents of a C file.
+	 * @return Contents without comments and literal text.
+	 */
+	static String stripCommentsAndLiterals(String source) {
+		StringBuilder out = new StringBuilder(source.length());
+		int length = source.length();
+
+		for (int i = 0; i < length; i++) {
+			char c = source.charAt(i);
+			char next = (i + 1 < length) ? source.charAt(i + 1) : 0;
+
+			if (c == '/' && next == '*') {
+				int end = source.indexOf("*/", i + 2);
+				end = (end == -1) ? length : end + 2;
+				for (int j = i; j < end; j++)
+					if (source.charAt(j) == '\n')
+						out.append('\n');
+				out.append(' ');
+				i = end - 1;
+			} else if (c == '/' && next == '/') {
+				while (i < length && source.charAt(i) != '\n')
+					i++;
+				i--;
+			} else if (c == '"' || c == '\'') {
+				out.append(c).append(c);
+				i++;
+				while (i < length && source.charAt(i) != c && source.charAt(i) != '\n') {
+					if (source.charAt(i) == '\\')
+						i++;
+					i++;
+				}
+				if (i < length && source.charAt(i) == '\n')
+					i--;
+			} else {
+				out.append(c);
+			}
+		}
+
+		return out.toString();
+	}
+
+	/**
+	 * Removes preprocessor directives and the conditional branches that are not
+	 * kept (see class description).
+	 *
+	 * @param source Contents of a C file without comments.
+	 * @return Contents with only the kept, non-directive lines.
+	 */
+	static String stripPreprocessor(String source) {
+		StringBuilder out = new StringBuilder(source.length());
+		// CRLF files would otherwise hide a continuation backslash behind the '\r'
+		String[] lines = source.split("\r?\n", -1);
+		/* One entry per open conditional: is the current branch active? */
+		ArrayList<Boolean> branchActive = new ArrayList<Boolean>();
+		/* One entry per open conditional: has an active branch been taken? */
+		ArrayList<Boolean> branchTaken = new ArrayList<Boolean>();
+		boolean active = true;
+
+		for (int i = 0; i < lines.length; i++) {
+			String line = lines[i].trim();
+
+			if (!line.startsWith("#")) {
+				if (active)
+					out.append(lines[i]);
+				out.append('\n');
+				continue;
+			}
+
+			while (lines[i].endsWith("\\") && i + 1 < lines.length) {
+				out.append('\n');
+				line += lines[++i];
+			}
+
+			String directive = line.substring(1).trim();
+			if (directive.startsWith("if")) {
+				boolean disabled = directive.matches("if\\s+0\\b.*");
+				branchActive.add(active);
+				branchTaken.add(!disabled);
+				active = active && !disabled;
+			} else if ((directive.startsWith("elif") || directive.startsWith("else")) && !branchActive.isEmpty()) {
+				int top = branchActive.size() - 1;
+				active = branchActive.get(top) && !branchTaken.get(top);
+				branchTaken.set(top, true);
+			} else if (directive.startsWith("endif") && !branchActive.isEmpty()) {
+				int top = branchActive.size() - 1;
+				active = branchActive.remove(top);
+				branchTaken.remove(top);
+			}
+			out.append('\n');
+		}
+
+		return out.toString();
+	}
+
+	/**
+	 * Splits source into identifiers and the punctuation relevant for finding
+	 * definitions and calls. Numbers, operators and everything else are dropped,
+	 * except '=' which marks initializers.
+	 *
+	 * @param source Preprocessed contents of a C file.
+	 * @return Tokens in order.
+	 */
+	static List<String> tokenize(String source) {
+		List<String> tokens = new ArrayList<String>();
+		int length = source.length();
+
+		for (int i = 0; i < length; i++) {
+			char c = source.charAt(i);
+
+			if (Character.isLetter(c) || c == '_') {
+				int start = i;
+				while (i + 1 < length && (Character.isLetterOrDigit(source.charAt(i + 1)) || source.charAt(i + 1) == '_'))
+					i++;
+				tokens.add(source.substring(start, i + 1));
+			} else if (Character.isDigit(c)) {
+				while (i + 1 < length && (Character.isLetterOrDigit(source.charAt(i + 1)) || source.charAt(i + 1) == '.'))
+					i++;
+			} else if (c == '(' || c == ')' || c == '{' || c == '}' || c == ';' || c == '=' || c == ',') {
+				tokens.add(String.valueOf(c));
+			}
+		}
+
+		return tokens;
+	}
+
+	/**
+	 * Finds function definitions and the calls in their bodies.
+	 *
+	 * @param tokens Tokens of a file.
+	 * @param url    Doxygen style URL of the file.
+	 * @return Functions defined in the file.
+	 */
+	static List<Function> findFunctions(List<String> tokens, String url) {
+		List<Function> functions = new ArrayList<Function>();
+		/* One entry per open brace: does it open a linkage block (extern "C")? */
+		ArrayDeque<Boolean> braces = new ArrayDeque<Boolean>();
+		Function current = null;
+		int depth = 0;
+
+		for (int i = 0; i < tokens.size(); i++) {
+			String token = tokens.get(i);
+
+			if (token.equals("{")) {
+				boolean linkage = depth == 0 && i > 0 && tokens.get(i - 1).equals("extern");
+				braces.push(linkage);
+				if (linkage)
+					continue;
+				if (depth == 0)
+					current = getDefinition(tokens, i, url);
+				depth++;
+			} else if (token.equals("}")) {
+				if (!braces.isEmpty() && braces.pop())
+					continue;
+				depth = Math.max(0, depth - 1);
+				if (depth == 0 && current != null) {
+					functions.add(current);
+					current = null;
+				}
+			} else if (current != null && i + 1 < tokens.size() && tokens.get(i + 1).equals("(")
+					&& isIdentifier(token) && !KEYWORDS.contains(token)) {
+				current.callees.add(token);
+			}
+		}
+
+		return functions;
+	}
+
+	/**
+	 * Checks if the '{' at the given position opens a function body, i.e. it is
+	 * preceded by "name ( ... )".
+	 *
+	 * @param tokens Tokens of a file.
+	 * @param brace  Index of a '{' at file scope.
+	 * @param url    Doxygen style URL of the file.
+	 * @return The function whose body starts at the brace, null if it is not a
+	 *         function body.
+	 */
+	private static Function getDefinition(List<String> tokens, int brace, String url) {
+		int i = brace - 1;
+
+		if (i < 0 || !tokens.get(i).equals(")"))
+			return null;
+
+		int parens = 0;
+		for (; i >= 0; i--) {
+			if (tokens.get(i).equals(")"))
+				parens++;
+			else if (tokens.get(i).equals("(") && --parens == 0)
+				break;
+		}
+
+		if (i < 1)
+			return null;
+
+		String name = tokens.get(i - 1);
+		if (!isIdentifier(name) || KEYWORDS.contains(name))
+			return null;
+
+		return new Function(name, url);
+	}
+
+	/**
+	 * @param token A token.
+	 * @return true if the token is an identifier (not punctuation).
+	 */
+	private static boolean isIdentifier(String token) {
+		char c = token.charAt(0);
+		return Character.isLetter(c) || c == '_';
+	}
+
+	/**
+	 * Escapes a file name the way Doxygen does for its HTML page names ('_'
+	 * becomes "__", '.' becomes "_8").
+	 *
+	 * @param fileName Name of a source file (e.g. cansignal_cfg.c).
+	 * @return Escaped name (e.g. cansignal__cfg_8c).
+	 */
+	static String escapeFileName(String fileName) {
+		return fileName.replace("_", "__").replace(".", "_8");
+	}
+
+	/**
+	 * A function definition found in a file.
+	 */
+	static class Function {
+		private String name;
+		private String url;
+		private LinkedHashSet<String> callees;
+
+		private Function(String name, String url) {
+			this.name = name;
+			this.url = url;
+			this.callees = new LinkedHashSet<String>();
+		}
+
+		String getName() {
+			return name;
+		}
+
+		LinkedHashSet<String> getCallees() {
+			return callees;
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package depgraph.Reader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import depgraph.Parser.Parser;
+
+/**
+ * Alternative front end that reads Doxygen's XML output (GENERATE_XML=YES)
+ * instead of the per-function call graph DOT files. Every function is read
+ * exactly once, from the memberdef in the XML file of the compound that
+ * documents it, together with its &lt;references&gt; (functions it calls) and
+ * &lt;referencedby&gt; (functions calling it) lists.
+ *
+ * Files are parsed in parallel with a streaming StAX parser, so a file is never
+ * held in memory as a whole. The functions and calls are then handed to the
+ * Parser (see Parser.addFunction and Parser.addCall), which produces the same
+ * Node/Edge/Module model as the DOT route.
+ */
+public class DoxygenXmlReader {
+
+	private static Logger logger;
+
+	/**
+	 * StAX factories are not guaranteed to be thread-safe, so every worker thread
+	 * gets its own.
+	 */
+	private static final ThreadLocal<XMLInputFactory> factory = ThreadLocal.withInitial(() -> {
+		XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return xmlInputFactory;
+	});
+
+	public DoxygenXmlReader() {
+		logger = Logger.getLogger("depgraph");
+	}
+
+	/**
+	 * Reads every compound XML file in a Doxygen XML output directory and adds the
+	 * functions and calls found to the parser. Modules are grouped afterwards, so
+	 * the parser is ready to be written once this returns.
+	 *
+	 * @param directory Doxygen XML output directory.
+	 * @param parser    Parser to add the functions and calls to.
+	 * @throws Exception If the directory does not contain any XML files or a file
+	 *                   can not be parsed.
+	 */
+	public void readDirectory(String directory, Parser parser) throws Exception {
+		logger.fine("Reading Doxygen XML directory...");
+		File[] filesInDir = new File(directory).listFiles();
+
+		if (filesInDir == null) {
+			System.out.println("Directory did not contain any XML files");
+			throw new Exception("Directory did not contain any XML files");
+		}
+
+		List<File> xmlFiles = Arrays.stream(filesInDir)
+				.filter(file -> file.isFile() && file.getName().endsWith(".xml")
+						&& !file.getName().equals("index.xml"))
+				.sorted().collect(Collectors.toList());
+
+		if (xmlFiles.isEmpty()) {
+			System.out.println("Directory did not contain any XML files");
+			throw new Exception("Directory did not contain any XML files");
+		}
+
+		List<List<Function>> perFile = xmlFiles.parallelStream().map(file -> {
+			try {
+				return readFile(file);
+			} catch (Exception ex) {
+				throw new RuntimeException("Could not parse " + file + ": " + ex.getMessage(), ex);
+			}
+		}).collect(Collectors.toList());
+
+		LinkedHashMap<String, Function> functions = new LinkedHashMap<String, Function>();
+		for (List<Function> fileFunctions : perFile)
+			for (Function function : fileFunctions) {
+				Function existing = functions.putIfAbsent(function.id, function);
+				if (existing != null) {
+					existing.references.addAll(function.references);
+					existing.referencedBy.addAll(function.referencedBy);
+				}
+			}
+
+		logger.info(String.format("Read %d functions from %d XML files", functions.size(), xmlFiles.size()));
+
+		for (Function function : functions.values())
+			parser.addFunction(function.name, function.getUrl(), true);
+
+		for (Function function : functions.values()) {
+			for (String refId : function.references) {
+				Function callee = functions.get(refId);
+				if (callee != null)
+					parser.addCall(function.name, callee.name);
+			}
+			for (String refId : function.referencedBy) {
+				Function caller = functions.get(refId);
+				if (caller != null)
+					parser.addCall(caller.name, function.name);
+			}
+		}
+
+		parser.groupModules();
+	}
+
+	/**
+	 * Streams a single compound XML file and collects its function memberdefs.
+	 *
+	 * @param file Compound XML file.
+	 * @return Functions documented in the file.
+	 * @throws Exception If the file can not be read or is not well-formed.
+	 */
+	private List<Function> readFile(File file) throws Exception {
+		List<Function> functions = new ArrayList<Function>();
+		InputStream in = new FileInputStream(file);
+		XMLStreamReader xml = factory.get().createXMLStreamReader(in);
+		Function current = null;
+		int memberDepth = 0;
+		int depth = 0;
+
+		try {
+			while (xml.hasNext()) {
+				int event = xml.next();
+
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+					String element = xml.getLocalName();
+
+					if (current == null) {
+						if (element.equals("memberdef") && "function".equals(xml.getAttributeValue(null, "kind"))) {
+							current = new Function(xml.getAttributeValue(null, "id"));
+							memberDepth = depth;
+						}
+					} else if (depth == memberDepth + 1 && element.equals("name")) {
+						current.name = xml.getElementText().trim();
+						depth--;
+					} else if (depth == memberDepth + 1 && element.equals("references")) {
+						current.references.add(xml.getAttributeValue(null, "refid"));
+					} else if (depth == memberDepth + 1 && element.equals("referencedby")) {
+						current.referencedBy.add(xml.getAttributeValue(null, "refid"));
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					if (current != null && depth == memberDepth) {
+						if (current.name != null && current.id != null)
+							functions.add(current);
+						current = null;
+					}
+					depth--;
+				}
+			}
+		} finally {
+			xml.close();
+			in.close();
+		}
+
+		return functions;
+	}
+
+	/**
+	 * A function memberdef as read from the XML.
+	 */
+	private static class Function {
+		/**
+		 * Doxygen id of the member, &lt;compound id&gt;_1&lt;member id&gt;.
+		 */
+		private String id;
+		private String name;
+		private List<String> references;
+		private List<String> referencedBy;
+
+		private Function(String id) {
+			this.id = id;
+			this.references = new ArrayList<String>();
+			this.referencedBy = new ArrayList<String>();
+		}
+
+		/**
+		 * @return URL of the compound page, in the same form as the URL attribute
+		 *         of a call graph node (e.g. $bal_8c.html).
+		 */
+		private String getUrl() {
+			int separator = id.lastIndexOf("_1");
+			return separator == -1 ? null : "$" + id.substring(0, separator) + ".html";
+		}
+	}
+}
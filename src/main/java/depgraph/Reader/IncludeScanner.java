@@ -0,0 +1,215 @@
+package depgraph.Reader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+
+/**
+ * Builds a file-level include graph from the #include lines of a C source tree,
+ * as an alternative to function calls. Every .c/.h file becomes a node (labelled
+ * with its file name, headers public and sources private) and every #include of
+ * a file that exists in the tree becomes an edge. The files are assigned to
+ * modules by the Parser's module strategy, so the graph is clustered and
+ * written by GraphWriter like a call graph.
+ *
+ * Files are scanned in parallel. The includes of every file are cached by path,
+ * size and modification time, so unchanged files are not read again, neither
+ * in later scans by the same IncludeScanner nor, if a cache file is given, in
+ * later runs.
+ *
+ * Includes are matched by file name only; include paths are not resolved.
+ */
+public class IncludeScanner {
+
+	private static Logger logger;
+
+	private static final Pattern INCLUDE_PATTERN = Pattern.compile("^\\s*#\\s*include\\s*[<\"]([^>\"]+)[>\"]");
+
+	/**
+	 * Cached includes, keyed by absolute path.
+	 */
+	private ConcurrentHashMap<String, CacheEntry> cache;
+
+	/**
+	 * File the cache is loaded from and saved to, null to only cache in memory.
+	 */
+	private String cacheFile;
+
+	/**
+	 * Creates a scanner that only caches in memory.
+	 */
+	public IncludeScanner() {
+		this(null);
+	}
+
+	/**
+	 * Creates a scanner with a persistent cache.
+	 *
+	 * @param cacheFile File the cache is loaded from (if it exists) and saved to
+	 *                  after every scan, null to only cache in memory.
+	 */
+	public IncludeScanner(String cacheFile) {
+		logger = Logger.getLogger("depgraph");
+		this.cache = new ConcurrentHashMap<String, CacheEntry>();
+		this.cacheFile = cacheFile;
+
+		if (cacheFile != null && new File(cacheFile).isFile())
+			loadCache();
+	}
+
+	/**
+	 * Scans every .c and .h file below a directory and adds the files and
+	 * includes found to the parser. Modules are grouped afterwards, so the parser
+	 * is ready to be written once this returns.
+	 *
+	 * @param directory Root of the source tree.
+	 * @param parser    Parser to add the files and includes to.
+	 * @throws Exception If the directory can not be read or contains no C
+	 *                   sources.
+	 */
+	public void scanDirectory(String directory, Parser parser) throws Exception {
+		logger.fine("Scanning includes...");
+		List<Path> sources;
+
+		try (Stream<Path> paths = Files.walk(Paths.get(directory))) {
+			sources = paths.filter(Files::isRegularFile).filter(CSourceScanner::isCSource).sorted()
+					.collect(Collectors.toList());
+		}
+
+		if (sources.isEmpty()) {
+			System.out.println("Directory did not contain any C sources");
+			throw new Exception("Directory did not contain any C sources");
+		}
+
+		List<List<String>> includes = sources.parallelStream().map(this::getIncludes).collect(Collectors.toList());
+		HashMap<String, String> urlByFileName = new HashMap<String, String>();
+
+		for (Path source : sources) {
+			String fileName = source.getFileName().toString();
+			urlByFileName.put(fileName, "$" + CSourceScanner.escapeFileName(fileName) + ".html");
+		}
+
+		for (Map.Entry<String, String> file : urlByFileName.entrySet()) {
+			Node node = parser.addFunction(file.getKey(), file.getValue(), true);
+			node.setIsPublic(file.getKey().endsWith(".h"));
+		}
+
+		for (int i = 0; i < sources.size(); i++) {
+			String fileName = sources.get(i).getFileName().toString();
+			for (String include : includes.get(i)) {
+				String includedName = new File(include).getName();
+				if (urlByFileName.containsKey(includedName))
+					parser.addCall(fileName, includedName);
+			}
+		}
+
+		parser.groupModules();
+
+		if (cacheFile != null)
+			saveCache();
+	}
+
+	/**
+	 * Gets the includes of a file from the cache, or reads them if the file is not
+	 * cached or has changed since.
+	 *
+	 * @param source Path of the file.
+	 * @return Names as written in the #include lines of the file.
+	 */
+	private List<String> getIncludes(Path source) {
+		File file = source.toFile();
+		String key = file.getAbsolutePath();
+		CacheEntry entry = cache.get(key);
+
+		if (entry != null && entry.lastModified == file.lastModified() && entry.size == file.length())
+			return entry.includes;
+
+		List<String> includes = new ArrayList<String>();
+		try {
+			for (String line : Files.readAllLines(source, StandardCharsets.ISO_8859_1)) {
+				Matcher matcher = INCLUDE_PATTERN.matcher(line);
+				if (matcher.find())
+					includes.add(matcher.group(1));
+			}
+		} catch (IOException ex) {
+			logger.warning("Could not read " + source + ": " + ex);
+			return includes;
+		}
+
+		cache.put(key, new CacheEntry(file.lastModified(), file.length(), includes));
+		return includes;
+	}
+
+	/**
+	 * Loads the cache file. Each line holds path, modification time, size and the
+	 * '|' separated includes of one file, tab separated. A broken cache is ignored.
+	 */
+	private void loadCache() {
+		try (BufferedReader reader = new BufferedReader(new FileReader(cacheFile))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", -1);
+				if (fields.length != 4)
+					continue;
+				List<String> includes = new ArrayList<String>();
+				for (String include : fields[3].split("\\|"))
+					if (!include.isEmpty())
+						includes.add(include);
+				cache.put(fields[0], new CacheEntry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), includes));
+			}
+		} catch (Exception ex) {
+			logger.warning("Ignoring include cache " + cacheFile + ": " + ex);
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Saves the cache file (see loadCache for the format).
+	 */
+	private void saveCache() {
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(cacheFile))) {
+			for (Map.Entry<String, CacheEntry> entry : cache.entrySet()) {
+				CacheEntry value = entry.getValue();
+				writer.write(String.format("%s\t%d\t%d\t%s\n", entry.getKey(), value.lastModified, value.size,
+						String.join("|", value.includes)));
+			}
+		} catch (IOException ex) {
+			logger.warning("Could not save include cache " + cacheFile + ": " + ex);
+		}
+	}
+
+	/**
+	 * Includes of a file at a given modification time and size.
+	 */
+	private static class CacheEntry {
+		private long lastModified;
+		private long size;
+		private List<String> includes;
+
+		private CacheEntry(long lastModified, long size, List<String> includes) {
+			this.lastModified = lastModified;
+			this.size = size;
+			this.includes = includes;
+		}
+	}
+}
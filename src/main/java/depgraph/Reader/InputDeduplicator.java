@@ -0,0 +1,172 @@
+package depgraph.Reader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+import depgraph.Parser.SourceFile;
+
+/**
+ * Drops input files that would add nothing to the graph because an earlier file
+ * has the same contents, before they are tokenized.
+ *
+ * Doxygen writes the call graph of a function declared in a header and defined
+ * in a source file twice (e.g. adc_8c_ae0b9..._cgraph.dot and
+ * adc_8h_ae0b9..._cgraph.dot). Both files share the anchor of the function in
+ * their names and describe the same graph, but the node IDs (Node89 vs Node166)
+ * are numbered across the whole Doxygen run and usually differ. Node IDs are
+ * local to a file, so a file is fingerprinted with its node IDs renumbered in
+ * the order they first appear: the anchor from the file name, the length and
+ * the CRC32C of the renumbered contents. A file is a duplicate if an earlier
+ * file has the same fingerprint and the same renumbered contents.
+ *
+ * Files without a Doxygen anchor in their name are fingerprinted by their
+ * contents alone.
+ */
+public class InputDeduplicator {
+
+	private static Logger logger;
+
+	/**
+	 * Anchor of the function in the name of a Doxygen call graph file, e.g.
+	 * ae0b9ae6e4ef2dbf771dcc0ea30901ae2 in
+	 * adc_8c_ae0b9ae6e4ef2dbf771dcc0ea30901ae2_cgraph.dot.
+	 */
+	private static final Pattern ANCHOR = Pattern.compile("_(a[0-9a-f]{32})_[a-z]*graph\\.dot$");
+
+	/**
+	 * Quoted strings (skipped) and Doxygen node IDs (renumbered).
+	 */
+	private static final Pattern NODE_ID = Pattern.compile("\"(?:[^\"\\\\]|\\\\.)*\"|\\bNode\\d+\\b");
+
+	/**
+	 * Renumbered contents of the first file with each fingerprint, null if
+	 * contents are not compared.
+	 */
+	private HashMap<String, String> seen;
+
+	/**
+	 * Whether files with the same fingerprint are also compared character by
+	 * character.
+	 */
+	private boolean verifyContents;
+
+	private List<String> skippedFiles;
+
+	/**
+	 * No-arg constructor, compares the contents of files with the same
+	 * fingerprint.
+	 */
+	public InputDeduplicator() {
+		this(true);
+	}
+
+	/**
+	 * @param verifyContents Whether files with the same fingerprint are also
+	 *                       compared character by character. Without it only the
+	 *                       fingerprints are kept in memory, but two different
+	 *                       files could (very rarely) be taken for duplicates.
+	 */
+	public InputDeduplicator(boolean verifyContents) {
+		logger = Logger.getLogger("depgraph");
+		this.seen = new HashMap<String, String>();
+		this.verifyContents = verifyContents;
+		this.skippedFiles = new ArrayList<String>();
+	}
+
+	/**
+	 * @param files Files in the order they would be parsed.
+	 * @return The files that are not duplicates of an earlier file, in the same
+	 *         order.
+	 */
+	public List<SourceFile> deduplicate(List<SourceFile> files) {
+		List<SourceFile> unique = new ArrayList<SourceFile>();
+
+		for (SourceFile file : files)
+			if (!isDuplicate(file))
+				unique.add(file);
+
+		logger.info(String.format("Skipped %d duplicate input file(s) of %d", files.size() - unique.size(),
+				files.size()));
+
+		return unique;
+	}
+
+	/**
+	 * Checks a file against every file checked before and remembers it if it is
+	 * not a duplicate.
+	 *
+	 * @param file File to check.
+	 * @return true if an earlier file has the same contents.
+	 */
+	public boolean isDuplicate(SourceFile file) {
+		String normalized = normalize(file.getContents());
+		String fingerprint = getFingerprint(getAnchor(file.getName()), normalized);
+
+		if (!seen.containsKey(fingerprint)) {
+			seen.put(fingerprint, verifyContents ? normalized : null);
+			return false;
+		}
+
+		if (verifyContents && !seen.get(fingerprint).equals(normalized))
+			return false;
+
+		logger.fine("Skipping duplicate input file: " + file.getName());
+		skippedFiles.add(file.getName());
+		return true;
+	}
+
+	/**
+	 * @param fileName Name of a DOT file.
+	 * @return The Doxygen anchor in the file name, an empty string if there is
+	 *         none.
+	 */
+	static String getAnchor(String fileName) {
+		Matcher matcher = ANCHOR.matcher(fileName);
+		return matcher.find() ? matcher.group(1) : "";
+	}
+
+	/**
+	 * @param contents Contents of a DOT file.
+	 * @return The contents with every node ID outside of quoted strings replaced
+	 *         by Node0, Node1, ... in the order of first appearance.
+	 */
+	static String normalize(String contents) {
+		HashMap<String, String> ids = new HashMap<String, String>();
+		StringBuilder normalized = new StringBuilder(contents.length());
+		Matcher matcher = NODE_ID.matcher(contents);
+		int last = 0;
+
+		while (matcher.find()) {
+			if (matcher.group().charAt(0) == '"')
+				continue;
+			normalized.append(contents, last, matcher.start());
+			normalized.append(ids.computeIfAbsent(matcher.group(), id -> "Node" + ids.size()));
+			last = matcher.end();
+		}
+		normalized.append(contents, last, contents.length());
+
+		return normalized.toString();
+	}
+
+	private static String getFingerprint(String anchor, String normalized) {
+		CRC32C crc = new CRC32C();
+		crc.update(normalized.getBytes(StandardCharsets.UTF_8));
+		return String.format("%s:%d:%08x", anchor, normalized.length(), crc.getValue());
+	}
+
+	/* Setters and Getters */
+
+	/**
+	 * @return Names of the files found to be duplicates, in the order they were
+	 *         checked.
+	 */
+	public List<String> getSkippedFiles() {
+		return skippedFiles;
+	}
+}
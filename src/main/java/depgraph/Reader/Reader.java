@@ -5,9 +5,12 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Logger;
 
+import depgraph.Parser.SourceFile;
+
 /**
  *
  */
@@ -28,39 +31,73 @@ public class Reader {
 	 * @throws Exception if passed file is not a dot file.
 	 */
 	public List<String> readSingleFile(String filePath) throws Exception {
+		return getContents(readSourceFile(filePath));
+	}
+
+	/**
+	 * Method used to get the contents of all DOT files in a given directory as
+	 * a list of Strings (one string = one file).
+	 *
+	 * @param directory - A directory containing DOT files.
+	 * @return A list of strings, each string representing the contents of one
+	 * file. Null if the directory did not exist or did not contain DOT files.
+	 * @throws Exception if directory does not contain DOT files.
+	 */
+	public List<String> readDirectory(String directory) throws Exception {
+		return getContents(readSourceDirectory(directory));
+	}
+
+	/**
+	 * Same as readSingleFile, but keeps the name of the file with its contents.
+	 * Also reads every DOT file in a compressed file or archive (.dot.gz, .zip,
+	 * .tar.gz or .tgz, see ArchiveReader).
+	 *
+	 * @param filePath - The path of a single DOT file or archive to read.
+	 * @return A list containing the file, or the DOT files of the archive.
+	 * @throws Exception if passed file is not a dot file.
+	 */
+	public List<SourceFile> readSourceFile(String filePath) throws Exception {
 		logger.fine("Reading single file...");
-		List<String> filesList = new ArrayList<String>();
+		List<SourceFile> filesList = new ArrayList<SourceFile>();
 
-		if (isDotFile(filePath)) {
+		if (ArchiveReader.isArchive(filePath)) {
+			filesList.addAll(new ArchiveReader().read(filePath));
+			if (filesList.isEmpty())
+				throw new Exception("Archive did not contain any DOT files: " + filePath);
+		} else if (isDotFile(filePath)) {
 			logger.info("Reading file: " + filePath);
-			filesList.add(read(filePath));
+			filesList.add(new SourceFile(filePath, read(filePath)));
 		} else {
-			System.out.println("Invalid File Extension: Must be '.dot'");
-			throw new Exception("Invalid File Extension: Must be '.dot'");
+			System.out.println("Invalid File Extension: Must be '.dot', '.dot.gz', '.zip', '.tar.gz' or '.tgz'");
+			throw new Exception("Invalid File Extension: Must be '.dot', '.dot.gz', '.zip', '.tar.gz' or '.tgz'");
 		}
 
 		return filesList;
 	}
 
 	/**
-	 * Method used to get the contents of all DOT files in a given directory as
-	 * a list of Strings (one string = one file).
+	 * Same as readDirectory, but keeps the name of each file with its contents.
+	 * Compressed DOT files (.dot.gz) in the directory are read as well.
 	 *
 	 * @param directory - A directory containing DOT files.
-	 * @return A list of strings, each string representing the contents of one
-	 * file. Null if the directory did not exist or did not contain DOT files.
+	 * @return A list of the DOT files in the directory, sorted by name.
 	 * @throws Exception if directory does not contain DOT files.
 	 */
-	public List<String> readDirectory(String directory) throws Exception {
+	public List<SourceFile> readSourceDirectory(String directory) throws Exception {
 		logger.fine("Reading directory...");
 		File folder = new File(directory);
 		File[] filesInDir = folder.listFiles();
-		List<String> filesList = new ArrayList<String>();
+		List<SourceFile> filesList = new ArrayList<SourceFile>();
+
+		// listFiles order depends on the file system, the graph must not
+		Arrays.sort(filesInDir);
 
 		for (File file : filesInDir) {
 			if (file.isFile() && isDotFile(file.toString())) {
 				logger.info("Reading file: " + file.toString());
-				filesList.add(read(file.toString()));
+				filesList.add(new SourceFile(file.toString(), read(file.toString())));
+			} else if (file.isFile() && file.getName().endsWith(".dot.gz")) {
+				filesList.addAll(new ArchiveReader().read(file.toString()));
 			}
 		}
 
@@ -72,6 +109,39 @@ public class Reader {
 		return filesList;
 	}
 
+	/**
+	 * Lists the DOT files in a given directory without reading them, so they
+	 * can be read (and dropped) one at a time.
+	 *
+	 * @param directory - A directory containing DOT files.
+	 * @return Paths of the DOT files in the directory, sorted by name.
+	 * @throws Exception if directory does not contain DOT files.
+	 */
+	public List<String> listDotFiles(String directory) throws Exception {
+		File[] filesInDir = new File(directory).listFiles();
+		List<String> paths = new ArrayList<String>();
+
+		Arrays.sort(filesInDir);
+
+		for (File file : filesInDir)
+			if (file.isFile() && (isDotFile(file.toString()) || file.getName().endsWith(".dot.gz")))
+				paths.add(file.toString());
+
+		if (paths.isEmpty()) {
+			System.out.println("Directory did not contain any DOT files");
+			throw new Exception("Directory did not contain any DOT files");
+		}
+
+		return paths;
+	}
+
+	private List<String> getContents(List<SourceFile> files) {
+		List<String> contents = new ArrayList<String>();
+		for (SourceFile file : files)
+			contents.add(file.getContents());
+		return contents;
+	}
+
 	/**
 	 * Helper function to read contents of file and convert it to a string.
 	 *
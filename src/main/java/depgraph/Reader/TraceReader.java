@@ -0,0 +1,179 @@
+package depgraph.Reader;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import depgraph.Parser.Edge;
+
+/**
+ * Reads run-time call counts from a trace or profiler export and attaches them
+ * to the edges of the graph. Two formats are supported:
+ * <ul>
+ * <li>.csv - one call per line: caller, callee and count, separated by commas,
+ * semicolons or tabs. Lines without a numeric count (e.g. a header) are
+ * skipped.</li>
+ * <li>anything else - folded sample stacks, one stack per line with its frames
+ * separated by semicolons and the number of samples last (e.g.
+ * main;ENG_TSK_Main;LTC_Read 120). Every caller/callee pair on the stack is
+ * counted once per sample.</li>
+ * </ul>
+ *
+ * Either may be gzip compressed (.gz). The export is streamed line by line,
+ * only the totals per caller/callee pair are kept in memory.
+ */
+public class TraceReader {
+
+	private static Logger logger;
+
+	/**
+	 * Total count of each call, keyed by caller and callee label.
+	 */
+	private HashMap<String, Long> callCounts;
+
+	public TraceReader() {
+		logger = Logger.getLogger("depgraph");
+		callCounts = new HashMap<String, Long>();
+	}
+
+	/**
+	 * Adds the call counts of an export to the counts read so far.
+	 *
+	 * @param filePath - Path of the export.
+	 * @throws IOException If the file can not be read.
+	 */
+	public void read(String filePath) throws IOException {
+		boolean csv = filePath.endsWith(".csv") || filePath.endsWith(".csv.gz");
+		int skipped = 0;
+
+		InputStream in = new FileInputStream(filePath);
+		if (filePath.endsWith(".gz"))
+			in = new GZIPInputStream(in, 1 << 16);
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				if (!(csv ? addCsvLine(line) : addStack(line)))
+					skipped++;
+			}
+		}
+
+		if (skipped > 0)
+			logger.warning(String.format("%s: skipped %d unreadable line(s)", filePath, skipped));
+		logger.info(String.format("Read %d distinct call(s) from %s", callCounts.size(), filePath));
+	}
+
+	/**
+	 * @param line - caller,callee,count
+	 * @return False if the line is not a call.
+	 */
+	boolean addCsvLine(String line) {
+		String[] fields = line.split("[,;\t]");
+		if (fields.length < 3)
+			return false;
+
+		long count;
+		try {
+			count = Long.parseLong(fields[fields.length - 1].trim());
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+
+		addCall(unquote(fields[0]), unquote(fields[1]), count);
+		return true;
+	}
+
+	/**
+	 * @param line - Folded stack, frame;frame;... samples
+	 * @return False if the line is not a stack.
+	 */
+	boolean addStack(String line) {
+		int space = line.lastIndexOf(' ');
+		if (space == -1)
+			return false;
+
+		long count;
+		try {
+			count = Long.parseLong(line.substring(space + 1));
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+
+		// A recursive stack contains the same call more than once
+		HashSet<String> seen = new HashSet<String>();
+		String[] frames = line.substring(0, space).split(";");
+		for (int i = 0; i + 1 < frames.length; i++) {
+			String caller = frames[i].trim();
+			String callee = frames[i + 1].trim();
+			if (seen.add(getKey(caller, callee)))
+				addCall(caller, callee, count);
+		}
+		return true;
+	}
+
+	private void addCall(String caller, String callee, long count) {
+		if (!caller.isEmpty() && !callee.isEmpty() && count > 0)
+			callCounts.merge(getKey(caller, callee), count, Long::sum);
+	}
+
+	private static String unquote(String field) {
+		String value = field.trim();
+		if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+			value = value.substring(1, value.length() - 1).trim();
+		return value;
+	}
+
+	private static String getKey(String caller, String callee) {
+		return caller + "\t" + callee;
+	}
+
+	/**
+	 * Sets the call count of every edge to the count read for its caller and
+	 * callee, 0 if the call was not seen.
+	 *
+	 * @param edges - Edges of the graph.
+	 * @return Number of edges with a call count.
+	 */
+	public int apply(List<Edge> edges) {
+		int matched = 0;
+
+		for (Edge edge : edges) {
+			Long count = callCounts.get(
+					getKey(edge.getSourceNodeObject().getNodeLabel(), edge.getDestinationNodeObject().getNodeLabel()));
+			edge.setCallCount((count == null) ? 0 : count);
+			if (count != null)
+				matched++;
+		}
+
+		logger.info(String.format("Call counts found for %d of %d edge(s)", matched, edges.size()));
+		return matched;
+	}
+
+	/**
+	 * @param caller - Label of the calling function.
+	 * @param callee - Label of the called function.
+	 * @return Total count of the call, 0 if it was not seen.
+	 */
+	public long getCallCount(String caller, String callee) {
+		Long count = callCounts.get(getKey(caller, callee));
+		return (count == null) ? 0 : count;
+	}
+
+	/**
+	 * @return Number of distinct calls read.
+	 */
+	public int size() {
+		return callCounts.size();
+	}
+}
@@ -0,0 +1,106 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.Reader;
+
+public class TestArchiveReader {
+
+	private static final String GRAPH = "digraph \"BMS_Init\" {\n  Node1 [label=\"BMS_Init\"];\n"
+			+ "  Node1 -> Node2;\n  Node2 [label=\"OS_Delay\"];\n}\n";
+
+	@TempDir
+	File tempDir;
+
+	/**
+	 * Appends a regular file entry (ustar header, data, padding) to a tar stream.
+	 */
+	private void writeTarEntry(OutputStream out, String name, byte[] data, char type) throws Exception {
+		byte[] header = new byte[512];
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(nameBytes, 0, header, 0, Math.min(100, nameBytes.length));
+		byte[] size = String.format("%011o", data.length).getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(size, 0, header, 124, size.length);
+		header[156] = (byte) type;
+		System.arraycopy("ustar".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 5);
+		out.write(header);
+		out.write(data);
+		out.write(new byte[(512 - data.length % 512) % 512]);
+	}
+
+	@Test
+	public void testZipEntriesAreReadInNameOrder() throws Exception {
+		File zip = new File(tempDir, "doxygen.zip");
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+			for (String name : new String[] { "html/b_cgraph.dot", "html/index.html", "html/a_cgraph.dot" }) {
+				out.putNextEntry(new ZipEntry(name));
+				out.write(GRAPH.getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+
+		List<SourceFile> files = new Reader().readSourceFile(zip.getPath());
+
+		assertEquals(2, files.size());
+		assertEquals(zip.getPath() + "!/html/a_cgraph.dot", files.get(0).getName());
+		assertEquals(zip.getPath() + "!/html/b_cgraph.dot", files.get(1).getName());
+		assertEquals(GRAPH, files.get(0).getContents());
+	}
+
+	@Test
+	public void testTarGzEntriesAreRead() throws Exception {
+		File tgz = new File(tempDir, "doxygen.tar.gz");
+		String longName = "html/" + "x".repeat(120) + "_cgraph.dot";
+		ByteArrayOutputStream longNameData = new ByteArrayOutputStream();
+		longNameData.write(longName.getBytes(StandardCharsets.UTF_8));
+		longNameData.write(0);
+
+		try (OutputStream out = new GZIPOutputStream(new FileOutputStream(tgz))) {
+			writeTarEntry(out, "html/", new byte[0], '5');
+			writeTarEntry(out, "html/index.html", "<html/>".getBytes(StandardCharsets.UTF_8), '0');
+			writeTarEntry(out, "html/bms_cgraph.dot", GRAPH.getBytes(StandardCharsets.UTF_8), '0');
+			writeTarEntry(out, "././@LongLink", longNameData.toByteArray(), 'L');
+			writeTarEntry(out, "html/truncated", GRAPH.getBytes(StandardCharsets.UTF_8), '0');
+			out.write(new byte[1024]);
+		}
+
+		List<SourceFile> files = new Reader().readSourceFile(tgz.getPath());
+
+		assertEquals(2, files.size());
+		assertEquals(tgz.getPath() + "!/html/bms_cgraph.dot", files.get(0).getName());
+		assertEquals(tgz.getPath() + "!/" + longName, files.get(1).getName());
+
+		Parser parser = new Parser();
+		parser.parseSourceFiles(files);
+		assertEquals(2, parser.getNodes().size());
+		assertEquals(1, parser.getEdges().size());
+	}
+
+	@Test
+	public void testCompressedDotFilesInDirectoryAreRead() throws Exception {
+		try (OutputStream out = new GZIPOutputStream(new FileOutputStream(new File(tempDir, "bms_cgraph.dot.gz")))) {
+			out.write(GRAPH.getBytes(StandardCharsets.UTF_8));
+		}
+
+		List<SourceFile> files = new Reader().readSourceDirectory(tempDir.getPath());
+
+		assertEquals(1, files.size());
+		assertEquals(new File(tempDir, "bms_cgraph.dot").getPath(), files.get(0).getName());
+		assertEquals(GRAPH, files.get(0).getContents());
+	}
+}
@@ -0,0 +1,83 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+import depgraph.Reader.CSourceScanner;
+
+public class TestCSourceScanner {
+
+	private void write(File file, String contents) throws Exception {
+		FileWriter writer = new FileWriter(file);
+		writer.write(contents);
+		writer.close();
+	}
+
+	private HashSet<String> scanCalls(File directory) throws Exception {
+		Parser parser = new Parser();
+		new CSourceScanner().scanDirectory(directory.getPath(), parser);
+		HashSet<String> calls = new HashSet<String>();
+		for (Edge edge : parser.getEdges())
+			calls.add(edge.getSourceNodeObject().getNodeLabel() + "->" + edge.getDestinationNodeObject().getNodeLabel());
+		return calls;
+	}
+
+	@Test
+	public void testScanDirectoryThrowsExceptionWithoutSources(@TempDir File tempDir) {
+		assertThrows(Exception.class, () -> new CSourceScanner().scanDirectory(tempDir.getPath(), new Parser()));
+	}
+
+	@Test
+	public void testFindsCallsBetweenDefinedFunctions(@TempDir File tempDir) throws Exception {
+		write(new File(tempDir, "os.c"), "void OS_Enter(void) { }\nvoid OS_Exit(void) { }\n");
+		write(new File(tempDir, "bms.c"), "#include \"os.h\"\n" + "/* BMS_Fake(); */\n"
+				+ "static int bms_table[] = { 1, 2 };\n" + "void BMS_Trigger(void) {\n" + "    // OS_Fake();\n"
+				+ "    if (bms_table[0]) {\n" + "        OS_Enter();\n" + "    }\n"
+				+ "    printf(\"OS_Exit()\");\n" + "    memset(bms_table, 0, sizeof(bms_table));\n" + "}\n");
+
+		HashSet<String> calls = scanCalls(tempDir);
+		assertEquals(1, calls.size());
+		assertTrue(calls.contains("BMS_Trigger->OS_Enter"));
+	}
+
+	@Test
+	public void testKeepsOnlyFirstPreprocessorBranch(@TempDir File tempDir) throws Exception {
+		write(new File(tempDir, "io.c"), "void IO_A(void) { }\nvoid IO_B(void) { }\nvoid IO_C(void) { }\n");
+		write(new File(tempDir, "led.c"), "void LED_Set(void)\n" + "{\n" + "#if defined(USE_A)\n"
+				+ "    if (1) { IO_A();\n" + "#else\n" + "    if (0) { IO_B();\n" + "#endif\n" + "    }\n"
+				+ "#if 0\n" + "    IO_B();\n" + "#else\n" + "    IO_C();\n" + "#endif\n" + "}\n");
+
+		HashSet<String> calls = scanCalls(tempDir);
+		assertEquals(2, calls.size());
+		assertTrue(calls.contains("LED_Set->IO_A"));
+		assertTrue(calls.contains("LED_Set->IO_C"));
+	}
+
+	@Test
+	public void testMacroContinuationWithCrlfLineEndings(@TempDir File tempDir) throws Exception {
+		write(new File(tempDir, "mk.c"), "#define MK(n) \\\r\n" + "    void n(void) { helper(); }\r\n"
+				+ "void helper(void) { }\r\n" + "void MK_Run(void) {\r\n" + "    helper();\r\n" + "}\r\n");
+
+		// Record calls within a module too, n and helper would share one
+		Parser parser = new Parser();
+		parser.setRecordCalls(true);
+		new CSourceScanner().scanDirectory(tempDir.getPath(), parser);
+		for (Node node : parser.getNodes())
+			assertNotEquals("n", node.getNodeLabel());
+
+		HashSet<String> calls = new HashSet<String>();
+		for (Edge edge : parser.getCalls())
+			calls.add(edge.getSourceNodeObject().getNodeLabel() + "->" + edge.getDestinationNodeObject().getNodeLabel());
+		assertFalse(calls.contains("n->helper"));
+		assertTrue(calls.contains("MK_Run->helper"));
+	}
+}
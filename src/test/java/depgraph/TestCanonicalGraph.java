@@ -0,0 +1,107 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.GraphWriter.CanonicalGraph;
+import depgraph.GraphWriter.GraphWriter;
+import depgraph.ImageRenderer.ImageRenderer;
+import depgraph.Parser.Edge;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.Reader;
+
+public class TestCanonicalGraph {
+
+	@TempDir
+	File tempDir;
+
+	private Parser parse(List<SourceFile> files) {
+		Parser parser = new Parser();
+		parser.parseSourceFiles(files);
+		return parser;
+	}
+
+	private String write(Parser parser, String name) throws Exception {
+		GraphWriter writer = new GraphWriter(parser.getModules(), parser.getEdges());
+		writer.readTemplates();
+		String fileName = new File(tempDir, name).getPath();
+		writer.writeGraph(fileName);
+		assertEquals(CanonicalGraph.sha256(new String(Files.readAllBytes(new File(fileName + ".dot").toPath()))),
+				writer.getGraphHash());
+		return writer.getGraphHash();
+	}
+
+	@Test
+	public void testOutputDoesNotDependOnInputOrder() throws Exception {
+		List<SourceFile> files = new Reader().readSourceDirectory("test/dot-files");
+		Parser forward = parse(files);
+		List<SourceFile> reversed = new ArrayList<SourceFile>(files);
+		Collections.reverse(reversed);
+		Parser backward = parse(reversed);
+
+		assertEquals(new CanonicalGraph(forward.getModules(), forward.getEdges()).getContentHash(),
+				new CanonicalGraph(backward.getModules(), backward.getEdges()).getContentHash());
+		assertEquals(write(forward, "forward"), write(backward, "backward"));
+		assertArrayEquals(Files.readAllBytes(new File(tempDir, "forward.dot").toPath()),
+				Files.readAllBytes(new File(tempDir, "backward.dot").toPath()));
+	}
+
+	@Test
+	public void testModulesNodesAndEdgesAreSortedAndRenumbered() throws Exception {
+		Parser parser = parse(new Reader().readSourceDirectory("test/dot-files"));
+		CanonicalGraph canonical = new CanonicalGraph(parser.getModules(), parser.getEdges());
+
+		for (int i = 1; i < canonical.getModules().size(); i++)
+			assertTrue(canonical.getModules().get(i - 1).getModulePrefix()
+					.compareTo(canonical.getModules().get(i).getModulePrefix()) < 0);
+
+		assertEquals("Node0", canonical.getModules().get(0).getNodes().get(0).getNodeId());
+
+		for (int i = 1; i < canonical.getEdges().size(); i++) {
+			Edge previous = canonical.getEdges().get(i - 1);
+			Edge edge = canonical.getEdges().get(i);
+			int order = previous.getSourceNodeObject().getNodeLabel()
+					.compareTo(edge.getSourceNodeObject().getNodeLabel());
+			if (order == 0)
+				order = previous.getDestinationNodeObject().getNodeLabel()
+						.compareTo(edge.getDestinationNodeObject().getNodeLabel());
+			assertTrue(order < 0);
+		}
+
+		assertEquals(parser.getEdges().size(), canonical.getEdges().size());
+	}
+
+	@Test
+	public void testContentHashChangesWithTheGraph() throws Exception {
+		Parser all = parse(new Reader().readSourceDirectory("test/dot-files"));
+		Parser one = parse(
+				new Reader().readSourceFile("test/dot-files/bms_8c_a40eb276efea852638c5ba83e53569ebc_cgraph.dot"));
+
+		assertNotEquals(new CanonicalGraph(all.getModules(), all.getEdges()).getContentHash(),
+				new CanonicalGraph(one.getModules(), one.getEdges()).getContentHash());
+	}
+
+	@Test
+	public void testRendererSkipsOutputWithMatchingHash() throws Exception {
+		File output = new File(tempDir, "out.pdf");
+		Files.write(output.toPath(), "rendered".getBytes());
+		Files.write(new File(tempDir, "out.pdf.sha256").toPath(), "abc\n".getBytes());
+
+		ImageRenderer renderer = new ImageRenderer();
+		assertTrue(renderer.isUpToDate(output.getPath(), "abc"));
+		assertFalse(renderer.isUpToDate(output.getPath(), "def"));
+		assertFalse(renderer.renderImageIfChanged(output.getPath(), "abc"));
+
+		output.delete();
+		assertFalse(renderer.isUpToDate(output.getPath(), "abc"));
+	}
+}
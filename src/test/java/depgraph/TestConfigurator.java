@@ -35,4 +35,13 @@ public class TestConfigurator {
 		Configurator config = new Configurator();
 		assertEquals(ConfigType.NONE, config.manageCmdLineArguments(args));
 	}
+
+	@Test
+	public void testFocusIsNotCombinedWithFilter() {
+		String[] args = { "-d", "test/dot-files", "-f", "BMS", "-F", "{BMS} => {DIAG}" };
+		Configurator config = new Configurator();
+		config.manageCmdLineArguments(args);
+		assertTrue(config.isFiltered());
+		assertFalse(config.isFocused());
+	}
 }
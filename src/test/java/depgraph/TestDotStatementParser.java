@@ -0,0 +1,108 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Parser.DotStatement;
+import depgraph.Parser.DotStatementParser;
+import depgraph.Parser.Edge;
+import depgraph.Parser.Parser;
+import depgraph.Parser.TokenType;
+
+public class TestDotStatementParser {
+
+	private List<DotStatement> statementsOfType(List<DotStatement> statements, TokenType type) {
+		List<DotStatement> result = new ArrayList<DotStatement>();
+		for (DotStatement statement : statements)
+			if (statement.getType() == type)
+				result.add(statement);
+		return result;
+	}
+
+	@Test
+	public void testReadsSeveralStatementsPerLine() {
+		List<DotStatement> statements = new DotStatementParser(
+				"digraph \"G\" { a [label=\"A_Init\"]; b; a -> b [color=red] }").parse();
+
+		assertEquals(TokenType.DIGRAPH_DEF, statements.get(0).getType());
+		assertEquals(Arrays.asList("G"), statements.get(0).getIds());
+		assertEquals(2, statementsOfType(statements, TokenType.NODE_STMT).size());
+		assertEquals("A_Init", statements.get(1).getAttribute("label"));
+
+		DotStatement edge = statementsOfType(statements, TokenType.EDGE_STMT).get(0);
+		assertEquals(Arrays.asList("a", "b"), edge.getIds());
+		assertEquals("red", edge.getAttribute("color"));
+	}
+
+	@Test
+	public void testReadsStatementsSpreadOverLines() {
+		List<DotStatement> statements = new DotStatementParser(
+				"digraph G {\n  a\n  [label=\"x\",\n   URL=\"$a_8c.html\"]\n  b\n}\n").parse();
+
+		List<DotStatement> nodes = statementsOfType(statements, TokenType.NODE_STMT);
+		assertEquals(2, nodes.size());
+		assertEquals("$a_8c.html", nodes.get(0).getAttribute("URL"));
+		assertEquals(2, nodes.get(0).getLine());
+		assertEquals(5, nodes.get(1).getLine());
+	}
+
+	@Test
+	public void testSplitsEdgeChainsAndSubgraphs() {
+		List<DotStatement> statements = new DotStatementParser(
+				"digraph { a -> b -> c; subgraph cluster_x { d; e } -> f; g:port:n -> { h i } }").parse();
+
+		List<String> edges = new ArrayList<String>();
+		for (DotStatement edge : statementsOfType(statements, TokenType.EDGE_STMT))
+			edges.add(edge.getIds().get(0) + "->" + edge.getIds().get(1));
+
+		assertEquals(Arrays.asList("a->b", "b->c", "d->f", "e->f", "g->h", "g->i"), edges);
+	}
+
+	@Test
+	public void testHandlesQuotingCommentsAndAttributeStatements() {
+		List<DotStatement> statements = new DotStatementParser("/* generated */\n#line 1\n"
+				+ "strict digraph \"call graph\" {\n" + "  // defaults\n" + "  node [shape=record]; rankdir=LR\n"
+				+ "  \"say \\\"hi\\\"\" -> \"multi\" + \"part\"\n" + "}\n").parse();
+
+		assertEquals(Arrays.asList("call graph"), statements.get(0).getIds());
+		assertEquals(1, statementsOfType(statements, TokenType.NODE_ATTR_STMT).size());
+		assertEquals(Arrays.asList("say \"hi\"", "multipart"),
+				statementsOfType(statements, TokenType.EDGE_STMT).get(0).getIds());
+	}
+
+	@Test
+	public void testRecordsErrorsAndKeepsParsing() {
+		DotStatementParser parser = new DotStatementParser("digraph {\n a -> ;\n b -> c\n ] d\n");
+		List<DotStatement> statements = parser.parse();
+
+		assertEquals(3, parser.getErrors().size());
+		assertEquals(2, parser.getErrors().get(0).getLine());
+		assertEquals(1, statementsOfType(statements, TokenType.EDGE_STMT).size());
+		assertEquals(1, statementsOfType(statements, TokenType.NODE_STMT).size());
+	}
+
+	@Test
+	public void testParserReadsDotFromOtherGenerators() {
+		// Unquoted IDs, no node declarations, record labels and edge chains
+		String cflow = "digraph cflow {\n  main -> BMS_Init -> OS_Delay;\n  main -> IO_Set\n}\n";
+		String clang = "digraph \"Call graph\" {\n\tNode0x1 [shape=record,label=\"{BMS_Init}\"];\n"
+				+ "\tNode0x2 [shape=record,label=\"{IO_Set}\"];\n\tNode0x1 -> Node0x2;\n}\n";
+
+		Parser parser = new Parser();
+		parser.parse(Arrays.asList(cflow, clang));
+
+		List<String> edges = new ArrayList<String>();
+		for (Edge edge : parser.getEdges())
+			edges.add(edge.getSourceNodeObject().getNodeLabel() + "->" + edge.getDestinationNodeObject().getNodeLabel());
+
+		assertEquals(4, parser.getNodes().size());
+		assertTrue(edges.contains("BMS_Init->OS_Delay"));
+		assertTrue(edges.contains("main->IO_Set"));
+		assertTrue(edges.contains("BMS_Init->IO_Set"));
+	}
+}
@@ -0,0 +1,41 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+import depgraph.Reader.DoxygenXmlReader;
+
+public class TestDoxygenXmlReader {
+
+	@Test
+	public void testReadDirectoryThrowsExceptionOnBadDirectory() {
+		DoxygenXmlReader reader = new DoxygenXmlReader();
+		assertThrows(Exception.class, () -> reader.readDirectory("dummy/file/path", new Parser()));
+	}
+
+	@Test
+	public void testFunctionsAreReadOnce() throws Exception {
+		Parser parser = new Parser();
+		new DoxygenXmlReader().readDirectory("test/xml-files", parser);
+
+		assertEquals(5, parser.getNodes().size());
+		for (Node node : parser.getNodes())
+			assertNotEquals("bal_state", node.getNodeLabel());
+	}
+
+	@Test
+	public void testOnlyCrossModuleCallsBecomeEdges() throws Exception {
+		Parser parser = new Parser();
+		new DoxygenXmlReader().readDirectory("test/xml-files", parser);
+
+		assertEquals(3, parser.getEdges().size());
+		for (Edge edge : parser.getEdges())
+			assertNotEquals(edge.getSourceNodeObject().getModulePrefix(),
+					edge.getDestinationNodeObject().getModulePrefix());
+		assertEquals(3, parser.getModules().size());
+	}
+}
@@ -0,0 +1,94 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import depgraph.Analysis.CallGraph;
+import depgraph.Analysis.FocusView;
+import depgraph.Analysis.FocusView.Direction;
+import depgraph.Parser.Edge;
+import depgraph.Parser.Module;
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+
+public class TestFocusView {
+
+	// APP_Top -> CONT_Set -> CONT_Open -> IO_Write, DIAG_Check -> CONT_Set
+	private static final String GRAPH = "digraph \"APP_Top\" {\n" + "  Node1 [label=\"APP_Top\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"CONT_Set\"];\n" + "  Node2 -> Node3;\n"
+			+ "  Node3 [label=\"CONT_Open\"];\n" + "  Node3 -> Node4;\n" + "  Node4 [label=\"IO_Write\"];\n"
+			+ "  Node5 [label=\"DIAG_Check\"];\n" + "  Node5 -> Node2;\n" + "}\n";
+
+	private Parser parser;
+
+	private CallGraph graph;
+
+	@BeforeEach
+	public void parse() {
+		parser = new Parser();
+		parser.setRecordCalls(true);
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("graph.dot", GRAPH)));
+		graph = new CallGraph(parser.getNodes(), parser.getCalls());
+	}
+
+	private List<String> functions(FocusView view) {
+		List<String> labels = new ArrayList<String>();
+		for (Module module : view.getModules())
+			for (Node node : module.getNodes())
+				labels.add(node.getNodeLabel());
+		labels.sort(null);
+		return labels;
+	}
+
+	@Test
+	public void testNeighbourhoodOfAFunction() throws Exception {
+		FocusView both = new FocusView(graph, "CONT_Set", 1, Direction.BOTH);
+		assertEquals(Arrays.asList("APP_Top", "CONT_Open", "CONT_Set", "DIAG_Check"), functions(both));
+		assertEquals(3, both.getEdges().size());
+
+		FocusView callees = new FocusView(graph, "CONT_Set", 2, Direction.OUT);
+		assertEquals(Arrays.asList("CONT_Open", "CONT_Set", "IO_Write"), functions(callees));
+		for (Edge edge : callees.getEdges())
+			assertNotEquals("APP_Top", edge.getSourceNodeObject().getNodeLabel());
+
+		FocusView callers = new FocusView(graph, "IO_Write", 2, Direction.IN);
+		assertEquals(Arrays.asList("CONT_Open", "CONT_Set", "IO_Write"), functions(callers));
+	}
+
+	@Test
+	public void testNeighbourhoodOfAModule() throws Exception {
+		FocusView module = new FocusView(graph, "cont", 0, Direction.fromSpec("both"));
+		assertEquals(Arrays.asList("CONT_Open", "CONT_Set"), functions(module));
+		assertEquals(1, module.getModules().size());
+		assertEquals(1, module.getEdges().size());
+
+		assertThrows(Exception.class, () -> new FocusView(graph, "NONE", 1, Direction.BOTH));
+		assertThrows(Exception.class, () -> Direction.fromSpec("sideways"));
+	}
+
+	@Test
+	public void testReversedGraphListsCallers() {
+		CallGraph reversed = graph.reverse();
+		int set = reversed.indexOf("CONT_Set");
+		List<String> callers = new ArrayList<String>();
+		for (int call = reversed.firstCall(set); call < reversed.endCall(set); call++)
+			callers.add(reversed.getLabel(reversed.target(call)));
+		callers.sort(null);
+
+		assertEquals(Arrays.asList("APP_Top", "DIAG_Check"), callers);
+		assertEquals(graph.callCount(), reversed.callCount());
+		assertSame(reversed, graph.reverse());
+		assertSame(graph, reversed.reverse());
+
+		// Calls keep their original edge, from caller to callee
+		for (int call = reversed.firstCall(set); call < reversed.endCall(set); call++)
+			assertEquals("CONT_Set", reversed.getCall(call).getDestinationNodeObject().getNodeLabel());
+	}
+}
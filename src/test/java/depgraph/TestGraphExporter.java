@@ -0,0 +1,77 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import depgraph.GraphWriter.AdjacencyMatrixExporter;
+import depgraph.GraphWriter.CsvExporter;
+import depgraph.GraphWriter.GraphMLExporter;
+import depgraph.GraphWriter.GraphWriter;
+import depgraph.GraphWriter.JsonExporter;
+import depgraph.Parser.Parser;
+import depgraph.Reader.Reader;
+
+public class TestGraphExporter {
+	private Parser parser;
+
+	@BeforeEach
+	public void parseTestFile() throws Exception {
+		Reader reader = new Reader();
+		List<String> files = reader
+				.readSingleFile("test/dot-files/bms_8c_a40eb276efea852638c5ba83e53569ebc_cgraph.dot");
+		parser = new Parser();
+		parser.parse(files);
+	}
+
+	@Test
+	public void testJsonExporterWritesEveryEdge() throws Exception {
+		StringWriter out = new StringWriter();
+		new JsonExporter().export(parser.getModules(), parser.getEdges(), out);
+		String json = out.toString();
+		assertTrue(json.startsWith("{"));
+		assertTrue(json.contains("\"prefix\": \"BMS\""));
+		assertEquals(parser.getEdges().size(), json.split("\"source\":").length - 1);
+	}
+
+	@Test
+	public void testGraphMLExporterWritesEveryNode() throws Exception {
+		StringWriter out = new StringWriter();
+		new GraphMLExporter().export(parser.getModules(), parser.getEdges(), out);
+		assertEquals(parser.getNodes().size(), out.toString().split("<node ").length - 1);
+		assertTrue(out.toString().trim().endsWith("</graphml>"));
+	}
+
+	@Test
+	public void testCsvExporterWritesHeaderAndOneRowPerEdge() throws Exception {
+		StringWriter out = new StringWriter();
+		new CsvExporter().export(parser.getModules(), parser.getEdges(), out);
+		String[] rows = out.toString().split("\n");
+		assertEquals("source,target,source_module,target_module", rows[0]);
+		assertEquals(parser.getEdges().size() + 1, rows.length);
+	}
+
+	@Test
+	public void testAdjacencyMatrixIsSquare() throws Exception {
+		StringWriter out = new StringWriter();
+		new AdjacencyMatrixExporter().export(parser.getModules(), parser.getEdges(), out);
+		String[] rows = out.toString().split("\n");
+		assertEquals(parser.getModules().size() + 1, rows.length);
+		for (String row : rows)
+			assertEquals(parser.getModules().size() + 1, row.split(",").length);
+	}
+
+	@Test
+	public void testGraphWriterKnowsDefaultExportFormats() {
+		GraphWriter writer = new GraphWriter();
+		assertTrue(writer.isExportFormat("json"));
+		assertTrue(writer.isExportFormat("graphml"));
+		assertTrue(writer.isExportFormat("csv"));
+		assertTrue(writer.isExportFormat("matrix"));
+		assertFalse(writer.isExportFormat("pdf"));
+	}
+}
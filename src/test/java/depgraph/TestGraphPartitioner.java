@@ -0,0 +1,76 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.GraphWriter.GraphPartitioner;
+import depgraph.GraphWriter.GraphWriter;
+import depgraph.Parser.Module;
+import depgraph.Parser.Parser;
+import depgraph.Reader.Reader;
+
+public class TestGraphPartitioner {
+	private Parser parser;
+
+	@BeforeEach
+	public void parseTestFiles() throws Exception {
+		parser = new Parser();
+		parser.parse(new Reader().readDirectory("test/dot-files"));
+	}
+
+	@Test
+	public void testEveryModuleIsOnExactlyOnePage() {
+		List<List<Module>> pages = new GraphPartitioner(40).partition(parser.getModules(), parser.getEdges());
+		HashSet<String> seen = new HashSet<String>();
+		int count = 0;
+
+		for (List<Module> page : pages)
+			for (Module module : page) {
+				seen.add(module.getModulePrefix());
+				count++;
+			}
+
+		assertEquals(parser.getModules().size(), count);
+		assertEquals(parser.getModules().size(), seen.size());
+	}
+
+	@Test
+	public void testPagesRespectNodeLimit() {
+		int limit = 40;
+		List<List<Module>> pages = new GraphPartitioner(limit).partition(parser.getModules(), parser.getEdges());
+
+		for (List<Module> page : pages) {
+			int nodes = page.stream().mapToInt(m -> m.getNodes().size()).sum();
+			assertTrue(nodes <= limit || page.size() == 1);
+		}
+	}
+
+	@Test
+	public void testLargeLimitGivesSinglePage() {
+		List<List<Module>> pages = new GraphPartitioner(Integer.MAX_VALUE / 2).partition(parser.getModules(),
+				parser.getEdges());
+		assertEquals(1, pages.size());
+	}
+
+	@Test
+	public void testExportFormatsAreWrittenPerPage(@TempDir Path tempDir) throws Exception {
+		List<List<Module>> pages = new GraphPartitioner(40).partition(parser.getModules(), parser.getEdges());
+		GraphWriter writer = new GraphWriter(parser.getModules(), parser.getEdges());
+		List<String> files = writer.exportPartitionedGraph(tempDir.resolve("out").toString(), 40, "json");
+
+		assertEquals(pages.size(), files.size());
+		for (int i = 0; i < files.size(); i++) {
+			assertEquals(tempDir.resolve("out_part" + i + ".json").toString(), files.get(i));
+			assertTrue(new File(files.get(i)).length() > 0);
+		}
+		assertFalse(new File(tempDir.resolve("out_part0.dot").toString()).exists());
+	}
+}
@@ -0,0 +1,83 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+import depgraph.Parser.UrlModuleStrategy;
+import depgraph.Reader.IncludeScanner;
+
+public class TestIncludeScanner {
+
+	private void write(File file, String contents) throws Exception {
+		FileWriter writer = new FileWriter(file);
+		writer.write(contents);
+		writer.close();
+	}
+
+	private HashSet<String> scanIncludes(IncludeScanner scanner, File directory) throws Exception {
+		Parser parser = new Parser();
+		parser.setModuleStrategy(new UrlModuleStrategy());
+		scanner.scanDirectory(directory.getPath(), parser);
+		HashSet<String> includes = new HashSet<String>();
+		for (Edge edge : parser.getEdges())
+			includes.add(edge.getSourceNodeObject().getNodeLabel() + "->" + edge.getDestinationNodeObject().getNodeLabel());
+		return includes;
+	}
+
+	@Test
+	public void testScanDirectoryThrowsExceptionWithoutSources(@TempDir File tempDir) {
+		assertThrows(Exception.class, () -> new IncludeScanner().scanDirectory(tempDir.getPath(), new Parser()));
+	}
+
+	@Test
+	public void testFindsIncludesOfFilesInTree(@TempDir File tempDir) throws Exception {
+		new File(tempDir, "os").mkdir();
+		write(new File(tempDir, "os/os.h"), "void OS_Enter(void);\n");
+		write(new File(tempDir, "bms.h"), "#include <stdint.h>\n");
+		write(new File(tempDir, "bms.c"),
+				"#include \"bms.h\"\n  #  include \"os/os.h\"\n#include <stdint.h>\n// not an #include \"io.h\"\n");
+
+		Parser parser = new Parser();
+		parser.setModuleStrategy(new UrlModuleStrategy());
+		new IncludeScanner().scanDirectory(tempDir.getPath(), parser);
+
+		assertEquals(1, parser.getEdges().size());
+		Edge edge = parser.getEdges().get(0);
+		assertEquals("bms.c", edge.getSourceNodeObject().getNodeLabel());
+		assertEquals("os.h", edge.getDestinationNodeObject().getNodeLabel());
+		assertEquals(2, parser.getModules().size());
+
+		for (Node node : parser.getNodes())
+			assertEquals(node.getNodeLabel().endsWith(".h"), node.isPublic());
+	}
+
+	@Test
+	public void testCacheFileIsReused(@TempDir File tempDir) throws Exception {
+		File sources = new File(tempDir, "src");
+		sources.mkdir();
+		File cache = new File(tempDir, "includes.cache");
+		write(new File(sources, "os.h"), "");
+		write(new File(sources, "io.h"), "");
+		File bms = new File(sources, "bms.c");
+		write(bms, "#include \"os.h\"\n");
+
+		assertTrue(scanIncludes(new IncludeScanner(cache.getPath()), sources).contains("bms.c->os.h"));
+		assertTrue(cache.isFile());
+
+		// Changing the file invalidates its cache entry
+		write(bms, "#include \"io.h\"\n");
+		bms.setLastModified(bms.lastModified() + 2000);
+		HashSet<String> includes = scanIncludes(new IncludeScanner(cache.getPath()), sources);
+		assertEquals(1, includes.size());
+		assertTrue(includes.contains("bms.c->io.h"));
+	}
+}
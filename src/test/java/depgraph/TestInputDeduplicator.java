@@ -0,0 +1,73 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.InputDeduplicator;
+import depgraph.Reader.Reader;
+
+public class TestInputDeduplicator {
+
+	private static final String ANCHOR = "ae0b9ae6e4ef2dbf771dcc0ea30901ae2";
+
+	private static final String GRAPH = "digraph \"ADC_Init\" {\n  Node%d [label=\"ADC_Init\"];\n"
+			+ "  Node%d -> Node%d;\n  Node%d [label=\"IO_Set\"];\n}\n";
+
+	private SourceFile graph(String name, int first, int second) {
+		return new SourceFile(name, String.format(GRAPH, first, first, second, second));
+	}
+
+	@Test
+	public void testTwinsWithDifferentNodeIdsAreSkipped() {
+		InputDeduplicator deduplicator = new InputDeduplicator();
+		List<SourceFile> unique = deduplicator.deduplicate(
+				Arrays.asList(graph("adc_8c_" + ANCHOR + "_cgraph.dot", 1, 2),
+						graph("adc_8h_" + ANCHOR + "_cgraph.dot", 166, 167)));
+
+		assertEquals(1, unique.size());
+		assertEquals("adc_8c_" + ANCHOR + "_cgraph.dot", unique.get(0).getName());
+		assertEquals(Arrays.asList("adc_8h_" + ANCHOR + "_cgraph.dot"), deduplicator.getSkippedFiles());
+	}
+
+	@Test
+	public void testDifferentGraphsAreKept() {
+		String other = "digraph \"ADC_Init\" {\n  Node1 [label=\"ADC_Init\"];\n}\n";
+		List<SourceFile> unique = new InputDeduplicator().deduplicate(
+				Arrays.asList(graph("adc_8c_" + ANCHOR + "_cgraph.dot", 1, 2),
+						new SourceFile("adc_8h_" + ANCHOR + "_cgraph.dot", other),
+						graph("adc_8c_a00000000000000000000000000000000_cgraph.dot", 1, 2)));
+
+		assertEquals(3, unique.size());
+	}
+
+	@Test
+	public void testNodeIdsInLabelsAreNotRenumbered() {
+		String first = "digraph {\n  Node1 [label=\"Node7\"];\n}\n";
+		String second = "digraph {\n  Node2 [label=\"Node8\"];\n}\n";
+		List<SourceFile> unique = new InputDeduplicator()
+				.deduplicate(Arrays.asList(new SourceFile("a.dot", first), new SourceFile("b.dot", second)));
+
+		assertEquals(2, unique.size());
+	}
+
+	@Test
+	public void testSkippingDuplicatesKeepsTheGraph() throws Exception {
+		List<SourceFile> files = new Reader().readSourceDirectory("test/dot-files");
+		List<SourceFile> unique = new InputDeduplicator().deduplicate(files);
+		Parser all = new Parser();
+		all.parseSourceFiles(files);
+		Parser deduplicated = new Parser();
+		deduplicated.parseSourceFiles(unique);
+
+		assertTrue(unique.size() < files.size());
+		assertEquals(all.getNodes().size(), deduplicated.getNodes().size());
+		assertEquals(all.getEdges().size(), deduplicated.getEdges().size());
+		assertEquals(all.getModules().size(), deduplicated.getModules().size());
+	}
+}
@@ -0,0 +1,118 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.ImageRenderer.LayoutCache;
+
+public class TestLayoutCache {
+
+	@TempDir
+	Path tempDir;
+
+	private static String cluster(String prefix, String nodes) {
+		return "subgraph cluster_" + prefix + " {\n    label=\"" + prefix + "\";\n    subgraph cluster_Public_" + prefix
+				+ " {\n    label=\"Public\";\n    " + nodes + "\n}\n}\n";
+	}
+
+	private static String graph(String extraNode, String extraEdge) {
+		return "digraph {\n    node [shape=record,fixedsize=true,width=3.5,height=0.5];\n"
+				+ cluster("BMS", "Node0 [label=\"BMS_Init\"];Node1 [label=\"BMS_Run\"];" + extraNode)
+				+ cluster("CONT", "Node2 [label=\"CONT_Open\"];Node3 [label=\"CONT_Set\"];")
+				+ "Node1 -> Node3 [color=gray,tooltip=\"no calls traced\"];Node3 -> Node2;" + extraEdge + "\n}\n";
+	}
+
+	// Positions in inches, as written by dot -Tplain
+	private static final String PLAIN = "graph 1 10 4\n"
+			+ "node Node0 1.75 3.5 3.5 0.5 BMS_Init solid record black lightgrey\n"
+			+ "node Node1 1.75 2.5 3.5 0.5 BMS_Run solid record black lightgrey\n"
+			+ "node Node2 6 3.5 3.5 0.5 CONT_Open solid record black lightgrey\n"
+			+ "node Node3 6 2.5 3.5 0.5 CONT_Set solid record black lightgrey\n"
+			+ "edge Node1 Node3 4 3 2.5 4 2.5 4.5 2.5 5 2.5 solid gray\n" + "stop\n";
+
+	private static double[] position(String dot, String label) {
+		Matcher matcher = Pattern.compile("\\[label=\"" + label + "\",pos=\"([-0-9.]+),([-0-9.]+)!\"\\]").matcher(dot);
+		assertTrue(matcher.find(), label + " is not pinned");
+		return new double[] { Double.parseDouble(matcher.group(1)), Double.parseDouble(matcher.group(2)) };
+	}
+
+	@Test
+	public void testFirstRenderNeedsFullLayout() throws Exception {
+		LayoutCache cache = new LayoutCache(tempDir.toString(), 0.1);
+		assertNull(cache.pin(new File(tempDir.toFile(), "out").getPath(), graph("", "")));
+	}
+
+	@Test
+	public void testSmallChangeKeepsPositions() throws Exception {
+		LayoutCache cache = new LayoutCache(tempDir.toString(), 0.5);
+		String name = new File(tempDir.toFile(), "out").getPath();
+		cache.storeFullLayout(name, graph("", ""), PLAIN);
+
+		// Node IDs change when a node is added, positions follow the labels
+		String changed = graph("Node4 [label=\"BMS_Stop\"];", "Node4 -> Node3;").replace("Node2", "Node9");
+		String pinned = cache.pin(name, changed);
+		assertNotNull(pinned);
+
+		assertArrayEquals(new double[] { 126, 252 }, position(pinned, "BMS_Init"), 0.01);
+		assertArrayEquals(new double[] { 432, 252 }, position(pinned, "CONT_Open"), 0.01);
+
+		// The new node is placed in its module's column, clear of the others
+		double[] stop = position(pinned, "BMS_Stop");
+		assertEquals(126, stop[0], 0.01);
+		for (String label : new String[] { "BMS_Init", "BMS_Run", "CONT_Open", "CONT_Set" }) {
+			double[] other = position(pinned, label);
+			assertTrue(Math.abs(other[0] - stop[0]) >= 252 || Math.abs(other[1] - stop[1]) >= 36);
+		}
+
+		assertTrue(pinned.contains("subgraph cluster_BMS {\n    bb=\""));
+		assertTrue(pinned.contains("subgraph cluster_Public_CONT {\n    bb=\""));
+	}
+
+	@Test
+	public void testLargeChangeNeedsFullLayout() throws Exception {
+		LayoutCache cache = new LayoutCache(tempDir.toString(), 0.1);
+		String name = new File(tempDir.toFile(), "out").getPath();
+		cache.storeFullLayout(name, graph("", ""), PLAIN);
+
+		assertNotNull(cache.pin(name, graph("", "")));
+		assertNull(cache.pin(name, graph("Node4 [label=\"BMS_Stop\"];", "Node4 -> Node3;")));
+	}
+
+	@Test
+	public void testChangesAddUpOverPinnedRenders() throws Exception {
+		LayoutCache cache = new LayoutCache(tempDir.toString(), 0.4);
+		String name = new File(tempDir.toFile(), "out").getPath();
+		cache.storeFullLayout(name, graph("", ""), PLAIN);
+
+		// 2 of 6 nodes and edges changed
+		String first = graph("Node4 [label=\"BMS_Stop\"];", "Node4 -> Node3;");
+		String pinned = cache.pin(name, first);
+		assertNotNull(pinned);
+		cache.storePinnedLayout(name, first);
+
+		// The placed node keeps its position in the next render
+		String again = cache.pin(name, first);
+		assertArrayEquals(position(pinned, "BMS_Stop"), position(again, "BMS_Stop"), 0.01);
+
+		// 4 of 6 compared with the last full layout
+		String second = graph("Node4 [label=\"BMS_Stop\"];Node5 [label=\"BMS_Halt\"];",
+				"Node4 -> Node3;Node5 -> Node3;");
+		assertNull(cache.pin(name, second));
+	}
+
+	@Test
+	public void testOutputsHaveSeparateLayouts() throws Exception {
+		LayoutCache cache = new LayoutCache(tempDir.toString(), 0.5);
+		cache.storeFullLayout(new File(tempDir.toFile(), "a/out").getPath(), graph("", ""), PLAIN);
+
+		assertNull(cache.pin(new File(tempDir.toFile(), "b/out").getPath(), graph("", "")));
+		assertNotNull(cache.pin(new File(tempDir.toFile(), "a/out").getPath(), graph("", "")));
+	}
+}
@@ -0,0 +1,113 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Analysis.ModuleMetrics;
+import depgraph.GraphWriter.CanonicalGraph;
+import depgraph.GraphWriter.GraphWriter;
+import depgraph.Parser.Module;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+
+public class TestModuleMetrics {
+
+	// BMS_Trigger -> DIAG_Handler, BMS_Trigger -> LTC_Read -> DIAG_Handler,
+	// BMS_Trigger -> LTC_Init, LTC_Read -> LTC_Init
+	private static final String GRAPH = "digraph \"BMS_Trigger\" {\n" + "  Node1 [label=\"BMS_Trigger\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"DIAG_Handler\"];\n" + "  Node1 -> Node3;\n"
+			+ "  Node3 [label=\"LTC_Read\"];\n" + "  Node3 -> Node2;\n" + "  Node1 -> Node4;\n"
+			+ "  Node4 [label=\"LTC_Init\"];\n" + "  Node3 -> Node4;\n" + "}\n";
+
+	@TempDir
+	File tempDir;
+
+	private ModuleMetrics metrics() {
+		Parser parser = new Parser();
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("graph.dot", GRAPH)));
+		CanonicalGraph canonical = new CanonicalGraph(parser.getModules(), parser.getEdges());
+		return new ModuleMetrics(canonical.getModules(), canonical.getEdges());
+	}
+
+	private int indexOf(ModuleMetrics metrics, String prefix) {
+		List<Module> modules = metrics.getModules();
+		for (int i = 0; i < modules.size(); i++)
+			if (modules.get(i).getModulePrefix().equals(prefix))
+				return i;
+		return -1;
+	}
+
+	@Test
+	public void testCouplingAndInstability() {
+		ModuleMetrics metrics = metrics();
+		int bms = indexOf(metrics, "BMS");
+		int diag = indexOf(metrics, "DIAG");
+		int ltc = indexOf(metrics, "LTC");
+
+		assertEquals(0, metrics.getAfferentCoupling(bms));
+		assertEquals(2, metrics.getEfferentCoupling(bms));
+		assertEquals(1.0, metrics.getInstability(bms));
+		assertEquals(2, metrics.getAfferentCoupling(diag));
+		assertEquals(0.0, metrics.getInstability(diag));
+		assertEquals(1, metrics.getAfferentCoupling(ltc));
+		assertEquals(1, metrics.getEfferentCoupling(ltc));
+		assertEquals(0.5, metrics.getInstability(ltc));
+		assertEquals(2, metrics.getPublicFunctions(ltc) + metrics.getPrivateFunctions(ltc));
+
+		// The call within LTC is not part of the module graph
+		assertEquals(3, metrics.getFanOut("BMS_Trigger"));
+		assertEquals(2, metrics.getFanIn("DIAG_Handler"));
+		assertEquals(1, metrics.getFanIn("LTC_Init"));
+		assertEquals(-1, metrics.getFanIn("missing"));
+	}
+
+	@Test
+	public void testWritesCsvAndJson() throws Exception {
+		ModuleMetrics metrics = metrics();
+
+		StringWriter csv = new StringWriter();
+		metrics.writeModuleCsv(csv);
+		String[] rows = csv.toString().split("\n");
+		assertEquals("module,functions,public,private,private_per_public,afferent,efferent,instability,calls_in,"
+				+ "calls_out", rows[0]);
+		assertEquals(4, rows.length);
+		assertTrue(rows[1].startsWith("BMS,1,"));
+		assertTrue(rows[1].endsWith(",0,2,1.000,0,3"));
+
+		StringWriter functions = new StringWriter();
+		metrics.writeFunctionCsv(functions);
+		assertTrue(functions.toString().contains("\nDIAG_Handler,DIAG,"));
+
+		StringWriter json = new StringWriter();
+		metrics.writeJson(json);
+		assertTrue(json.toString().contains("\"module\": \"DIAG\""));
+		assertTrue(json.toString().contains("\"instability\": 0.500"));
+		assertTrue(json.toString().contains("\"function\": \"BMS_Trigger\""));
+	}
+
+	@Test
+	public void testHeatColorsFillModuleClusters() throws Exception {
+		ModuleMetrics metrics = metrics();
+		assertEquals("0.000 0.350 1.000", metrics.getHeatColors().get("BMS"));
+		assertEquals("0.600 0.350 1.000", metrics.getHeatColors().get("DIAG"));
+
+		Parser parser = new Parser();
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("graph.dot", GRAPH)));
+		GraphWriter writer = new GraphWriter(parser.getModules(), parser.getEdges());
+		writer.readTemplates();
+		writer.setModuleColors(metrics.getHeatColors());
+		writer.writeGraph(new File(tempDir, "heat").getPath());
+		String dot = new String(Files.readAllBytes(new File(tempDir, "heat.dot").toPath()), StandardCharsets.UTF_8);
+
+		assertTrue(dot.contains("subgraph cluster_LTC {\n    style=filled;\n    fillcolor=\"0.300 0.350 1.000\";"));
+	}
+}
@@ -0,0 +1,109 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Parser.DefaultModuleStrategy;
+import depgraph.Parser.ModuleStrategy;
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+import depgraph.Parser.PrefixTableModuleStrategy;
+import depgraph.Parser.RegexModuleStrategy;
+import depgraph.Parser.SourceFile;
+import depgraph.Parser.UrlModuleStrategy;
+import depgraph.Reader.Reader;
+
+public class TestModuleStrategy {
+
+	@Test
+	public void testDefaultStrategyUsesTextBeforeUnderscore() {
+		ModuleStrategy strategy = new DefaultModuleStrategy();
+		assertEquals("BMS", strategy.getModulePrefix("bms_CheckStateRequest", null));
+		assertEquals("RTOS", strategy.getModulePrefix("vTaskDelay", null));
+		assertTrue(strategy.isPublic("BMS_SetStateRequest"));
+		assertFalse(strategy.isPublic("bms_CheckStateRequest"));
+	}
+
+	@Test
+	public void testUrlStrategyDecodesDoxygenFileNames() {
+		ModuleStrategy strategy = new UrlModuleStrategy();
+		assertEquals("BAL", strategy.getModulePrefix("BAL_Init", "$bal_8c.html#a1e9d7cabf5fbe4f033dc95ed554abd77"));
+		assertEquals("CANSIGNAL_CFG", strategy.getModulePrefix("CANS_Init", "$cansignal__cfg_8c.html#a1993"));
+		assertEquals("OS", strategy.getModulePrefix("OS_Init", null));
+		assertEquals("OS", strategy.getModulePrefix("OS_Init", "$group__API__OS.html#ga3165"));
+	}
+
+	@Test
+	public void testRegexStrategyUsesFirstGroup() {
+		ModuleStrategy strategy = new RegexModuleStrategy(Pattern.compile("^([A-Za-z]+?)(?:_cfg)?_"));
+		assertEquals("CANS", strategy.getModulePrefix("cans_cfg_Init", null));
+		assertEquals("RTOS", strategy.getModulePrefix("vTaskDelay", null));
+	}
+
+	@Test
+	public void testPrefixTableUsesLongestMatch() {
+		HashMap<String, String> table = new HashMap<String, String>();
+		table.put("CAN", "CAN");
+		table.put("CANS", "CAN");
+		table.put("CANSIG", "SIGNAL");
+		ModuleStrategy strategy = new PrefixTableModuleStrategy(table);
+		assertEquals("CAN", strategy.getModulePrefix("CANS_Init", null));
+		assertEquals("SIGNAL", strategy.getModulePrefix("cansig_Read", null));
+		assertEquals("BMS", strategy.getModulePrefix("BMS_Init", null));
+	}
+
+	@Test
+	public void testParserUsesConfiguredStrategy() throws Exception {
+		Parser parser = new Parser();
+		parser.setModuleStrategy(new DefaultModuleStrategy() {
+			@Override
+			public String getModulePrefix(String nodeLabel, String url) {
+				return "ALL";
+			}
+		});
+		parser.parse(new Reader().readDirectory("test/dot-files"));
+		assertEquals(1, parser.getModules().size());
+		for (Node node : parser.getNodes())
+			assertEquals("ALL", node.getModulePrefix());
+	}
+
+	// CANS_Init calls CANS_Tx; each has its own call graph, in which it is the
+	// root and has no URL
+	private static final SourceFile INIT_GRAPH = new SourceFile("html/cansignal_8c_a11_cgraph.dot",
+			"digraph \"CANS_Init\" {\n  Node1 [label=\"CANS_Init\"];\n  Node1 -> Node2;\n"
+					+ "  Node2 [label=\"CANS_Tx\",URL=\"$cansignal_8c.html#a22\"];\n}\n");
+
+	private static final SourceFile TX_GRAPH = new SourceFile("html/cansignal_8c_a22_cgraph.dot",
+			"digraph \"CANS_Tx\" {\n  Node1 [label=\"CANS_Tx\"];\n}\n");
+
+	private static String getModule(List<SourceFile> files, String label) {
+		Parser parser = new Parser();
+		parser.setModuleStrategy(new UrlModuleStrategy());
+		parser.parseSourceFiles(files);
+		for (Node node : parser.getNodes())
+			if (node.getNodeLabel().equals(label))
+				return node.getModulePrefix();
+		return null;
+	}
+
+	@Test
+	public void testUrlStrategyDoesNotDependOnFileOrder() {
+		assertEquals("CANSIGNAL", getModule(Arrays.asList(INIT_GRAPH, TX_GRAPH), "CANS_Tx"));
+		assertEquals("CANSIGNAL", getModule(Arrays.asList(TX_GRAPH, INIT_GRAPH), "CANS_Tx"));
+		assertEquals("CANSIGNAL", getModule(Arrays.asList(INIT_GRAPH, TX_GRAPH), "CANS_Init"));
+	}
+
+	@Test
+	public void testUrlStrategyFindsRootWithWrappedLabel() {
+		SourceFile wrapped = new SourceFile("contactor_8c_a9e_cgraph.dot",
+				"digraph \"CONT_SetContactorState_pulse\" {\n"
+						+ "  Node1 [label=\"CONT_SetContactorState\\l_pulse\"];\n}\n");
+		assertEquals("CONTACTOR", getModule(Arrays.asList(wrapped), "CONT_SetContactorState\\l_pulse"));
+	}
+}
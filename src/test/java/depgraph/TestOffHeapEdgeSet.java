@@ -0,0 +1,64 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.GraphWriter.JsonExporter;
+import depgraph.Parser.OffHeapEdgeSet;
+import depgraph.Parser.Parser;
+import depgraph.Reader.Reader;
+
+public class TestOffHeapEdgeSet {
+
+	private String toJson(Parser parser) throws Exception {
+		StringWriter out = new StringWriter();
+		new JsonExporter().export(parser.getModules(), parser.getEdges(), out);
+		return out.toString();
+	}
+
+	@Test
+	public void testBehavesLikeASetAndKeepsInsertionOrder() {
+		OffHeapEdgeSet set = new OffHeapEdgeSet(4);
+		HashSet<Long> expected = new HashSet<Long>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 20000; i++) {
+			int src = random.nextInt(300);
+			int dst = random.nextInt(300);
+			assertEquals(expected.add(((long) src << 32) | dst), set.add(src, dst));
+		}
+
+		assertEquals(expected.size(), set.size());
+		assertTrue(set.contains(set.getSource(0), set.getDestination(0)));
+		assertFalse(set.contains(300, 300));
+		assertTrue(set.add(0, 0));
+		assertEquals(0, set.getSource(set.size() - 1));
+		assertEquals(0, set.getDestination(set.size() - 1));
+	}
+
+	@Test
+	public void testOffHeapParserMatchesHeapParser() throws Exception {
+		List<String> files = new Reader().readDirectory("test/dot-files");
+
+		Parser onHeap = new Parser();
+		onHeap.parse(files);
+
+		Parser offHeap = new Parser();
+		offHeap.setOffHeapEdges(true);
+		offHeap.parse(files);
+
+		assertEquals(onHeap.getEdges().size(), offHeap.getOffHeapEdges().size());
+		assertEquals(toJson(onHeap), toJson(offHeap));
+
+		onHeap.filter(List.of("BMS"), List.of("DIAG", "CONT"));
+		offHeap.filter(List.of("BMS"), List.of("DIAG", "CONT"));
+		assertEquals(onHeap.getEdges().size(), offHeap.getOffHeapEdges().size());
+		assertEquals(toJson(onHeap), toJson(offHeap));
+	}
+}
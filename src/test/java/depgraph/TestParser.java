@@ -0,0 +1,98 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Parser.Edge;
+import depgraph.Parser.Node;
+import depgraph.Parser.ParseError;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.Reader;
+
+public class TestParser {
+
+	private static final String GOOD = "digraph \"BMS_Init\" {\n  Node1 [label=\"BMS_Init\"];\n"
+			+ "  Node1 -> Node2;\n  Node2 [label=\"OS_Delay\",URL=\"$os_8c.html\"];\n}\n";
+
+	private static final String BAD = "digraph \"IO_Set\" {\n  Node1 [label=\"IO_Set\"];\n"
+			+ "  Node1 -> ;\n  Node2 [label=\"LED_On\"];\n}\n";
+
+	private boolean hasNode(Parser parser, String label) {
+		for (Node node : parser.getNodes())
+			if (node.getNodeLabel().equals(label))
+				return true;
+		return false;
+	}
+
+	@Test
+	public void testKeepGoingSkipsFilesWithErrors() {
+		Parser parser = new Parser();
+		parser.setKeepGoing(true);
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("bad.dot", BAD), new SourceFile("good.dot", GOOD),
+				new SourceFile("empty.dot", "")));
+
+		assertEquals(Arrays.asList("bad.dot", "empty.dot"), parser.getSkippedFiles());
+		assertEquals(2, parser.getNodes().size());
+		assertFalse(hasNode(parser, "IO_Set"));
+		assertEquals(1, parser.getEdges().size());
+
+		List<ParseError> errors = parser.getErrors();
+		assertEquals(2, errors.size());
+		assertEquals("bad.dot", errors.get(0).getFileName());
+		assertEquals(3, errors.get(0).getLine());
+		assertEquals("empty.dot: no graph found", errors.get(1).toString());
+	}
+
+	@Test
+	public void testDefaultModeKeepsWhatCouldBeRead() {
+		Parser parser = new Parser();
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("bad.dot", BAD), new SourceFile("good.dot", GOOD)));
+
+		assertTrue(parser.getSkippedFiles().isEmpty());
+		assertEquals(1, parser.getErrors().size());
+		assertTrue(hasNode(parser, "IO_Set"));
+		assertTrue(hasNode(parser, "LED_On"));
+	}
+
+	@Test
+	public void testErrorsNameTheFileRead(@TempDir File tempDir) throws Exception {
+		File file = new File(tempDir, "broken.dot");
+		FileWriter writer = new FileWriter(file);
+		writer.write(BAD);
+		writer.close();
+
+		Parser parser = new Parser();
+		parser.setKeepGoing(true);
+		parser.parseSourceFiles(new Reader().readSourceDirectory(tempDir.getPath()));
+
+		assertEquals(file.toString() + ":3: expected a node or subgraph after ';'", parser.getErrors().get(0).toString());
+	}
+
+	@Test
+	public void testResolvesEdgesBeforeTheirNodes() {
+		String dot = "digraph \"BMS_Init\" {\n  Node1 -> Node2;\n  Node2 -> Node3;\n  Node3 -> Node2;\n"
+				+ "  Node3 [label=\"IO_Set\"];\n  Node2 [label=\"OS_Delay\"];\n  Node1 [label=\"BMS_Init\"];\n}\n";
+
+		Parser parser = new Parser();
+		parser.parse(Arrays.asList(dot));
+
+		assertTrue(parser.getErrors().isEmpty());
+		assertEquals(3, parser.getNodes().size());
+		assertEquals(3, parser.getEdges().size());
+		for (Edge edge : parser.getEdges()) {
+			assertNotNull(edge.getSourceNodeObject());
+			assertNotNull(edge.getDestinationNodeObject());
+			assertEquals(edge.getSourceNodeId(), edge.getSourceNodeObject().getNodeId());
+			assertEquals(edge.getDestinationNodeId(), edge.getDestinationNodeObject().getNodeId());
+		}
+		assertTrue(hasNode(parser, "IO_Set"));
+	}
+}
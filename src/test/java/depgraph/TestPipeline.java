@@ -0,0 +1,130 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Parser.Edge;
+import depgraph.Pipeline.BatchRunner;
+import depgraph.Pipeline.DependencyGraphPipeline;
+import depgraph.Pipeline.GraphResult;
+
+public class TestPipeline {
+
+	@Test
+	public void testBuildWithoutInputThrows() {
+		assertThrows(IllegalStateException.class, () -> DependencyGraphPipeline.builder().build());
+	}
+
+	@Test
+	public void testResultListsAreUnmodifiable() throws Exception {
+		GraphResult result = DependencyGraphPipeline.builder().addInput("test/dot-files").build().execute();
+		assertThrows(UnsupportedOperationException.class, () -> result.getEdges().clear());
+	}
+
+	@Test
+	public void testFilterDoesNotChangeOriginalResult() throws Exception {
+		GraphResult result = DependencyGraphPipeline.builder().addInput("test/dot-files").build().parse();
+		int edgeCount = result.getEdges().size();
+		GraphResult filtered = result.filter(Arrays.asList("BMS"), Arrays.asList("DIAG"));
+
+		assertEquals(edgeCount, result.getEdges().size());
+		assertTrue(filtered.getEdges().size() < edgeCount);
+		for (Edge edge : filtered.getEdges()) {
+			assertEquals("BMS", edge.getSourceNodeObject().getModulePrefix());
+			assertEquals("DIAG", edge.getDestinationNodeObject().getModulePrefix());
+		}
+	}
+
+	@Test
+	public void testConcurrentExecutionsProduceSameGraph() throws Exception {
+		DependencyGraphPipeline pipeline = DependencyGraphPipeline.builder().addInput("test/dot-files").build();
+		GraphResult expected = pipeline.execute();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<GraphResult>> futures = new ArrayList<Future<GraphResult>>();
+
+		try {
+			for (int i = 0; i < 8; i++)
+				futures.add(executor.submit(pipeline::execute));
+
+			for (Future<GraphResult> future : futures) {
+				GraphResult result = future.get();
+				assertEquals(expected.getNodes().size(), result.getNodes().size());
+				assertEquals(expected.getEdges().size(), result.getEdges().size());
+				assertEquals(expected.getModules().size(), result.getModules().size());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testBatchRunnerProducesEveryView(@TempDir File tempDir) throws Exception {
+		File manifest = new File(tempDir, "manifest.txt");
+		File first = new File(tempDir, "first.json");
+		File second = new File(tempDir, "second.csv");
+		FileWriter writer = new FileWriter(manifest);
+		writer.write("# comment\n");
+		writer.write(first.getPath() + " {BMS} => {DIAG, CONT}\n\n");
+		writer.write(second.getPath() + " BAL => OS\n");
+		writer.close();
+
+		BatchRunner batch = new BatchRunner(DependencyGraphPipeline.builder().addInput("test/dot-files").build());
+		assertEquals(0, batch.run(manifest.getPath()));
+		assertTrue(first.isFile());
+		assertTrue(second.isFile());
+	}
+
+	@Test
+	public void testBatchRunnerCountsViewsThatCanNotBeWritten(@TempDir File tempDir) throws Exception {
+		File manifest = new File(tempDir, "manifest.txt");
+		FileWriter writer = new FileWriter(manifest);
+		writer.write(new File(tempDir, "missing/bms.pdf").getPath() + " {BMS} => {DIAG}\n");
+		writer.write(new File(tempDir, "bms.json").getPath() + " {BMS} => {DIAG}\n");
+		writer.close();
+
+		BatchRunner batch = new BatchRunner(DependencyGraphPipeline.builder().addInput("test/dot-files").build());
+		assertEquals(1, batch.run(manifest.getPath()));
+	}
+
+	@Test
+	public void testBatchRunnerRejectsViewsSharingADotFile(@TempDir File tempDir) throws Exception {
+		File manifest = new File(tempDir, "manifest.txt");
+		FileWriter writer = new FileWriter(manifest);
+		writer.write(new File(tempDir, "bms.pdf").getPath() + " {BMS} => {DIAG}\n");
+		writer.write(new File(tempDir, "bms.json").getPath() + " {BMS} => {CONT}\n");
+		writer.write(new File(tempDir, "bms.svg").getPath() + " {BMS} => {CONT}\n");
+		writer.close();
+
+		BatchRunner batch = new BatchRunner(DependencyGraphPipeline.builder().addInput("test/dot-files").build());
+		Exception ex = assertThrows(Exception.class, () -> batch.run(manifest.getPath()));
+		assertTrue(ex.getMessage().endsWith("on line 1"));
+		assertFalse(new File(tempDir, "bms.json").exists());
+	}
+
+	@Test
+	public void testDotFileIsWrittenNextToAnOutputInADottedDirectory(@TempDir File tempDir) throws Exception {
+		File directory = new File(tempDir, "v1.2");
+		directory.mkdir();
+		DependencyGraphPipeline pipeline = DependencyGraphPipeline.builder().addInput("test/dot-files").build();
+
+		try {
+			pipeline.writeOutput(pipeline.parse(), new File(directory, "out.pdf").getPath());
+		} catch (Exception ex) {
+			// dot may not be installed, the DOT file is written before rendering
+		}
+
+		assertTrue(new File(directory, "out.dot").isFile());
+		assertFalse(new File(tempDir, "v1.dot").exists());
+	}
+}
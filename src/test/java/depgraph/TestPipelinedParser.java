@@ -0,0 +1,102 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Parser.DefaultModuleStrategy;
+import depgraph.Parser.Edge;
+import depgraph.Parser.Node;
+import depgraph.Parser.Parser;
+import depgraph.Parser.PipelinedParser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.Reader;
+
+public class TestPipelinedParser {
+
+	private static final String BAD = "digraph \"IO_Set\" {\n  Node1 [label=\"IO_Set\"];\n"
+			+ "  Node1 -> ;\n  Node2 [label=\"LED_On\"];\n}\n";
+
+	private List<String> labels(List<Node> nodes) {
+		List<String> labels = new ArrayList<String>();
+		for (Node node : nodes)
+			labels.add(node.getNodeLabel());
+		return labels;
+	}
+
+	private List<String> edges(List<Edge> edges) {
+		List<String> keys = new ArrayList<String>();
+		for (Edge edge : edges)
+			keys.add(edge.getSourceNodeObject().getNodeLabel() + "->" + edge.getDestinationNodeObject().getNodeLabel());
+		return keys;
+	}
+
+	@Test
+	public void testSameGraphAsSequentialParse() throws Exception {
+		Reader reader = new Reader();
+		List<String> paths = reader.listDotFiles("test/dot-files");
+		Parser sequential = new Parser();
+		sequential.parseSourceFiles(reader.readSourceDirectory("test/dot-files"));
+
+		// One file in flight forces the stages to wait on each other
+		for (int inFlight : new int[] { 1, 64 }) {
+			Parser pipelined = new Parser();
+			new PipelinedParser(pipelined, 4, inFlight).parse(paths, reader::readSourceFile);
+
+			assertEquals(labels(sequential.getNodes()), labels(pipelined.getNodes()));
+			assertEquals(edges(sequential.getEdges()), edges(pipelined.getEdges()));
+			assertEquals(sequential.getModules().size(), pipelined.getModules().size());
+		}
+	}
+
+	@Test
+	public void testErrorsAreReportedInInputOrder() throws Exception {
+		List<String> paths = Arrays.asList("a.dot", "b.dot", "c.dot", "d.dot");
+		Parser parser = new Parser();
+		parser.setKeepGoing(true);
+
+		new PipelinedParser(parser, 3).parse(paths,
+				path -> Arrays.asList(new SourceFile(path, path.equals("c.dot") ? "" : BAD)));
+
+		assertEquals(Arrays.asList("a.dot", "b.dot", "c.dot", "d.dot"), parser.getSkippedFiles());
+		assertEquals(4, parser.getErrors().size());
+		assertEquals("c.dot: no graph found", parser.getErrors().get(2).toString());
+		assertTrue(parser.getNodes().isEmpty());
+	}
+
+	@Test
+	public void testReadFailureStopsThePipeline() {
+		Parser parser = new Parser();
+		PipelinedParser pipeline = new PipelinedParser(parser, 2, 2);
+
+		Exception ex = assertThrows(Exception.class, () -> pipeline.parse(Arrays.asList("a.dot", "missing.dot"),
+				path -> new Reader().readSourceFile(path.equals("a.dot")
+						? "test/dot-files/adc_8c_ae0b9ae6e4ef2dbf771dcc0ea30901ae2_cgraph.dot"
+						: "missing.txt")));
+		assertTrue(ex.getMessage().contains("Invalid File Extension"));
+	}
+
+	@Test
+	public void testWorkerErrorStopsThePipeline() throws Exception {
+		Parser parser = new Parser();
+		parser.setModuleStrategy(new DefaultModuleStrategy() {
+			@Override
+			public String getModulePrefix(String nodeLabel, String url) {
+				throw new Error("worker died on " + nodeLabel);
+			}
+		});
+		PipelinedParser pipeline = new PipelinedParser(parser, 2, 2);
+		Reader reader = new Reader();
+		List<String> paths = reader.listDotFiles("test/dot-files");
+
+		// Used to hang: the merge stage waited for the end marker of the dead worker
+		Error error = assertTimeoutPreemptively(Duration.ofSeconds(30),
+				() -> assertThrows(Error.class, () -> pipeline.parse(paths, reader::readSourceFile)));
+		assertTrue(error.getMessage().startsWith("worker died on "));
+	}
+}
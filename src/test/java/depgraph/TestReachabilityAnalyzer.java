@@ -0,0 +1,75 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Analysis.CallGraph;
+import depgraph.Analysis.EntryPoints;
+import depgraph.Analysis.ReachabilityAnalyzer;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+
+public class TestReachabilityAnalyzer {
+
+	// ENG_TSK_Main -> ADC_Init -> ADC_Read
+	private static final String TASK = "digraph \"ENG_TSK_Main\" {\n" + "  Node1 [label=\"ENG_TSK_Main\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"ADC_Init\"];\n" + "  Node2 -> Node3;\n"
+			+ "  Node3 [label=\"ADC_Read\"];\n" + "}\n";
+
+	// DEAD_Start -> DEAD_Helper, never called
+	private static final String DEAD = "digraph \"DEAD_Start\" {\n" + "  Node1 [label=\"DEAD_Start\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"DEAD_Helper\"];\n" + "}\n";
+
+	// CYC_Ping <-> CYC_Pong, only calling each other
+	private static final String CYCLE = "digraph \"CYC_Ping\" {\n" + "  Node1 [label=\"CYC_Ping\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"CYC_Pong\"];\n" + "  Node2 -> Node1;\n" + "}\n";
+
+	private CallGraph parse() {
+		Parser parser = new Parser();
+		parser.setRecordCalls(true);
+		List<SourceFile> files = new ArrayList<SourceFile>();
+		for (String graph : new String[] { TASK, DEAD, CYCLE })
+			files.add(new SourceFile("graph" + files.size() + ".dot", graph));
+		parser.parseSourceFiles(files);
+		return new CallGraph(parser.getNodes(), parser.getCalls());
+	}
+
+	@Test
+	public void testUnreachableFromNamedEntries() {
+		CallGraph graph = parse();
+		ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer(graph, EntryPoints.find(graph, "ENG_TSK_*"));
+
+		assertEquals(3, analyzer.getReachableCount());
+		assertEquals(Arrays.asList("DEAD_Start", "DEAD_Helper", "CYC_Ping", "CYC_Pong"),
+				analyzer.getUnreachableFunctions());
+		assertEquals(Arrays.asList("DEAD", "CYC"), analyzer.getUnreachableModules());
+	}
+
+	@Test
+	public void testDefaultEntriesAreUncalledDefinedFunctions() {
+		CallGraph graph = parse();
+		List<Integer> entries = EntryPoints.find(graph, "");
+
+		assertEquals(2, entries.size());
+		assertEquals("ENG_TSK_Main", graph.getLabel(entries.get(0)));
+		assertEquals("DEAD_Start", graph.getLabel(entries.get(1)));
+
+		// Nothing outside the cycle calls into it
+		ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer(graph, entries);
+		assertEquals(Arrays.asList("CYC_Ping", "CYC_Pong"), analyzer.getUnreachableFunctions());
+	}
+
+	@Test
+	public void testPublicFunctionsNotCalledFromOtherModules() {
+		CallGraph graph = parse();
+		ReachabilityAnalyzer analyzer = new ReachabilityAnalyzer(graph, EntryPoints.find(graph, "ENG_TSK_Main"));
+
+		assertEquals(Arrays.asList("ADC_Read", "DEAD_Start", "DEAD_Helper", "CYC_Ping", "CYC_Pong"),
+				analyzer.getUnusedPublicFunctions());
+	}
+}
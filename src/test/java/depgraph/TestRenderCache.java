@@ -0,0 +1,79 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.ImageRenderer.ImageRenderer;
+import depgraph.ImageRenderer.RenderCache;
+
+public class TestRenderCache {
+
+	@TempDir
+	File tempDir;
+
+	private File write(String name, String contents) throws Exception {
+		File file = new File(tempDir, name);
+		Files.write(file.toPath(), contents.getBytes());
+		return file;
+	}
+
+	@Test
+	public void testKeyDependsOnGraphAndFormat() {
+		RenderCache cache = new RenderCache(new File(tempDir, "cache").getPath(), 1024);
+
+		assertEquals(cache.getKey("digraph { a -> b; }", "pdf"), cache.getKey("digraph { a -> b; }", "pdf"));
+		assertNotEquals(cache.getKey("digraph { a -> b; }", "pdf"), cache.getKey("digraph { a -> b; }", "svg"));
+		assertNotEquals(cache.getKey("digraph { a -> b; }", "pdf"), cache.getKey("digraph { b -> a; }", "pdf"));
+	}
+
+	@Test
+	public void testStoredImageIsFetched() throws Exception {
+		RenderCache cache = new RenderCache(new File(tempDir, "cache").getPath(), 1024);
+		String key = cache.getKey("digraph {}", "svg");
+		File copy = new File(tempDir, "copy.svg");
+
+		assertFalse(cache.fetch(key, "svg", copy));
+		cache.store(key, "svg", write("out.svg", "<svg/>"));
+		assertTrue(cache.fetch(key, "svg", copy));
+		assertEquals("<svg/>", new String(Files.readAllBytes(copy.toPath())));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedImagesAreEvicted() throws Exception {
+		RenderCache cache = new RenderCache(new File(tempDir, "cache").getPath(), 25);
+		File image = write("image.png", "0123456789");
+		File copy = new File(tempDir, "copy.png");
+
+		cache.store("first", "png", image);
+		cache.store("second", "png", image);
+		new File(cache.getDirectory(), "first.png").setLastModified(1000);
+		new File(cache.getDirectory(), "second.png").setLastModified(2000);
+		assertTrue(cache.fetch("first", "png", copy));
+
+		cache.store("third", "png", image);
+
+		assertTrue(cache.fetch("first", "png", copy));
+		assertFalse(cache.fetch("second", "png", copy));
+		assertTrue(cache.fetch("third", "png", copy));
+	}
+
+	@Test
+	public void testRendererCopiesCachedImageWithoutRunningDot() throws Exception {
+		RenderCache cache = new RenderCache(new File(tempDir, "cache").getPath(), 1024);
+		String graph = "digraph { a -> b; }";
+		write("graph.dot", graph);
+		cache.store(cache.getKey(graph, "svg"), "svg", write("cached.svg", "<svg>cached</svg>"));
+
+		ImageRenderer renderer = new ImageRenderer();
+		renderer.setRenderCache(cache);
+		String output = new File(tempDir, "graph.svg").getPath();
+		renderer.renderImage("svg", output);
+
+		assertEquals("<svg>cached</svg>", new String(Files.readAllBytes(new File(output).toPath())));
+	}
+}
@@ -0,0 +1,71 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.GraphWriter.JsonExporter;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Parser.SpillingGraphBuilder;
+import depgraph.Reader.Reader;
+
+public class TestSpillingGraphBuilder {
+
+	private String toJson(Parser parser) throws Exception {
+		StringWriter out = new StringWriter();
+		new JsonExporter().export(parser.getModules(), parser.getEdges(), out);
+		return out.toString();
+	}
+
+	@Test
+	public void testSpilledGraphMatchesInMemoryGraph() throws Exception {
+		Reader reader = new Reader();
+		List<SourceFile> files = reader.readSourceDirectory("test/dot-files");
+
+		Parser inMemory = new Parser();
+		inMemory.parseSourceFiles(files);
+
+		// A tiny budget forces a spill after every file
+		Parser spilled = new Parser();
+		SpillingGraphBuilder builder = new SpillingGraphBuilder(spilled, 1);
+		for (SourceFile file : files)
+			builder.add(file);
+		builder.finish();
+
+		assertEquals(files.size(), builder.getSpillCount());
+		assertEquals(inMemory.getNodes().size(), spilled.getNodes().size());
+		assertEquals(inMemory.getEdges().size(), spilled.getEdges().size());
+		assertEquals(toJson(inMemory), toJson(spilled));
+	}
+
+	@Test
+	public void testLabelsSurviveTheRunFiles() throws Exception {
+		Parser parser = new Parser();
+		SpillingGraphBuilder builder = new SpillingGraphBuilder(parser, 1L << 20);
+		builder.add(new SourceFile("a.dot", "digraph { \"A_tab\there\" -> \"B_back\\\\slash\" }"));
+		builder.finish();
+
+		assertEquals(1, builder.getSpillCount());
+		assertEquals("A_tab\there", parser.getEdges().get(0).getSourceNodeObject().getNodeLabel());
+		assertEquals("B_back\\\\slash", parser.getEdges().get(0).getDestinationNodeObject().getNodeLabel());
+	}
+
+	@Test
+	public void testCloseDeletesRunsOfUnfinishedGraph() throws Exception {
+		Path spillDirectory;
+		try (SpillingGraphBuilder builder = new SpillingGraphBuilder(new Parser(), 1)) {
+			spillDirectory = builder.getSpillDirectory();
+			builder.add(new SourceFile("a.dot", "digraph { A_Init -> B_Run }"));
+			assertEquals(1, builder.getSpillCount());
+			assertTrue(spillDirectory.toFile().list().length > 0);
+		}
+
+		assertFalse(Files.exists(spillDirectory));
+	}
+}
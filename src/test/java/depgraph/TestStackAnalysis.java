@@ -0,0 +1,97 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.Analysis.CallGraph;
+import depgraph.Analysis.StackAnalyzer;
+import depgraph.Analysis.StackDepth;
+import depgraph.Analysis.StackUsage;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+
+public class TestStackAnalysis {
+
+	// ENG_TSK_Main -> ADC_Init -> ADC_Read, ENG_TSK_Main -> LED_On
+	private static final String TASK = "digraph \"ENG_TSK_Main\" {\n" + "  Node1 [label=\"ENG_TSK_Main\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"ADC_Init\"];\n" + "  Node2 -> Node3;\n"
+			+ "  Node3 [label=\"ADC_Read\"];\n" + "  Node1 -> Node4;\n" + "  Node4 [label=\"LED_On\"];\n" + "}\n";
+
+	// APPL_TSK_Main -> CAN_Rx <-> CAN_Handle
+	private static final String RECURSION = "digraph \"APPL_TSK_Main\" {\n" + "  Node1 [label=\"APPL_TSK_Main\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"CAN_Rx\"];\n" + "  Node2 -> Node3;\n"
+			+ "  Node3 [label=\"CAN_Handle\"];\n" + "  Node3 -> Node2;\n" + "}\n";
+
+	private StackAnalyzer analyze(String usageLines, String... graphs) throws Exception {
+		Parser parser = new Parser();
+		parser.setRecordCalls(true);
+		for (int i = 0; i < graphs.length; i++)
+			parser.parseSourceFiles(Arrays.asList(new SourceFile("graph" + i + ".dot", graphs[i])));
+
+		StackUsage usage = new StackUsage();
+		for (String line : usageLines.split("\n"))
+			usage.addLine(line);
+		return new StackAnalyzer(new CallGraph(parser.getNodes(), parser.getCalls()), usage);
+	}
+
+	@Test
+	public void testReadsStackUsageFiles(@TempDir Path dir) throws Exception {
+		Files.createDirectories(dir.resolve("src"));
+		Files.write(dir.resolve("src/adc.su"), Arrays.asList("adc.c:116:6:ADC_Init\t16\tstatic",
+				"C:/fw/adc.c:140:10:int ADC_Read(uint8_t)\t40\tdynamic,bounded", ""));
+		Files.write(dir.resolve("led.su"), Arrays.asList("led.c:12:6:ADC_Init\t24\tstatic"));
+
+		StackUsage usage = new StackUsage();
+		usage.load(dir.toString());
+
+		assertEquals(2, usage.size());
+		assertEquals(24, usage.getFrameSize("ADC_Init"));
+		assertEquals(40, usage.getFrameSize("ADC_Read"));
+		assertTrue(usage.isDynamic("ADC_Read"));
+		assertFalse(usage.isDynamic("ADC_Init"));
+		assertEquals(-1, usage.getFrameSize("LED_On"));
+	}
+
+	@Test
+	public void testDeepestPathIncludesCallsWithinModules() throws Exception {
+		StackAnalyzer analyzer = analyze("a.c:1:1:ENG_TSK_Main\t32\tstatic\nadc.c:1:1:ADC_Init\t16\tstatic\n"
+				+ "adc.c:9:1:ADC_Read\t48\tstatic\nled.c:1:1:LED_On\t56\tstatic", TASK);
+
+		StackDepth depth = analyzer.getDepth("ENG_TSK_Main");
+		assertEquals(96, depth.getBytes());
+		assertEquals(Arrays.asList("ENG_TSK_Main (32)", "ADC_Init (16)", "ADC_Read (48)"), depth.getPath());
+		assertTrue(depth.isBounded());
+		assertNull(analyzer.getDepth("missing"));
+	}
+
+	@Test
+	public void testRecursionAndMissingFramesAreFlagged() throws Exception {
+		StackAnalyzer analyzer = analyze("a.c:1:1:APPL_TSK_Main\t8\tstatic\ncan.c:1:1:CAN_Rx\t24\tstatic\n"
+				+ "can.c:5:1:CAN_Handle\t40\tstatic\na.c:1:1:ENG_TSK_Main\t32\tstatic", RECURSION, TASK);
+
+		StackDepth recursive = analyzer.getDepth("APPL_TSK_Main");
+		assertEquals(72, recursive.getBytes());
+		assertTrue(recursive.isRecursive());
+		assertFalse(recursive.isBounded());
+		assertEquals("recursion {CAN_Rx (24), CAN_Handle (40)}", recursive.getPath().get(1));
+
+		StackDepth incomplete = analyzer.getDepth("ENG_TSK_Main");
+		assertTrue(incomplete.isIncomplete());
+		assertFalse(incomplete.isRecursive());
+		assertEquals(32, incomplete.getBytes());
+	}
+
+	@Test
+	public void testFindsEntryFunctions() throws Exception {
+		StackAnalyzer analyzer = analyze("", RECURSION, TASK);
+
+		assertEquals(Arrays.asList("APPL_TSK_Main", "ENG_TSK_Main"), analyzer.findRoots(""));
+		assertEquals(Arrays.asList("ENG_TSK_Main", "LED_On"), analyzer.findRoots("ENG_TSK_*, LED_On"));
+	}
+}
@@ -0,0 +1,115 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import depgraph.GraphWriter.GraphWriter;
+import depgraph.Parser.Edge;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+import depgraph.Reader.TraceReader;
+
+public class TestTraceReader {
+
+	// ENG_TSK_Main -> LTC_Read, ENG_TSK_Main -> DIAG_Handler
+	private static final String GRAPH = "digraph \"ENG_TSK_Main\" {\n" + "  Node1 [label=\"ENG_TSK_Main\"];\n"
+			+ "  Node1 -> Node2;\n" + "  Node2 [label=\"LTC_Read\"];\n" + "  Node1 -> Node3;\n"
+			+ "  Node3 [label=\"DIAG_Handler\"];\n" + "}\n";
+
+	@TempDir
+	File tempDir;
+
+	private Parser parse() {
+		Parser parser = new Parser();
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("graph.dot", GRAPH)));
+		return parser;
+	}
+
+	private String write(File file, String text) throws Exception {
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		return file.getPath();
+	}
+
+	private long countOf(Parser parser, String callee) {
+		for (Edge edge : parser.getEdges())
+			if (edge.getDestinationNodeObject().getNodeLabel().equals(callee))
+				return edge.getCallCount();
+		return -1;
+	}
+
+	@Test
+	public void testReadsCsvCallCounts() throws Exception {
+		TraceReader trace = new TraceReader();
+		trace.read(write(new File(tempDir, "calls.csv"), "caller,callee,count\n"
+				+ "ENG_TSK_Main,LTC_Read,1000\n\"ENG_TSK_Main\"; \"LTC_Read\"; 500\n# comment\nENG_TSK_Main\tDIAG_Handler\t1\n"));
+
+		assertEquals(2, trace.size());
+		assertEquals(1500, trace.getCallCount("ENG_TSK_Main", "LTC_Read"));
+
+		Parser parser = parse();
+		assertEquals(2, trace.apply(parser.getEdges()));
+		assertEquals(1500, countOf(parser, "LTC_Read"));
+		assertEquals(1, countOf(parser, "DIAG_Handler"));
+	}
+
+	@Test
+	public void testReadsCompressedFoldedStacks() throws Exception {
+		File file = new File(tempDir, "stacks.folded.gz");
+		try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+				StandardCharsets.UTF_8)) {
+			writer.write("main;ENG_TSK_Main;LTC_Read 120\nmain;ENG_TSK_Main;LTC_Read;ENG_TSK_Main;LTC_Read 5\n"
+					+ "main;ENG_TSK_Main 7\nnot a stack\n");
+		}
+
+		TraceReader trace = new TraceReader();
+		trace.read(file.getPath());
+
+		// Counted once per sample, even when the stack recurses
+		assertEquals(125, trace.getCallCount("ENG_TSK_Main", "LTC_Read"));
+		assertEquals(5, trace.getCallCount("LTC_Read", "ENG_TSK_Main"));
+		assertEquals(132, trace.getCallCount("main", "ENG_TSK_Main"));
+		assertEquals(0, trace.getCallCount("ENG_TSK_Main", "DIAG_Handler"));
+	}
+
+	@Test
+	public void testColdEdgesAreRemovedAndHotEdgesStyled() throws Exception {
+		TraceReader trace = new TraceReader();
+		trace.read(write(new File(tempDir, "calls.csv"), "ENG_TSK_Main,LTC_Read,1000\nENG_TSK_Main,DIAG_Handler,1\n"));
+
+		Parser parser = parse();
+		trace.apply(parser.getEdges());
+		GraphWriter writer = new GraphWriter(parser.getModules(), parser.getEdges());
+		writer.readTemplates();
+		writer.writeGraph(new File(tempDir, "all").getPath());
+		String all = new String(Files.readAllBytes(new File(tempDir, "all.dot").toPath()), StandardCharsets.UTF_8);
+		assertTrue(all.contains("[penwidth=5.0,weight=10,color=\"0.000 1.000 0.900\",tooltip=\"1000 calls\"]"));
+		assertTrue(all.contains("[penwidth=1.0,weight=1,color=\"0.000 0.000 0.300\",tooltip=\"1 calls\"]"));
+
+		assertEquals(1, parser.removeColdEdges(10));
+		assertEquals(1, parser.getEdges().size());
+		assertEquals("LTC_Read", parser.getEdges().get(0).getDestinationNodeObject().getNodeLabel());
+	}
+
+	@Test
+	public void testUntracedGraphIsNotStyled() throws Exception {
+		Parser parser = parse();
+		GraphWriter writer = new GraphWriter(parser.getModules(), parser.getEdges());
+		writer.readTemplates();
+		writer.writeGraph(new File(tempDir, "plain").getPath());
+		String plain = new String(Files.readAllBytes(new File(tempDir, "plain.dot").toPath()), StandardCharsets.UTF_8);
+
+		assertFalse(plain.contains("penwidth"));
+		assertTrue(plain.contains("Node1 -> Node0;"));
+	}
+}
@@ -0,0 +1,81 @@
+package depgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import depgraph.Analysis.TransitiveReduction;
+import depgraph.Parser.Edge;
+import depgraph.Parser.Parser;
+import depgraph.Parser.SourceFile;
+
+public class TestTransitiveReduction {
+
+	private static String node(int id, String label) {
+		return String.format("  Node%d [label=\"%s\"];\n", id, label);
+	}
+
+	private static String call(int src, int dst) {
+		return String.format("  Node%d -> Node%d;\n", src, dst);
+	}
+
+	// BMS -> CONT -> DIAG makes BMS -> DIAG redundant; CAN and COM call each
+	// other and both call DIAG
+	private static final String GRAPH = "digraph \"BMS_Run\" {\n" + node(1, "BMS_Run") + node(2, "BMS_Stop")
+			+ node(3, "CONT_Set") + node(4, "DIAG_Report") + node(5, "DIAG_Check") + node(6, "CAN_Rx")
+			+ node(7, "COM_Decode") + node(8, "CAN_Tx") + call(1, 3) + call(3, 4) + call(1, 4) + call(2, 5)
+			+ call(6, 7) + call(7, 8) + call(6, 4) + call(7, 4) + "}\n";
+
+	private Parser parse() {
+		Parser parser = new Parser();
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("graph.dot", GRAPH)));
+		return parser;
+	}
+
+	@Test
+	public void testImpliedDependencyIsLeftOut() {
+		Parser parser = parse();
+		TransitiveReduction reduction = new TransitiveReduction(parser.getModules(), parser.getEdges());
+
+		assertEquals(Arrays.asList("BMS -> DIAG (via CONT)"), reduction.getElidedDependencies());
+		assertEquals(2, reduction.getElidedCalls());
+		assertEquals(parser.getEdges().size() - 2, reduction.getEdges().size());
+
+		for (Edge edge : reduction.getEdges())
+			assertFalse(edge.getSourceNodeObject().getModulePrefix().equals("BMS")
+					&& edge.getDestinationNodeObject().getModulePrefix().equals("DIAG"));
+	}
+
+	@Test
+	public void testCyclicModulesKeepTheirDependencies() {
+		Parser parser = parse();
+		List<Edge> kept = new TransitiveReduction(parser.getModules(), parser.getEdges()).getEdges();
+
+		int cycleCalls = 0;
+		int toDiag = 0;
+		for (Edge edge : kept) {
+			String src = edge.getSourceNodeObject().getModulePrefix();
+			String dst = edge.getDestinationNodeObject().getModulePrefix();
+			if ((src.equals("CAN") || src.equals("COM")) && (dst.equals("CAN") || dst.equals("COM")))
+				cycleCalls++;
+			if ((src.equals("CAN") || src.equals("COM")) && dst.equals("DIAG"))
+				toDiag++;
+		}
+		assertEquals(2, cycleCalls);
+		assertEquals(2, toDiag);
+	}
+
+	@Test
+	public void testGraphWithoutRedundancyIsUnchanged() {
+		Parser parser = new Parser();
+		parser.parseSourceFiles(Arrays.asList(new SourceFile("graph.dot",
+				"digraph \"BMS_Run\" {\n" + node(1, "BMS_Run") + node(2, "CONT_Set") + call(1, 2) + "}\n")));
+		TransitiveReduction reduction = new TransitiveReduction(parser.getModules(), parser.getEdges());
+
+		assertTrue(reduction.getElidedDependencies().isEmpty());
+		assertEquals(parser.getEdges(), reduction.getEdges());
+	}
+}